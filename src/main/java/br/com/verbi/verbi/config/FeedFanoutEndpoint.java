@@ -0,0 +1,34 @@
+package br.com.verbi.verbi.config;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.service.FanoutPolicy;
+
+/**
+ * Actuator endpoint to read and tune the feed push threshold at runtime.
+ * Exposed over JMX only: there is no admin role to guard it over HTTP.
+ */
+@Component
+@Endpoint(id = "feedfanout")
+public class FeedFanoutEndpoint {
+
+    @Autowired
+    private FanoutPolicy fanoutPolicy;
+
+    @ReadOperation
+    public Map<String, Integer> pushThreshold() {
+        return Map.of("pushThreshold", fanoutPolicy.getPushThreshold());
+    }
+
+    @WriteOperation
+    public Map<String, Integer> setPushThreshold(int pushThreshold) {
+        fanoutPolicy.setPushThreshold(pushThreshold);
+        return pushThreshold();
+    }
+}
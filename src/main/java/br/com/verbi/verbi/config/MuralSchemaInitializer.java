@@ -0,0 +1,95 @@
+package br.com.verbi.verbi.config;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.entity.JobCheckpoint;
+import br.com.verbi.verbi.repository.JobCheckpointRepository;
+import br.com.verbi.verbi.service.HomeTimelineService;
+
+/**
+ * Drops the index the friends pull used before it was driven from the
+ * viewer's friends, and pushes the murals created before home timelines
+ * existed, which all start as not pushed.
+ *
+ * The backfill fans out every mural not pushed yet, once: murals of
+ * high-degree authors stay unpushed, as they would have been when created.
+ * Progress is checkpointed, so a restart resumes where it stopped.
+ */
+@Component
+public class MuralSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MuralSchemaInitializer.class);
+
+    static final String BACKFILL_JOB = "mural-pushed-backfill";
+
+    private static final String DONE = "done";
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private HomeTimelineService homeTimelineService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_mural_pushed_created_at");
+        } catch (DataAccessException e) {
+            logger.warn("Could not drop the old friends pull index: {}", e.getMessage());
+        }
+
+        try {
+            backfill();
+        } catch (DataAccessException e) {
+            logger.warn("Could not push the murals created before home timelines, retrying on next start: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void backfill() {
+        String lastKey = jobCheckpointRepository.findById(BACKFILL_JOB)
+                .map(JobCheckpoint::getLastKey)
+                .orElse(null);
+        if (DONE.equals(lastKey)) {
+            return;
+        }
+
+        UUID afterId = lastKey == null ? new UUID(0L, 0L) : UUID.fromString(lastKey);
+        long pushed = 0;
+        List<UUID> ids;
+        do {
+            ids = jdbcTemplate.queryForList("SELECT id FROM mural WHERE NOT pushed AND id > ? ORDER BY id LIMIT ?",
+                    UUID.class, afterId, BACKFILL_BATCH_SIZE);
+            for (UUID id : ids) {
+                if (homeTimelineService.fanOut(id) > 0) {
+                    pushed++;
+                }
+            }
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+                jobCheckpointRepository.save(new JobCheckpoint(BACKFILL_JOB, afterId.toString(), LocalDateTime.now()));
+            }
+        } while (ids.size() == BACKFILL_BATCH_SIZE);
+
+        jobCheckpointRepository.save(new JobCheckpoint(BACKFILL_JOB, DONE, LocalDateTime.now()));
+        if (pushed > 0) {
+            logger.info("Pushed {} murals created before home timelines into the timelines", pushed);
+        }
+    }
+}
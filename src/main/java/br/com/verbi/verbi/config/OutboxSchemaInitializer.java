@@ -0,0 +1,34 @@
+package br.com.verbi.verbi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the check constraint Hibernate generates on outbox_events.type.
+ * ddl-auto=update never widens it, so event types added after the table was
+ * created (FRIENDSHIP_ENDED, ...) would be rejected on insert.
+ */
+@Component
+public class OutboxSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxSchemaInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE outbox_events DROP CONSTRAINT IF EXISTS outbox_events_type_check");
+        } catch (DataAccessException e) {
+            logger.warn("Could not drop the outbox event type constraint, new event types may fail: {}",
+                    e.getMessage());
+        }
+    }
+}
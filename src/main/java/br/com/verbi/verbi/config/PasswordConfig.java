@@ -1,15 +1,28 @@
 package br.com.verbi.verbi.config;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import br.com.verbi.verbi.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class PasswordConfig {
-    
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+
+    /**
+     * BCrypt encoder running on its own bounded pool, off the request threads.
+     * The bcrypt cost is pinned in configuration so every node hashes alike.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${verbi.password.bcrypt.cost:12}") int cost,
+            @Value("${verbi.password.hash.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${verbi.password.hash.queue-capacity:64}") int queueCapacity,
+            @Value("${verbi.password.hash.timeout:PT2S}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(cost, threads, queueCapacity, timeout, meterRegistry);
     }
 }
@@ -1,6 +1,11 @@
 package br.com.verbi.verbi.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,6 +14,10 @@ public class RabbitMQConfig {
 
     public static final String EMAIL_QUEUE = "email-queue-verbi";
 
+    public static final String TOKEN_REVOCATION_EXCHANGE = "token-revocation-verbi";
+
+    public static final String GLOBAL_MURAL_EXCHANGE = "global-mural-verbi";
+
     /**
      * Creates a durable RabbitMQ queue for emails.
      *
@@ -18,4 +27,64 @@ public class RabbitMQConfig {
     public Queue emailQueue() {
         return new Queue(EMAIL_QUEUE, true); // true = durable queue
     }
+
+    /**
+     * Creates the fanout exchange used to broadcast token revocations to
+     * every node of the cluster.
+     *
+     * @return a FanoutExchange instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "verbi.revocation.broker", havingValue = "amqp", matchIfMissing = true)
+    public FanoutExchange tokenRevocationExchange() {
+        return new FanoutExchange(TOKEN_REVOCATION_EXCHANGE);
+    }
+
+    /**
+     * Creates this node's revocation queue. It is exclusive and auto-delete,
+     * so each node gets its own copy of every revocation while it is running.
+     *
+     * @return a Queue instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "verbi.revocation.broker", havingValue = "amqp", matchIfMissing = true)
+    public Queue tokenRevocationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "verbi.revocation.broker", havingValue = "amqp", matchIfMissing = true)
+    public Binding tokenRevocationBinding(FanoutExchange tokenRevocationExchange, Queue tokenRevocationQueue) {
+        return BindingBuilder.bind(tokenRevocationQueue).to(tokenRevocationExchange);
+    }
+
+    /**
+     * Creates the fanout exchange used to broadcast changes of the global
+     * mural snapshot to every node of the cluster.
+     *
+     * @return a FanoutExchange instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "verbi.feed.global-snapshot.broker", havingValue = "amqp", matchIfMissing = true)
+    public FanoutExchange globalMuralExchange() {
+        return new FanoutExchange(GLOBAL_MURAL_EXCHANGE);
+    }
+
+    /**
+     * Creates this node's global mural queue, exclusive and auto-delete like
+     * the revocation queue.
+     *
+     * @return a Queue instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "verbi.feed.global-snapshot.broker", havingValue = "amqp", matchIfMissing = true)
+    public Queue globalMuralQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "verbi.feed.global-snapshot.broker", havingValue = "amqp", matchIfMissing = true)
+    public Binding globalMuralBinding(FanoutExchange globalMuralExchange, Queue globalMuralQueue) {
+        return BindingBuilder.bind(globalMuralQueue).to(globalMuralExchange);
+    }
 }
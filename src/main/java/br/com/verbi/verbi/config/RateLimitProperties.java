@@ -0,0 +1,121 @@
+package br.com.verbi.verbi.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limits per route, bound from {@code verbi.rate-limit.*}.
+ *
+ * A request is checked against the first route whose method and path
+ * pattern match it; each key of that route has its own bucket.
+ */
+@Component
+@ConfigurationProperties(prefix = "verbi.rate-limit")
+public class RateLimitProperties {
+
+    public enum Key {
+        IP,    // Client address
+        EMAIL, // "email" field of the request body or form
+        USER   // Subject of the bearer token
+    }
+
+    private boolean enabled = true;
+
+    // Keys tracked per route before idle buckets are swept
+    private int maxKeys = 100_000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+
+        private String name;
+
+        // Empty means every method
+        private List<String> methods = new ArrayList<>();
+
+        private String pattern;
+
+        // Requests allowed in a burst, refilled over the period
+        private int capacity;
+
+        private Duration period;
+
+        private List<Key> keys = new ArrayList<>(List.of(Key.IP));
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+
+        public List<Key> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(List<Key> keys) {
+            this.keys = keys;
+        }
+    }
+}
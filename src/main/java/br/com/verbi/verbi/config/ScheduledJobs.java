@@ -0,0 +1,68 @@
+package br.com.verbi.verbi.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.service.HomeTimelineService;
+import br.com.verbi.verbi.service.ScheduledJobRunner;
+import br.com.verbi.verbi.service.TokenBlacklistService;
+import br.com.verbi.verbi.service.UserService;
+
+/**
+ * Triggers of the cluster-wide maintenance jobs. Every node fires them, and
+ * ScheduledJobRunner makes sure only one node actually runs each one.
+ */
+@Component
+public class ScheduledJobs {
+
+    @Autowired
+    private ScheduledJobRunner jobRunner;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private HomeTimelineService homeTimelineService;
+
+    // Longest a job may run before another node can take it over
+    @Value("${verbi.jobs.delete-marked-accounts.lock-at-most-for:PT6H}")
+    private Duration deleteMarkedAccountsLock;
+
+    @Value("${verbi.jobs.token-blacklist-cleanup.lock-at-most-for:PT30M}")
+    private Duration tokenBlacklistCleanupLock;
+
+    @Value("${verbi.jobs.timeline-rebuild.lock-at-most-for:PT30M}")
+    private Duration timelineRebuildLock;
+
+    @Value("${verbi.jobs.timeline-trim.lock-at-most-for:PT30M}")
+    private Duration timelineTrimLock;
+
+    @Scheduled(cron = "${verbi.jobs.delete-marked-accounts.cron:0 0 0 * * *}") // Daily at midnight
+    public void deleteMarkedAccounts() {
+        jobRunner.runExclusively("delete-marked-accounts", deleteMarkedAccountsLock,
+                userService::deleteMarkedAccounts);
+    }
+
+    @Scheduled(cron = "${verbi.jobs.token-blacklist-cleanup.cron:0 0 * * * *}") // Once an hour
+    public void cleanUpExpiredTokens() {
+        jobRunner.runExclusively("token-blacklist-cleanup", tokenBlacklistCleanupLock,
+                tokenBlacklistService::cleanUpExpiredTokens);
+    }
+
+    @Scheduled(cron = "${verbi.jobs.timeline-rebuild.cron:0 */10 * * * *}") // Every 10 minutes
+    public void rebuildMissingTimelines() {
+        jobRunner.runExclusively("timeline-rebuild", timelineRebuildLock, homeTimelineService::rebuildMissing);
+    }
+
+    @Scheduled(cron = "${verbi.jobs.timeline-trim.cron:0 30 * * * *}") // Once an hour
+    public void trimTimelines() {
+        jobRunner.runExclusively("timeline-trim", timelineTrimLock, homeTimelineService::trim);
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.verbi.verbi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingConfig.class);
+
+    /**
+     * Pool running the @Scheduled methods and the jobs started by
+     * ScheduledJobRunner, apart from the request threads.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${verbi.scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("verbi-scheduler-");
+        scheduler.setErrorHandler(e -> logger.error("Scheduled task failed", e));
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
@@ -11,7 +11,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import br.com.verbi.verbi.controller.OAuth2LoginSuccessHandlerController;
 import br.com.verbi.verbi.security.JWTGenerator;
 import br.com.verbi.verbi.security.JwtFilter;
+import br.com.verbi.verbi.security.RateLimitFilter;
 import br.com.verbi.verbi.security.TokenBlacklistFilter;
+import br.com.verbi.verbi.service.RefreshTokenService;
 import br.com.verbi.verbi.service.UserService;
 
 @Configuration
@@ -26,6 +28,12 @@ public class SecurityConfig {
         @Autowired
         private TokenBlacklistFilter tokenBlacklistFilter;
 
+        @Autowired
+        private RefreshTokenService refreshTokenService;
+
+        @Autowired
+        private RateLimitFilter rateLimitFilter;
+
         @Bean
         public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
                 http
@@ -35,7 +43,8 @@ public class SecurityConfig {
                                 // Configura as regras de autorização das rotas
                                 .authorizeHttpRequests(authorizeRequests -> authorizeRequests
                                                 // Rotas públicas
-                                                .requestMatchers("/api/user/register", "/api/user/login", "/oauth/**",
+                                                .requestMatchers("/api/user/register", "/api/user/login",
+                                                                "/api/user/token/refresh", "/oauth/**",
                                                                 "/index.html")
                                                 .permitAll()
                                                 .requestMatchers("/login/oauth2/code/google", "/oauth2/**").permitAll()
@@ -71,13 +80,16 @@ public class SecurityConfig {
                                 // Adiciona filtros de validação de JWT e blacklist de token
                                 .addFilterBefore(new JwtFilter(jwtGenerator, userService),
                                                 UsernamePasswordAuthenticationFilter.class)
-                                .addFilterBefore(tokenBlacklistFilter, UsernamePasswordAuthenticationFilter.class);
+                                .addFilterBefore(tokenBlacklistFilter, UsernamePasswordAuthenticationFilter.class)
+
+                                // Limita a taxa de requisições antes de qualquer validação de JWT
+                                .addFilterBefore(rateLimitFilter, JwtFilter.class);
 
                 return http.build();
         }
 
         @Bean
         public AuthenticationSuccessHandler oAuth2LoginSuccessHandler() {
-                return new OAuth2LoginSuccessHandlerController(jwtGenerator, userService);
+                return new OAuth2LoginSuccessHandlerController(refreshTokenService, userService);
         }
 }
@@ -0,0 +1,69 @@
+package br.com.verbi.verbi.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.util.NameNormalizer;
+
+/**
+ * Creates the indexes behind user search, which JPA annotations can not
+ * express, and fills search_name for users created before the column existed.
+ */
+@Component
+public class UserSearchSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchSchemaInitializer.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            // Trigram index for similarity (%) and substring (LIKE '%q%') matches, which as a GiST index
+            // also returns rows nearest first (ORDER BY <->) so a search stops after one page
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_users_search_name_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_search_name_trgm_gist "
+                    + "ON users USING gist (search_name gist_trgm_ops)");
+            // B-tree index for prefix matches of queries too short to have trigrams
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_users_search_name_prefix "
+                    + "ON users (search_name text_pattern_ops)");
+        } catch (DataAccessException e) {
+            logger.warn("Could not create the user search indexes, search will scan the table: {}",
+                    e.getMessage());
+        }
+
+        backfill();
+    }
+
+    private void backfill() {
+        int updated = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList(
+                    "SELECT id, name FROM users WHERE search_name IS NULL AND name IS NOT NULL LIMIT ?",
+                    BACKFILL_BATCH_SIZE);
+            List<Object[]> batch = rows.stream()
+                    .map(row -> new Object[] { NameNormalizer.normalize((String) row.get("name")), row.get("id") })
+                    .toList();
+            jdbcTemplate.batchUpdate("UPDATE users SET search_name = ? WHERE id = ?", batch);
+            updated += batch.size();
+        } while (rows.size() == BACKFILL_BATCH_SIZE);
+
+        if (updated > 0) {
+            logger.info("Filled search_name for {} users", updated);
+        }
+    }
+}
@@ -3,14 +3,12 @@ package br.com.verbi.verbi.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
@@ -20,7 +18,8 @@ import br.com.verbi.verbi.dto.CommentResponseDto;
 import br.com.verbi.verbi.entity.Comment;
 import br.com.verbi.verbi.entity.Mural;
 import br.com.verbi.verbi.entity.User;
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.CurrentUser;
+import br.com.verbi.verbi.security.UserPrincipal;
 import br.com.verbi.verbi.service.CommentService;
 import br.com.verbi.verbi.service.MuralService;
 import br.com.verbi.verbi.service.UserService;
@@ -43,28 +42,20 @@ public class CommentController {
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private JWTGenerator jwtGenerator; 
-
     /**
      * Creates a new comment for a specific mural.
      *
      * @param muralId   The ID of the mural where the comment will be posted.
      * @param commentDto The DTO containing the comment's content.
-     * @param token      The JWT token for user authentication.
+     * @param principal  The authenticated user.
      * @return ResponseEntity containing the created CommentResponseDto.
      */
     @PostMapping("/write/{muralId}")
     public ResponseEntity<CommentResponseDto> createComment(@PathVariable UUID muralId, 
                                                              @RequestBody CommentDto commentDto,
-                                                             @RequestHeader("Authorization") String token) {
-        // Extract JWT token and user email
-        String actualToken = token.substring(7); // Remove "Bearer " prefix
-        String email = jwtGenerator.getUsername(actualToken); // Extract email from token
-
-        // Find user in the database
-        User user = userService.findUserByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+                                                             @CurrentUser UserPrincipal principal) {
+        // Reference to the authenticated user, resolved by the filter chain
+        User user = userService.getReference(principal.getId());
 
         // Find the mural where the comment will be posted
         Mural mural = muralService.findMuralById(muralId)
@@ -77,7 +68,7 @@ public class CommentController {
         CommentResponseDto responseDto = new CommentResponseDto(
             comment.getId(),
             comment.getContent(),
-            user.getName(), // Assuming User has a getName() method
+            principal.getDisplayName(),
             comment.getCreatedAt() // Assuming the createdAt field is set in the Comment entity
         );
 
@@ -102,18 +93,14 @@ public class CommentController {
      *
      * @param id        The ID of the comment to update.
      * @param commentDto The DTO containing the new content for the comment.
-     * @param token      The JWT token for user authentication.
+     * @param principal  The authenticated user.
      * @return ResponseEntity containing the updated Comment.
      */
     @PutMapping("/update/{id}")
     public ResponseEntity<Comment> updateComment(@PathVariable UUID id, 
                                                  @RequestBody CommentDto commentDto, 
-                                                 @RequestHeader("Authorization") String token) {
-        String actualToken = token.substring(7); // Remove "Bearer " prefix
-        String email = jwtGenerator.getUsername(actualToken); // Extract email from token
-
-        User user = userService.findUserByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+                                                 @CurrentUser UserPrincipal principal) {
+        User user = userService.getReference(principal.getId());
 
         Comment updatedComment = commentService.updateComment(id, commentDto, user);
         return ResponseEntity.ok(updatedComment);
@@ -122,17 +109,13 @@ public class CommentController {
     /**
      * Deletes a comment by its ID.
      *
-     * @param id   The ID of the comment to delete.
-     * @param token The JWT token for user authentication.
+     * @param id        The ID of the comment to delete.
+     * @param principal The authenticated user.
      * @return ResponseEntity with no content.
      */
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<Void> deleteComment(@PathVariable UUID id, @RequestHeader("Authorization") String token) {
-        String actualToken = token.substring(7); // Remove "Bearer " prefix
-        String email = jwtGenerator.getUsername(actualToken); // Extract email from token
-
-        User user = userService.findUserByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    public ResponseEntity<Void> deleteComment(@PathVariable UUID id, @CurrentUser UserPrincipal principal) {
+        User user = userService.getReference(principal.getId());
 
         commentService.deleteComment(id, user);
 
@@ -8,16 +8,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import br.com.verbi.verbi.dto.FriendshipDto;
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.CurrentUser;
+import br.com.verbi.verbi.security.UserPrincipal;
 import br.com.verbi.verbi.service.FriendshipService;
 import br.com.verbi.verbi.service.UserService;
 import br.com.verbi.verbi.entity.User;
@@ -29,9 +28,6 @@ public class FriendshipController {
     @Autowired
     private FriendshipService friendshipService;
 
-    @Autowired
-    private JWTGenerator jwtGenerator;
-
     @Autowired
     private UserService userService;
 
@@ -39,18 +35,12 @@ public class FriendshipController {
      * Sends a friend request from the authenticated user to another user.
      *
      * @param receiverId The UUID of the receiver.
-     * @param token      The JWT token containing the sender's credentials.
+     * @param sender     The authenticated user sending the request.
      * @return A response indicating the success of the friend request.
      */
     @PostMapping("/send/{receiverId}")
     public ResponseEntity<String> sendFriendRequest(@PathVariable UUID receiverId,
-                                                    @RequestHeader("Authorization") String token) {
-        String actualToken = token.substring(7); // Remove "Bearer " prefix
-        String email = jwtGenerator.getUsername(actualToken); // Extract email from JWT
-
-        User sender = userService.findUserByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
+                                                    @CurrentUser UserPrincipal sender) {
         friendshipService.sendFriendRequest(sender.getId(), receiverId);
         return ResponseEntity.status(HttpStatus.CREATED).body("Friend request sent successfully");
     }
@@ -79,19 +69,29 @@ public class FriendshipController {
         return ResponseEntity.ok("Friend request declined successfully");
     }
 
+    /**
+     * Ends an accepted friendship of the authenticated user.
+     *
+     * @param friendshipId The UUID of the friendship to be ended.
+     * @param principal    The authenticated user.
+     * @return A response indicating the friendship was removed.
+     */
+    @PostMapping("/remove/{friendshipId}")
+    public ResponseEntity<String> removeFriend(@PathVariable UUID friendshipId,
+                                               @CurrentUser UserPrincipal principal) {
+        friendshipService.removeFriend(friendshipId, principal.getId());
+        return ResponseEntity.ok("Friend removed successfully");
+    }
+
     /**
      * Retrieves the list of friends for the authenticated user.
      *
-     * @param token The JWT token containing the user's credentials.
+     * @param principal The authenticated user.
      * @return A list of friends as a response.
      */
     @GetMapping("/friends")
-    public ResponseEntity<List<FriendshipDto>> getFriends(@RequestHeader("Authorization") String token) {
-        String actualToken = token.substring(7); // Remove "Bearer " prefix
-        String email = jwtGenerator.getUsername(actualToken); // Extract email from JWT
-
-        User user = userService.findUserByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    public ResponseEntity<List<FriendshipDto>> getFriends(@CurrentUser UserPrincipal principal) {
+        User user = userService.getReference(principal.getId());
 
         List<FriendshipDto> friends = friendshipService.getFriends(user).stream()
                 .map(FriendshipDto::fromEntity) // Convert each Friendship to FriendshipResponseDTO
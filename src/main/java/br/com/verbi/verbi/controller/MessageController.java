@@ -1,24 +1,24 @@
 package br.com.verbi.verbi.controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 
 import br.com.verbi.verbi.dto.CreateMessageRequest;
 import br.com.verbi.verbi.dto.MessageDto;
 import br.com.verbi.verbi.entity.Message;
 import br.com.verbi.verbi.entity.User;
-import br.com.verbi.verbi.exception.InvalidDataException;
-import br.com.verbi.verbi.repository.UserRepository;
-import br.com.verbi.verbi.service.AuthorizationService;
+import br.com.verbi.verbi.security.UserPrincipal;
 import br.com.verbi.verbi.service.MessageService;
+import br.com.verbi.verbi.service.UserService;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,35 +26,42 @@ import java.util.UUID;
 @RequestMapping("/api/messages")
 public class MessageController {
 
+    private static final Logger logger = LoggerFactory.getLogger(MessageController.class);
+
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
     /**
      * Envia uma mensagem em um chat específico via WebSocket.
      * 
-     * @param sender  Usuário que está enviando a mensagem.
+     * @param user    Usuário autenticado no CONNECT da sessão STOMP.
      * @param chatId  ID do chat.
      * @param request Requisição contendo o conteúdo da mensagem.
      */
     @MessageMapping("/sendMessage/{chatId}")
-    public void sendMessage(@AuthenticationPrincipal User sender,
-            @PathVariable UUID chatId,
-            @RequestBody CreateMessageRequest request) {
-        try {
-            // Verifique se o senderDetails não é nulo
-            if (sender == null || sender.getName() == null) {
-                throw new IllegalArgumentException("Sender cannot be null");
-            }
+    public void sendMessage(Principal user,
+            @DestinationVariable UUID chatId,
+            @Payload CreateMessageRequest request) {
+        // Principal resolvido uma única vez pelo MyChannelInterceptor
+        if (!(user instanceof Authentication)
+                || !(((Authentication) user).getPrincipal() instanceof UserPrincipal)) {
+            throw new IllegalArgumentException("Sender cannot be null");
+        }
+        UserPrincipal principal = (UserPrincipal) ((Authentication) user).getPrincipal();
 
+        try {
+            User sender = userService.getReference(principal.getId());
             Message message = messageService.sendMessage(chatId, sender, request.getContent());
-            messagingTemplate.convertAndSend("/topic/messages/" + chatId, message);
-        } catch (Exception e) {
-            // Log da exceção
-            System.out.println("Error sending message: " + e.getMessage());
-            throw e; // Rethrow ou trate a exceção conforme necessário
+            messagingTemplate.convertAndSend("/topic/messages/" + chatId, MessageDto.fromEntity(message));
+        } catch (RuntimeException e) {
+            logger.warn("Error sending message to chat {}: {}", chatId, e.getMessage());
+            throw e;
         }
     }
 
@@ -68,12 +75,7 @@ public class MessageController {
     public List<MessageDto> getMessagesByChat(@PathVariable UUID chatId) {
         List<Message> messages = messageService.getMessagesByChat(chatId);
         return messages.stream()
-                .map(message -> new MessageDto(
-                        message.getId(),
-                        message.getChat().getId(),
-                        message.getSender().getId(),
-                        message.getContent(),
-                        message.getTimestamp()))
+                .map(MessageDto::fromEntity)
                 .toList();
     }
 }
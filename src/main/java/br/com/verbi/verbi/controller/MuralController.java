@@ -3,24 +3,26 @@ package br.com.verbi.verbi.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.com.verbi.verbi.dto.CursorPageDto;
 import br.com.verbi.verbi.dto.MuralDto;
 import br.com.verbi.verbi.dto.MuralResponseDto;
 import br.com.verbi.verbi.entity.Mural;
 import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.enums.FeedSort;
 import br.com.verbi.verbi.exception.AccessDeniedException;
-import br.com.verbi.verbi.exception.UserNotFoundException;
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.CurrentUser;
+import br.com.verbi.verbi.security.UserPrincipal;
+import br.com.verbi.verbi.service.FeedService;
 import br.com.verbi.verbi.service.MuralService;
 import br.com.verbi.verbi.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
@@ -30,9 +32,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/mural")
@@ -45,40 +45,27 @@ public class MuralController {
     private UserService userService; // Service for user operations
 
     @Autowired
-    private JWTGenerator jwtGenerator; // JWT token generator
-
-    /**
-     * Extracts user information from the provided JWT token.
-     * 
-     * @param token The JWT token containing user information.
-     * @return The user associated with the token.
-     * @throws UsernameNotFoundException if the user is not found.
-     */
-    private User extractUserFromToken(String token) {
-        String actualToken = token.substring(7); // Remove "Bearer " prefix
-        String email = jwtGenerator.getUsername(actualToken); // Get username from token
-        return userService.findUserByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found")); // User not found
-    }
+    private FeedService feedService; // Visible and home feeds
 
     /**
      * Creates a new mural.
      * 
-     * @param muralDto The DTO containing mural data.
-     * @param token    The JWT token for authentication.
+     * @param muralDto  The DTO containing mural data.
+     * @param principal The authenticated user.
      * @return ResponseEntity containing the created mural.
      */
     @PostMapping("/write")
     public ResponseEntity<MuralResponseDto> createMural(@Valid @RequestBody MuralDto muralDto,
-            @RequestHeader("Authorization") String token) {
-        User user = extractUserFromToken(token); // Extract user from token
+            @CurrentUser UserPrincipal principal) {
+        User user = userService.getReference(principal.getId()); // Reference to the authenticated user
         Mural createdMural = muralService.createMural(muralDto.getBody(), muralDto.getVisibility(), user);
 
         MuralResponseDto responseDto = new MuralResponseDto(
                 createdMural.getId(),
                 createdMural.getBody(),
                 createdMural.getVisibility(),
-                user.getName()
+                principal.getDisplayName(),
+                createdMural.getCreatedAt()
         );
         return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
     }
@@ -93,29 +80,23 @@ public class MuralController {
     @GetMapping("/user/{name}")
     public ResponseEntity<Page<MuralResponseDto>> getMuralsByUserName(@PathVariable String name,
             @PageableDefault(size = 10) Pageable pageable) {
-        Page<Mural> murals = muralService.findMuralsByUserName(name, pageable);
-        Page<MuralResponseDto> responseDtos = murals.map(mural -> new MuralResponseDto(
-                mural.getId(),
-                mural.getBody(),
-                mural.getVisibility(),
-                mural.getUser().getName()
-        ));
-        return ResponseEntity.ok(responseDtos); // Return page of murals
+        // Read as DTOs with the author joined, not one user load per mural
+        return ResponseEntity.ok(muralService.findMuralsByUserName(name, pageable)); // Return page of murals
     }
 
     /**
      * Updates an existing mural.
      * 
-     * @param id       The ID of the mural to update.
-     * @param muralDto The DTO containing updated mural data.
-     * @param token    The JWT token for authentication.
+     * @param id        The ID of the mural to update.
+     * @param muralDto  The DTO containing updated mural data.
+     * @param principal The authenticated user.
      * @return ResponseEntity containing the updated mural or error status.
      */
     @PutMapping("/update/{id}")
     public ResponseEntity<MuralResponseDto> updateMural(@PathVariable UUID id,
             @Valid @RequestBody MuralDto muralDto,
-            @RequestHeader("Authorization") String token) {
-        User user = extractUserFromToken(token); // Extract user from token
+            @CurrentUser UserPrincipal principal) {
+        User user = userService.getReference(principal.getId()); // Reference to the authenticated user
 
         try {
             Mural updatedMural = muralService.updateMural(id, muralDto, user);
@@ -123,7 +104,7 @@ public class MuralController {
                     updatedMural.getId(),
                     updatedMural.getBody(),
                     updatedMural.getVisibility(),
-                    updatedMural.getUser().getName()
+                    principal.getDisplayName() // Only the owner can update the mural
             );
             return ResponseEntity.ok(responseDto); // Return updated mural
         } catch (EntityNotFoundException e) {
@@ -136,13 +117,13 @@ public class MuralController {
     /**
      * Deletes a mural by its ID.
      * 
-     * @param id    The ID of the mural to delete.
-     * @param token The JWT token for authentication.
+     * @param id        The ID of the mural to delete.
+     * @param principal The authenticated user.
      * @return ResponseEntity with no content or error status.
      */
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<Void> deleteMural(@PathVariable UUID id, @RequestHeader("Authorization") String token) {
-        User user = extractUserFromToken(token); // Extract user from token
+    public ResponseEntity<Void> deleteMural(@PathVariable UUID id, @CurrentUser UserPrincipal principal) {
+        User user = userService.getReference(principal.getId()); // Reference to the authenticated user
 
         try {
             muralService.deleteMural(id, user);
@@ -155,26 +136,43 @@ public class MuralController {
     }
 
     /**
-     * Lists visible murals for the authenticated user.
+     * Lists visible murals for the authenticated user, newest first or ranked.
      * 
-     * @param token The JWT token for authentication.
-     * @return ResponseEntity containing a list of visible murals.
+     * @param principal The authenticated user.
+     * @param cursor    Cursor of the next page, as returned by the previous call.
+     * @param limit     Maximum number of murals.
+     * @param sort      "recent", or "ranked" for the best scored murals in a single page.
+     * @return ResponseEntity containing a page of visible murals.
      */
     @GetMapping("/visible")
-    public ResponseEntity<List<MuralResponseDto>> getVisibleMurals(@RequestHeader("Authorization") String token) {
-        User user = extractUserFromToken(token); // Extract user from token
-        List<Mural> visibleMurals = muralService.getVisibleMurals(user);
-        
-        List<MuralResponseDto> responseDtos = visibleMurals.stream()
-                .map(mural -> new MuralResponseDto(
-                        mural.getId(),
-                        mural.getBody(),
-                        mural.getVisibility(),
-                        mural.getUser().getName()
-                ))
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(responseDtos); // Return visible murals
+    public ResponseEntity<CursorPageDto<MuralResponseDto>> getVisibleMurals(@CurrentUser UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + FeedService.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "recent") String sort) {
+        if (FeedSort.from(sort) == FeedSort.RANKED) {
+            return ResponseEntity.ok(feedService.rankVisibleFeed(principal.getId(), limit));
+        }
+        return ResponseEntity.ok(feedService.getVisibleFeed(principal.getId(), cursor, limit));
     }
-}
 
+    /**
+     * Lists the home timeline of the authenticated user: their murals and
+     * their friends', newest first.
+     * 
+     * @param principal The authenticated user.
+     * @param cursor    Cursor of the next page, as returned by the previous call.
+     * @param limit     Maximum number of murals.
+     * @param sort      "recent", or "ranked" for the best scored murals in a single page.
+     * @return ResponseEntity containing a page of the timeline.
+     */
+    @GetMapping("/home")
+    public ResponseEntity<CursorPageDto<MuralResponseDto>> getHomeTimeline(@CurrentUser UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + FeedService.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "recent") String sort) {
+        if (FeedSort.from(sort) == FeedSort.RANKED) {
+            return ResponseEntity.ok(feedService.rankHomeFeed(principal.getId(), limit));
+        }
+        return ResponseEntity.ok(feedService.getHomeFeed(principal.getId(), cursor, limit));
+    }
+}
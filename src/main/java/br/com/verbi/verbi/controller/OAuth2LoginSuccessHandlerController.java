@@ -9,9 +9,10 @@ import org.springframework.security.oauth2.client.authentication.OAuth2Authentic
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 
+import br.com.verbi.verbi.dto.AuthResponseDto;
 import br.com.verbi.verbi.entity.User;
 
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.service.RefreshTokenService;
 import br.com.verbi.verbi.service.UserService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,11 +20,11 @@ import jakarta.servlet.http.HttpServletResponse;
 
 public class OAuth2LoginSuccessHandlerController implements AuthenticationSuccessHandler {
 
-    private JWTGenerator jwtGenerator;
+    private RefreshTokenService refreshTokenService;
     private UserService userService;
 
-    public OAuth2LoginSuccessHandlerController(JWTGenerator jwtGenerator, UserService userService) {
-        this.jwtGenerator = jwtGenerator;
+    public OAuth2LoginSuccessHandlerController(RefreshTokenService refreshTokenService, UserService userService) {
+        this.refreshTokenService = refreshTokenService;
         this.userService = userService;
     }
 
@@ -58,13 +59,13 @@ public class OAuth2LoginSuccessHandlerController implements AuthenticationSucces
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
 
-        // Gerar um token JWT para o usuário
-        String token = jwtGenerator.generateToken(user.getEmail());
+        // Gerar o token JWT e o refresh token para o usuário
+        AuthResponseDto tokens = refreshTokenService.issueTokens(user);
 
-        // Criar o objeto JSON contendo o token e as informações do usuário
+        // Criar o objeto JSON contendo os tokens e as informações do usuário
         String jsonResponse = String.format(
-                "{\"token\": \"Bearer %s\", \"user\": {\"name\": \"%s\", \"email\": \"%s\", \"picture\": \"%s\"}}",
-                token, user.getName(), user.getEmail(), user.getPicture());
+                "{\"token\": \"Bearer %s\", \"refreshToken\": \"%s\", \"user\": {\"name\": \"%s\", \"email\": \"%s\", \"picture\": \"%s\"}}",
+                tokens.getAccessToken(), tokens.getRefreshToken(), user.getName(), user.getEmail(), user.getPicture());
 
         // Enviar a resposta com o token e informações do usuário
         response.setContentType("application/json");
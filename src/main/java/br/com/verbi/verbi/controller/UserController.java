@@ -1,6 +1,7 @@
 package br.com.verbi.verbi.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
@@ -21,20 +22,32 @@ import org.springframework.web.multipart.MultipartFile;
 
 import org.springframework.http.MediaType;
 
+import br.com.verbi.verbi.dto.AuthResponseDto;
+import br.com.verbi.verbi.dto.CursorPageDto;
 import br.com.verbi.verbi.dto.LoginDto;
+import br.com.verbi.verbi.dto.RefreshTokenDto;
+import br.com.verbi.verbi.dto.UserBatchRequestDto;
 import br.com.verbi.verbi.dto.UserDto;
+import br.com.verbi.verbi.dto.UserProfileDto;
+import br.com.verbi.verbi.dto.UserSummaryDto;
 import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.exception.PasswordHashingUnavailableException;
 import br.com.verbi.verbi.exception.TokenExpiredException;
 import br.com.verbi.verbi.exception.TokenInvalidException;
 import br.com.verbi.verbi.exception.UserNotFoundException;
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.CurrentUser;
+import br.com.verbi.verbi.security.UserPrincipal;
 import br.com.verbi.verbi.service.EmailService;
+import br.com.verbi.verbi.service.RefreshTokenService;
 import br.com.verbi.verbi.service.TokenBlacklistService;
+import br.com.verbi.verbi.service.UserAutocompleteService;
+import br.com.verbi.verbi.service.UserProfileService;
+import br.com.verbi.verbi.service.UserSearchService;
 import br.com.verbi.verbi.service.UserService;
 import jakarta.validation.Valid;
 
-import java.util.Optional;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.HashMap;
 import java.util.Map;
@@ -50,10 +63,19 @@ public class UserController {
     private EmailService emailService;
 
     @Autowired
-    private JWTGenerator jwtGenerator;
+    private TokenBlacklistService tokenBlacklistService;
 
     @Autowired
-    private TokenBlacklistService tokenBlacklistService;
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private UserAutocompleteService userAutocompleteService;
+
+    @Autowired
+    private UserProfileService userProfileService;
 
     /**
      * Registers a new user with an optional profile picture.
@@ -69,6 +91,8 @@ public class UserController {
         try {
             User user = userService.registerUserWithEmail(userDto, picture);
             return ResponseEntity.status(HttpStatus.CREATED).body(user);
+        } catch (PasswordHashingUnavailableException e) {
+            throw e; // Answered with 503 by the GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(null); // Return conflict if email is already in use
         }
@@ -95,60 +119,141 @@ public class UserController {
 
         boolean isAuthenticated = userService.authenticateUser(loginDto.getEmail(), loginDto.getPassword());
         if (isAuthenticated) {
-            String token = jwtGenerator.generateToken(loginDto.getEmail());
-            Map<String, String> response = new HashMap<>();
-            response.put("token", "Bearer " + token);
-            return ResponseEntity.ok(response); // Return token if authenticated
+            User user = userOptional.get();
+            return ResponseEntity.ok(toTokenResponse(refreshTokenService.issueTokens(user))); // Return tokens if authenticated
         }
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized"); // Unauthorized status
     }
 
     /**
-     * Logs out the user by blacklisting the provided token.
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * The presented refresh token can not be used again.
+     *
+     * @param refreshTokenDto DTO containing the refresh token
+     * @return ResponseEntity with the new tokens, or unauthorized status
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenDto refreshTokenDto) {
+        if (!hasRefreshToken(refreshTokenDto)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Refresh token is required");
+        }
+        try {
+            return ResponseEntity.ok(toTokenResponse(refreshTokenService.rotate(refreshTokenDto.getRefreshToken())));
+        } catch (TokenExpiredException | TokenInvalidException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+    }
+
+    private static boolean hasRefreshToken(RefreshTokenDto refreshTokenDto) {
+        return refreshTokenDto != null && refreshTokenDto.getRefreshToken() != null
+                && !refreshTokenDto.getRefreshToken().isBlank();
+    }
+
+    private Map<String, String> toTokenResponse(AuthResponseDto tokens) {
+        Map<String, String> response = new HashMap<>();
+        response.put("token", "Bearer " + tokens.getAccessToken());
+        response.put("refreshToken", tokens.getRefreshToken());
+        return response;
+    }
+
+    /**
+     * Logs out the user by blacklisting the provided token and revoking
+     * refresh tokens. When the body carries a refresh token only its family
+     * (this session) is revoked; otherwise every refresh token of the user is.
      *
-     * @param token JWT token to be blacklisted
+     * @param token           JWT token to be blacklisted
+     * @param principal       the authenticated user
+     * @param refreshTokenDto optional DTO containing the session's refresh token
      * @return ResponseEntity with logout confirmation
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String token,
+                                    @CurrentUser UserPrincipal principal,
+                                    @RequestBody(required = false) RefreshTokenDto refreshTokenDto) {
         String actualToken = token.substring(7); // Remove "Bearer " prefix
         tokenBlacklistService.blacklistToken(actualToken);
+
+        if (hasRefreshToken(refreshTokenDto)) {
+            refreshTokenService.revokeFamily(refreshTokenDto.getRefreshToken(), principal.getId());
+        } else {
+            refreshTokenService.revokeAll(principal.getId());
+        }
         return ResponseEntity.ok("Logout Successfully");
     }
 
     /**
-     * Retrieves a user by their UUID.
+     * Retrieves a user's profile by their UUID. Answers 304 when the
+     * If-None-Match header carries the current ETag.
      *
      * @param id UUID of the user
-     * @return ResponseEntity with the found User or not found status
+     * @return ResponseEntity with the profile or not found status
      */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable UUID id) {
-        Optional<User> user = userService.findUserById(id);
-        return user.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<UserProfileDto> getUserById(@PathVariable UUID id) {
+        return toProfileResponse(userProfileService.findById(id));
     }
 
     /**
-     * Retrieves a user by their email.
+     * Retrieves a user's profile by their email. Answers 304 when the
+     * If-None-Match header carries the current ETag.
      *
      * @param email Email of the user
-     * @return ResponseEntity with the found User or not found status
+     * @return ResponseEntity with the profile or not found status
      */
     @GetMapping("/email/{email}")
-    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        Optional<User> user = userService.findUserByEmail(email);
-        return user.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<UserProfileDto> getUserByEmail(@PathVariable String email) {
+        return toProfileResponse(userProfileService.findByEmail(email));
     }
 
     /**
-     * Searches for users by their name.
+     * Retrieves the name and picture of several users in one call, e.g. the
+     * authors of a page of murals or the members of a chat list.
      *
-     * @param name Name to search for
-     * @return List of users matching the search criteria
+     * @param request Ids of the users; duplicates are ignored
+     * @return Users found, in request order; unknown ids are left out
+     */
+    @PostMapping("/batch")
+    public List<UserSummaryDto> getUsersByIds(@RequestBody UserBatchRequestDto request) {
+        return userProfileService.findAllById(request.getIds()).stream()
+                .map(profile -> new UserSummaryDto(profile.getId(), profile.getName(), profile.getPicture()))
+                .toList();
+    }
+
+    // Spring compares the ETag with If-None-Match and sends 304 without writing the body
+    private static ResponseEntity<UserProfileDto> toProfileResponse(Optional<UserProfileDto> profile) {
+        return profile.map(p -> ResponseEntity.ok()
+                .eTag(p.getETag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(p))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Searches for users by their name, ranked by similarity.
+     *
+     * @param name   Name to search for (accents and case are ignored)
+     * @param cursor Cursor of the next page, as returned by the previous call
+     * @param limit  Maximum number of results
+     * @return Page of users matching the search criteria
      */
     @GetMapping("/search")
-    public List<User> findUsersByName(@RequestParam String name) {
-        return userService.findUserByName(name);
+    public CursorPageDto<UserSummaryDto> findUsersByName(@RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + UserSearchService.DEFAULT_LIMIT) int limit) {
+        return userSearchService.searchByName(name, cursor, limit);
+    }
+
+    /**
+     * Suggests users while a name is being typed, most popular first.
+     *
+     * @param prefix Typed prefix of the name or of one of its words
+     * @param limit  Maximum number of suggestions
+     * @return Matching users
+     */
+    @GetMapping("/autocomplete")
+    public List<UserSummaryDto> autocompleteUsers(@RequestParam String prefix,
+            @RequestParam(defaultValue = "" + UserAutocompleteService.DEFAULT_LIMIT) int limit) {
+        return userAutocompleteService.complete(prefix, limit);
     }
 
     /**
@@ -163,6 +268,8 @@ public class UserController {
         try {
             User updatedUser = userService.updateUser(id, userDto);
             return ResponseEntity.ok(updatedUser);
+        } catch (PasswordHashingUnavailableException e) {
+            throw e; // Answered with 503 by the GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build(); // Handle user not found
         }
@@ -204,6 +311,8 @@ public class UserController {
             return ResponseEntity.ok("Password has been reset successfully.");
         } catch (TokenExpiredException | TokenInvalidException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage()); // Handle token issues
+        } catch (PasswordHashingUnavailableException e) {
+            throw e; // Answered with 503 by the GlobalExceptionHandler
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred.");
         }
@@ -1,9 +1,15 @@
 package br.com.verbi.verbi.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class AuthResponseDto {
     
     private String accessToken;
+
+    private String refreshToken;
 }
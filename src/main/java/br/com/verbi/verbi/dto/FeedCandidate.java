@@ -0,0 +1,17 @@
+package br.com.verbi.verbi.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What feed ranking needs of a mural: its id, author and creation date,
+ * without the body. Read as a projection by the candidate queries.
+ */
+public interface FeedCandidate {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    LocalDateTime getCreatedAt();
+}
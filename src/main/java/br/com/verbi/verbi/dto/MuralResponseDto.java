@@ -1,16 +1,23 @@
 package br.com.verbi.verbi.dto;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import br.com.verbi.verbi.enums.MuralVisibility;
 import lombok.Data;
 
 @Data
-public class MuralResponseDto {
+public class MuralResponseDto implements FeedCandidate {
     private UUID id;
     private String body;
     private MuralVisibility visibility;
     private String userName; // Novo campo para armazenar o nome do usuário
+    private LocalDateTime createdAt;
+
+    @JsonIgnore
+    private UUID userId; // Author, for feed ranking only
 
     // Construtor atualizado
     public MuralResponseDto(UUID id, String body, MuralVisibility visibility, String userName) {
@@ -20,6 +27,19 @@ public class MuralResponseDto {
         this.userName = userName; // Inicializa o novo campo
     }
 
+    public MuralResponseDto(UUID id, String body, MuralVisibility visibility, String userName,
+            LocalDateTime createdAt) {
+        this(id, body, visibility, userName);
+        this.createdAt = createdAt;
+    }
+
+    // Constructor expression of the repository queries, which join the author once
+    public MuralResponseDto(UUID id, String body, MuralVisibility visibility, String userName,
+            LocalDateTime createdAt, UUID userId) {
+        this(id, body, visibility, userName, createdAt);
+        this.userId = userId;
+    }
+
     // Getters
     public UUID getId() {
         return id;
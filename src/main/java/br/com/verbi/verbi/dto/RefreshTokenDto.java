@@ -0,0 +1,9 @@
+package br.com.verbi.verbi.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenDto {
+
+    private String refreshToken;
+}
@@ -0,0 +1,14 @@
+package br.com.verbi.verbi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Data;
+
+@Data
+public class UserBatchRequestDto {
+
+    // Users to look up, at most UserProfileService.MAX_BATCH_SIZE distinct ids
+    private List<UUID> ids = new ArrayList<>();
+}
@@ -0,0 +1,40 @@
+package br.com.verbi.verbi.dto;
+
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import br.com.verbi.verbi.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Public profile of a user, as returned by the user lookup endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileDto {
+
+    private UUID id;
+    private String name;
+    private String email;
+    private String picture;
+    private String description;
+
+    // Profile version, only used to build the ETag
+    @JsonIgnore
+    private long version;
+
+    public static UserProfileDto fromEntity(User user) {
+        return new UserProfileDto(user.getId(), user.getName(), user.getEmail(), user.getPicture(),
+                user.getDescription(), user.getProfileVersion());
+    }
+
+    // Strong ETag: changes whenever UserService bumps the profile version
+    @JsonIgnore
+    public String getETag() {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.verbi.verbi.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+
+    private UUID id;
+    private String name;
+    private String picture;
+}
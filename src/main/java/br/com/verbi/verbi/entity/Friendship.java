@@ -13,10 +13,17 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = {
+        // Friendship probes of the feeds and fan-out, answered from the index alone
+        @Index(name = "idx_friendship_sender_status_receiver", columnList = "sender_id, status, receiver_id"),
+        @Index(name = "idx_friendship_receiver_status_sender", columnList = "receiver_id, status, sender_id")
+})
 public class Friendship {
 
     @Id
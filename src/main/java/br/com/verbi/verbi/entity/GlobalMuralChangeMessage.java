@@ -0,0 +1,109 @@
+package br.com.verbi.verbi.entity;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+import br.com.verbi.verbi.enums.MuralVisibility;
+
+/**
+ * A change to the global mural snapshot, sent to the other nodes.
+ */
+public class GlobalMuralChangeMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        PUT,           // Mural added or edited, removed if no longer GLOBAL
+        REMOVE,        // Mural deleted
+        REMOVE_AUTHORS // Murals of deleted users
+    }
+
+    private String origin; // Node that made the change, which already applied it
+    private Type type;
+    private UUID muralId;
+    private String body;
+    private MuralVisibility visibility;
+    private String userName;
+    private String createdAt; // ISO-8601, so it does not depend on the JSON date settings
+    private UUID userId;
+    private List<UUID> userIds;
+
+    public GlobalMuralChangeMessage() {}
+
+    public GlobalMuralChangeMessage(Type type) {
+        this.type = type;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public UUID getMuralId() {
+        return muralId;
+    }
+
+    public void setMuralId(UUID muralId) {
+        this.muralId = muralId;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public MuralVisibility getVisibility() {
+        return visibility;
+    }
+
+    public void setVisibility(MuralVisibility visibility) {
+        this.visibility = visibility;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public List<UUID> getUserIds() {
+        return userIds;
+    }
+
+    public void setUserIds(List<UUID> userIds) {
+        this.userIds = userIds;
+    }
+}
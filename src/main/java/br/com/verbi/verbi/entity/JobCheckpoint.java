@@ -0,0 +1,57 @@
+package br.com.verbi.verbi.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Progress of a batch job, so an interrupted run resumes where it stopped
+ * instead of starting over.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    @Id
+    private String jobName;
+
+    // Last key processed; every key up to it is done
+    private String lastKey;
+
+    private LocalDateTime updatedAt;
+
+    public JobCheckpoint() {
+    }
+
+    public JobCheckpoint(String jobName, String lastKey, LocalDateTime updatedAt) {
+        this.jobName = jobName;
+        this.lastKey = lastKey;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getLastKey() {
+        return lastKey;
+    }
+
+    public void setLastKey(String lastKey) {
+        this.lastKey = lastKey;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,25 +1,33 @@
 package br.com.verbi.verbi.entity;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import br.com.verbi.verbi.enums.MuralVisibility;
+import br.com.verbi.verbi.util.GeneratedUuidV7;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "mural")
+@Table(name = "mural", indexes = {
+        @Index(name = "idx_mural_user_id", columnList = "user_id"),
+        @Index(name = "idx_mural_visibility_created_at", columnList = "visibility, createdAt, id"), // GLOBAL pull
+        @Index(name = "idx_mural_user_pushed_created_at", columnList = "user_id, pushed, createdAt, id") // Friends pull
+})
 public class Mural {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedUuidV7 // Time-ordered, so the feed breaks createdAt ties by creation order
     private UUID id;
 
     private String body;
@@ -31,6 +39,16 @@ public class Mural {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Murals created before this column existed get the time it was added
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // In the home timelines of the author's friends; if not, the feed pulls it at read time
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean pushed;
+
     // Getters and setters
 
     public UUID getId() {
@@ -64,4 +82,20 @@ public class Mural {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isPushed() {
+        return pushed;
+    }
+
+    public void setPushed(boolean pushed) {
+        this.pushed = pushed;
+    }
 }
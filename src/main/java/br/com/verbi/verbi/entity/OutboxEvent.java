@@ -0,0 +1,126 @@
+package br.com.verbi.verbi.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import br.com.verbi.verbi.enums.OutboxEventStatus;
+import br.com.verbi.verbi.enums.OutboxEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Side effect recorded in the same transaction as the change that caused
+ * it, and carried out later by OutboxDispatcher. Deleted once handled.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_status_available_at", columnList = "status, availableAt"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventType type;
+
+    // Id of the entity the event is about, e.g. the registered user
+    @Column(nullable = false)
+    private UUID aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventStatus status;
+
+    private int attempts;
+
+    private LocalDateTime createdAt;
+
+    // Not picked up before this time: set on claim and on backoff
+    private LocalDateTime availableAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(OutboxEventType type, UUID aggregateId, LocalDateTime now) {
+        this.type = type;
+        this.aggregateId = aggregateId;
+        this.status = OutboxEventStatus.PENDING;
+        this.createdAt = now;
+        this.availableAt = now;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public OutboxEventType getType() {
+        return type;
+    }
+
+    public void setType(OutboxEventType type) {
+        this.type = type;
+    }
+
+    public UUID getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(UUID aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public OutboxEventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxEventStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(LocalDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.verbi.verbi.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A mural in a user's home timeline: their own murals and those of their
+ * friends, pushed when the mural is created (see HomeTimelineService).
+ * Derived data, so there are no foreign keys: entries of deleted murals
+ * are dropped by the join on read and by the cleanup.
+ */
+@Entity
+@IdClass(TimelineEntry.Key.class)
+@Table(name = "home_timeline", indexes = {
+        @Index(name = "idx_home_timeline_owner_created_at", columnList = "ownerId, createdAt, muralId"),
+        @Index(name = "idx_home_timeline_mural_id", columnList = "muralId")
+})
+public class TimelineEntry {
+
+    @Id
+    private UUID ownerId;
+
+    @Id
+    private UUID muralId;
+
+    // Copy of the mural's createdAt, the timeline order
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(UUID ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public UUID getMuralId() {
+        return muralId;
+    }
+
+    public void setMuralId(UUID muralId) {
+        this.muralId = muralId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public static class Key implements Serializable {
+
+        private UUID ownerId;
+        private UUID muralId;
+
+        public Key() {
+        }
+
+        public Key(UUID ownerId, UUID muralId) {
+            this.ownerId = ownerId;
+            this.muralId = muralId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return Objects.equals(ownerId, other.ownerId) && Objects.equals(muralId, other.muralId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ownerId, muralId);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.verbi.verbi.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Marks a user whose home timeline has been built. Users without a row,
+ * such as accounts older than the timeline, are rebuilt from their friends'
+ * murals before their timeline is read.
+ */
+@Entity
+@Table(name = "home_timeline_state")
+public class TimelineState {
+
+    @Id
+    private UUID ownerId;
+
+    private LocalDateTime builtAt;
+
+    public TimelineState() {
+    }
+
+    public TimelineState(UUID ownerId, LocalDateTime builtAt) {
+        this.ownerId = ownerId;
+        this.builtAt = builtAt;
+    }
+
+    public UUID getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(UUID ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public void setBuiltAt(LocalDateTime builtAt) {
+        this.builtAt = builtAt;
+    }
+}
@@ -3,18 +3,30 @@ package br.com.verbi.verbi.entity;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "uk_token_blacklist_fingerprint", columnList = "fingerprint", unique = true),
+        @Index(name = "idx_token_blacklist_expiration_date", columnList = "expirationDate")
+})
 public class TokenBlacklist {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
+    // SHA-256 of the JWT (see TokenFingerprint), instead of the full token string
+    @Column(length = 32)
+    private byte[] fingerprint;
+
+    // Full JWT of rows written before fingerprints were introduced; cleared once they are backfilled
     private String token;
 
     private LocalDateTime expirationDate;
@@ -27,6 +39,14 @@ public class TokenBlacklist {
         this.id = uuid;
     }
 
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(byte[] fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
     public String getToken() {
         return token;
     }
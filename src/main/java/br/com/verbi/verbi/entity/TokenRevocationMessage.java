@@ -0,0 +1,34 @@
+package br.com.verbi.verbi.entity;
+
+import java.io.Serializable;
+
+public class TokenRevocationMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private byte[] fingerprint;
+    private long expiresAt;
+
+    public TokenRevocationMessage() {}
+
+    public TokenRevocationMessage(byte[] fingerprint, long expiresAt) {
+        this.fingerprint = fingerprint;
+        this.expiresAt = expiresAt;
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(byte[] fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -7,7 +7,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
 import java.util.Set;
@@ -17,15 +20,15 @@ import java.util.UUID;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
-import br.com.verbi.verbi.enums.FriendshipStatus;
+import org.hibernate.annotations.ColumnDefault;
+
+import br.com.verbi.verbi.util.NameNormalizer;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_delete_marked_date", columnList = "deleteMarkedDate"))
 public class User {
 
     @Id
@@ -39,6 +42,16 @@ public class User {
     private String password;
     private String description;
 
+    // Accent-folded, lower-case name, indexed with pg_trgm for user search
+    @JsonIgnore
+    private String searchName;
+
+    // Bumped by UserService on every profile change, it versions the profile's ETag
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long profileVersion;
+
     // Account suspension
     @Column(nullable = false)
     private boolean suspended = false;
@@ -92,6 +105,24 @@ public class User {
         this.name = name;
     }
 
+    public String getSearchName() {
+        return searchName;
+    }
+
+    public long getProfileVersion() {
+        return profileVersion;
+    }
+
+    public void setProfileVersion(long profileVersion) {
+        this.profileVersion = profileVersion;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeSearchName() {
+        this.searchName = NameNormalizer.normalize(name);
+    }
+
     public String getEmail() {
         return email;
     }
@@ -220,25 +251,5 @@ public class User {
         this.receivedFriendRequests = receivedFriendRequests;
     }
 
-    @JsonIgnore // Ignored to prevent exposing friends in user serialization
-    public List<User> getFriends() {
-        List<User> friends = new ArrayList<>();
-        
-        // Add all accepted friends from sent friend requests
-        for (Friendship friendship : sentFriendRequests) {
-            if (friendship.getStatus() == FriendshipStatus.ACCEPTED) {
-                friends.add(friendship.getReceiver());
-            }
-        }
-
-        // Add all accepted friends from received friend requests
-        for (Friendship friendship : receivedFriendRequests) {
-            if (friendship.getStatus() == FriendshipStatus.ACCEPTED) {
-                friends.add(friendship.getSender());
-            }
-        }
-
-        return friends;
-    }
 }
 
@@ -0,0 +1,21 @@
+package br.com.verbi.verbi.enums;
+
+import br.com.verbi.verbi.exception.InvalidDataException;
+
+/**
+ * Order of a feed: newest first, paged with a cursor, or by ranking score
+ * in a single page.
+ */
+public enum FeedSort {
+    RECENT,
+    RANKED;
+
+    public static FeedSort from(String value) {
+        for (FeedSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new InvalidDataException("Invalid feed sort: " + value);
+    }
+}
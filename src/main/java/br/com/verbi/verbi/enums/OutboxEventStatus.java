@@ -0,0 +1,6 @@
+package br.com.verbi.verbi.enums;
+
+public enum OutboxEventStatus {
+    PENDING,
+    FAILED
+}
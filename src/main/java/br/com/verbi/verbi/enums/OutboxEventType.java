@@ -0,0 +1,8 @@
+package br.com.verbi.verbi.enums;
+
+public enum OutboxEventType {
+    USER_REGISTERED,
+    MURAL_CREATED,
+    FRIENDSHIP_ACCEPTED,
+    FRIENDSHIP_ENDED
+}
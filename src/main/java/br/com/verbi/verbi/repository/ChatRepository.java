@@ -1,15 +1,24 @@
 package br.com.verbi.verbi.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.com.verbi.verbi.entity.Chat;
 import br.com.verbi.verbi.entity.User;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ChatRepository extends JpaRepository<Chat, UUID> {
     Optional<Chat> findByUser1AndUser2(User user1, User user2);
     Optional<Chat> findByUser2AndUser1(User user1, User user2); // Para encontrar a conversa de forma reversa
+
+    // Account purge: chats with the users, once their messages are gone
+    @Modifying
+    @Query("DELETE FROM Chat c WHERE c.user1.id IN :userIds OR c.user2.id IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
 }
 
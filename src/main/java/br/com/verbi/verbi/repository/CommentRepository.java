@@ -1,11 +1,13 @@
 package br.com.verbi.verbi.repository;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -22,4 +24,10 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
     // Custom query to find comments by the user's name with pagination
     @Query("SELECT c FROM Comment c WHERE c.user.name = :name")
     Page<Comment> findCommentsByUserName(@Param("name") String name, Pageable pageable);
+
+    // Account purge: comments written by the users or posted on their murals
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.user.id IN :userIds "
+            + "OR c.mural.id IN (SELECT m.id FROM Mural m WHERE m.user.id IN :userIds)")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
 }
@@ -1,20 +1,45 @@
 package br.com.verbi.verbi.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import br.com.verbi.verbi.entity.Friendship;
 import br.com.verbi.verbi.entity.User;
-import br.com.verbi.verbi.enums.FriendshipStatus;
 
 @Repository
 public interface FriendshipRepository extends JpaRepository<Friendship, UUID> {
-    List<Friendship> findBySenderOrReceiverAndStatus(User sender, User receiver, FriendshipStatus status);
+
+    // Accepted friendships of a user in either direction, with both users fetched in the same statement
+    @Query("SELECT f FROM Friendship f JOIN FETCH f.sender JOIN FETCH f.receiver "
+            + "WHERE f.status = br.com.verbi.verbi.enums.FriendshipStatus.ACCEPTED "
+            + "AND (f.sender.id = :userId OR f.receiver.id = :userId)")
+    List<Friendship> findAcceptedOf(@Param("userId") UUID userId);
 
     Optional<Friendship> findBySenderAndReceiver(User sender, User receiver);
 
+    // Number of accepted friends, counted no further than cap
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM friendship WHERE sender_id = :userId AND status = 'ACCEPTED' "
+            + "UNION ALL SELECT 1 FROM friendship WHERE receiver_id = :userId AND status = 'ACCEPTED' LIMIT :cap) f",
+            nativeQuery = true)
+    long countFriendsUpTo(@Param("userId") UUID userId, @Param("cap") int cap);
+
+    // Account purge: the other user of each accepted friendship of the users
+    @Query(value = "SELECT receiver_id FROM friendship WHERE sender_id IN :userIds AND status = 'ACCEPTED' "
+            + "UNION ALL SELECT sender_id FROM friendship WHERE receiver_id IN :userIds AND status = 'ACCEPTED'",
+            nativeQuery = true)
+    List<UUID> findAcceptedFriendIdsOf(@Param("userIds") Collection<UUID> userIds);
+
+    // Account purge: friendships in either direction
+    @Modifying
+    @Query("DELETE FROM Friendship f WHERE f.sender.id IN :userIds OR f.receiver.id IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
+
 }
@@ -0,0 +1,10 @@
+package br.com.verbi.verbi.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import br.com.verbi.verbi.entity.JobCheckpoint;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -0,0 +1,35 @@
+package br.com.verbi.verbi.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.verbi.verbi.entity.JobLease;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    // Takes the lease if it is free or expired, in one atomic upsert; returns 1 if this node got it.
+    // Times come from the database clock, so nodes with skewed clocks agree on expiry.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO job_leases (job_name, owner, locked_at, locked_until) "
+            + "VALUES (:jobName, :owner, LOCALTIMESTAMP, LOCALTIMESTAMP + make_interval(secs => :lockSeconds)) "
+            + "ON CONFLICT (job_name) DO UPDATE SET owner = EXCLUDED.owner, "
+            + "locked_at = EXCLUDED.locked_at, locked_until = EXCLUDED.locked_until "
+            + "WHERE job_leases.locked_until <= LOCALTIMESTAMP", nativeQuery = true)
+    int tryAcquire(@Param("jobName") String jobName, @Param("owner") String owner,
+            @Param("lockSeconds") double lockSeconds);
+
+    // Ends the lease, but not before minSeconds after it was taken, so nodes firing a bit later skip the run
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE job_leases SET locked_until = "
+            + "GREATEST(LOCALTIMESTAMP, locked_at + make_interval(secs => :minSeconds)) "
+            + "WHERE job_name = :jobName AND owner = :owner", nativeQuery = true)
+    int release(@Param("jobName") String jobName, @Param("owner") String owner,
+            @Param("minSeconds") double minSeconds);
+}
@@ -1,14 +1,24 @@
 package br.com.verbi.verbi.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.com.verbi.verbi.entity.Chat;
 import br.com.verbi.verbi.entity.Message;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface MessageRepository extends JpaRepository<Message, UUID> {
     List<Message> findByChat(Chat chat);
+
+    // Account purge: messages sent by the users and every message of their chats
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.sender.id IN :userIds "
+            + "OR m.chat.id IN (SELECT c.id FROM Chat c WHERE c.user1.id IN :userIds OR c.user2.id IN :userIds)")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
 }
 
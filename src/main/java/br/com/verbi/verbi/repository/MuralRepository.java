@@ -1,15 +1,19 @@
 package br.com.verbi.verbi.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import br.com.verbi.verbi.dto.FeedCandidate;
+import br.com.verbi.verbi.dto.MuralResponseDto;
 import br.com.verbi.verbi.entity.Mural;
-import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.enums.MuralVisibility;
 
 import org.springframework.data.domain.Page;
@@ -22,16 +26,107 @@ import java.util.UUID;
 @Repository
 public interface MuralRepository extends JpaRepository<Mural, UUID> {
 
+    // Murals read straight into the response, with the author joined once instead of one SELECT per mural
+    String SELECT_RESPONSE = "SELECT new br.com.verbi.verbi.dto.MuralResponseDto("
+            + "m.id, m.body, m.visibility, u.name, m.createdAt, u.id) ";
+
+    String GLOBAL = "m.visibility = br.com.verbi.verbi.enums.MuralVisibility.GLOBAL";
+
+    String NEWEST_FIRST = " ORDER BY m.createdAt DESC, m.id DESC LIMIT :limit";
+
     // Find a mural by its ID
     Optional<Mural> findById(UUID Id);
 
     // Find murals by user name with pagination support
-    @Query("SELECT m FROM Mural m WHERE m.user.name = :name")
-    Page<Mural> findMuralsByUserName(@Param("name") String name, Pageable pageable);
+    @Query(value = SELECT_RESPONSE + "FROM Mural m JOIN m.user u WHERE u.name = :name",
+            countQuery = "SELECT count(m) FROM Mural m WHERE m.user.name = :name")
+    Page<MuralResponseDto> findMuralsByUserName(@Param("name") String name, Pageable pageable);
+
+    // Feed pull of GLOBAL murals, newest first
+    @Query(SELECT_RESPONSE + "FROM Mural m JOIN m.user u WHERE " + GLOBAL + NEWEST_FIRST)
+    List<MuralResponseDto> findGlobal(@Param("limit") int limit);
+
+    // Next pages: keyset on (createdAt, id), so deep pages cost the same as the first
+    @Query(SELECT_RESPONSE + "FROM Mural m JOIN m.user u WHERE " + GLOBAL
+            + " AND (m.createdAt, m.id) < (:createdAt, :afterId)" + NEWEST_FIRST)
+    List<MuralResponseDto> findGlobalAfter(@Param("createdAt") LocalDateTime createdAt,
+            @Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    // The viewer and their accepted friends, the authors of the friends pull
+    String AUTHORS_OF = "SELECT CAST(:userId AS uuid) AS author_id "
+            + "UNION ALL SELECT f.receiver_id FROM friendship f WHERE f.sender_id = :userId AND f.status = 'ACCEPTED' "
+            + "UNION ALL SELECT f.sender_id FROM friendship f WHERE f.receiver_id = :userId AND f.status = 'ACCEPTED'";
+
+    String UNPUSHED_FROM = "FROM (" + AUTHORS_OF + ") a "
+            + "CROSS JOIN LATERAL (SELECT p.* FROM mural p WHERE p.user_id = a.author_id AND NOT p.pushed ";
+
+    String UNPUSHED_PER_AUTHOR = "ORDER BY p.created_at DESC, p.id DESC LIMIT :limit) m ";
+
+    String SELECT_UNPUSHED = "SELECT m.id AS id, m.body AS body, m.visibility AS visibility, u.name AS \"userName\", "
+            + "m.created_at AS \"createdAt\", u.id AS \"userId\" " + UNPUSHED_FROM;
+
+    String UNPUSHED_NEWEST_FIRST = UNPUSHED_PER_AUTHOR
+            + "JOIN users u ON u.id = m.user_id ORDER BY m.created_at DESC, m.id DESC LIMIT :limit";
+
+    // Row of the friends pull, mapped to MuralResponseDto by the default methods below
+    interface UnpushedRow {
+        UUID getId();
+
+        String getBody();
+
+        String getVisibility();
+
+        String getUserName();
+
+        LocalDateTime getCreatedAt();
+
+        UUID getUserId();
+
+        default MuralResponseDto toDto() {
+            return new MuralResponseDto(getId(), getBody(), MuralVisibility.valueOf(getVisibility()), getUserName(),
+                    getCreatedAt(), getUserId());
+        }
+    }
+
+    // Friends pull: murals not in the home timelines (high-degree authors, fan-out pending), newest first.
+    // Driven from the viewer's friends, each author read through idx_mural_user_pushed_created_at and cut at
+    // the limit, so a read costs O(friends) whatever the number of unpushed murals on the site
+    @Query(value = SELECT_UNPUSHED + UNPUSHED_NEWEST_FIRST, nativeQuery = true)
+    List<UnpushedRow> findUnpushedRowsFor(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query(value = SELECT_UNPUSHED + "AND (p.created_at, p.id) < (:createdAt, :afterId) " + UNPUSHED_NEWEST_FIRST,
+            nativeQuery = true)
+    List<UnpushedRow> findUnpushedRowsForAfter(@Param("userId") UUID userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    default List<MuralResponseDto> findUnpushedFor(UUID userId, int limit) {
+        return findUnpushedRowsFor(userId, limit).stream().map(UnpushedRow::toDto).toList();
+    }
+
+    default List<MuralResponseDto> findUnpushedForAfter(UUID userId, LocalDateTime createdAt, UUID afterId,
+            int limit) {
+        return findUnpushedRowsForAfter(userId, createdAt, afterId, limit).stream().map(UnpushedRow::toDto).toList();
+    }
+
+    // Ranking candidates of the friends pull: the same murals, without the body or the author's name
+    @Query(value = "SELECT m.id AS id, m.user_id AS \"userId\", m.created_at AS \"createdAt\" " + UNPUSHED_FROM
+            + UNPUSHED_PER_AUTHOR + "ORDER BY m.created_at DESC, m.id DESC LIMIT :limit", nativeQuery = true)
+    List<FeedCandidate> findUnpushedCandidatesFor(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    // The murals picked by feed ranking, in one IN query
+    @Query(SELECT_RESPONSE + "FROM Mural m JOIN m.user u WHERE m.id IN :ids")
+    List<MuralResponseDto> findResponsesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT m.user.id FROM Mural m WHERE m.id = :id")
+    Optional<UUID> findAuthorId(@Param("id") UUID id);
 
-    // Method to find murals by visibility
-    List<Mural> findByVisibility(MuralVisibility visibility);
+    // Fan-out done: the feed reads the mural from the timelines from now on
+    @Modifying
+    @Query("UPDATE Mural m SET m.pushed = true WHERE m.id = :id")
+    int markPushed(@Param("id") UUID id);
 
-    // Method to find murals of friends with visibility restricted to friends
-    List<Mural> findByUserInAndVisibility(List<User> users, MuralVisibility visibility);
+    // Account purge: murals of the users, once their comments are gone
+    @Modifying
+    @Query("DELETE FROM Mural m WHERE m.user.id IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
 }
@@ -0,0 +1,22 @@
+package br.com.verbi.verbi.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.com.verbi.verbi.entity.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    // Locks the next due events; rows locked by another node are skipped, so nodes never claim the same event.
+    // Must run inside a transaction, which holds the locks until the claim is written.
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' AND available_at <= :now "
+            + "ORDER BY available_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
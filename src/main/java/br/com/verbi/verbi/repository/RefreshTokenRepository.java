@@ -0,0 +1,48 @@
+package br.com.verbi.verbi.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.verbi.verbi.entity.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    // Single lookup on the unique hash index, fetching the owner in the same query
+    @EntityGraph(attributePaths = "user")
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    // Marks a token as rotated; returns 0 if another request already rotated it
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.id = :id AND r.revoked = false")
+    int markRotated(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    // Logout without a refresh token and password changes: every live token of the user
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.user.id = :userId AND r.revoked = false")
+    int revokeByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken r WHERE r.user.id = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    // Account purge: every token of a chunk of users in one statement
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.user.id IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
+}
@@ -0,0 +1,90 @@
+package br.com.verbi.verbi.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.com.verbi.verbi.dto.FeedCandidate;
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.entity.TimelineEntry;
+
+// Home timelines. Writes are idempotent (ON CONFLICT DO NOTHING), so outbox retries are harmless.
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, TimelineEntry.Key> {
+
+    // Fan-out on write: pushes the mural into its author's timeline and every accepted friend's, in one statement
+    @Modifying
+    @Query(value = "INSERT INTO home_timeline (owner_id, mural_id, created_at) "
+            + "SELECT r.owner_id, m.id, m.created_at FROM mural m CROSS JOIN LATERAL ("
+            + "SELECT m.user_id AS owner_id "
+            + "UNION ALL SELECT f.receiver_id FROM friendship f WHERE f.sender_id = m.user_id AND f.status = 'ACCEPTED' "
+            + "UNION ALL SELECT f.sender_id FROM friendship f WHERE f.receiver_id = m.user_id AND f.status = 'ACCEPTED'"
+            + ") r WHERE m.id = :muralId ON CONFLICT DO NOTHING", nativeQuery = true)
+    int fanOut(@Param("muralId") UUID muralId);
+
+    // New friendship: copies the author's newest pushed murals into the owner's timeline
+    @Modifying
+    @Query(value = "INSERT INTO home_timeline (owner_id, mural_id, created_at) "
+            + "SELECT :ownerId, m.id, m.created_at FROM mural m WHERE m.user_id = :authorId AND m.pushed "
+            + "ORDER BY m.created_at DESC, m.id DESC LIMIT :limit ON CONFLICT DO NOTHING", nativeQuery = true)
+    int copyRecent(@Param("ownerId") UUID ownerId, @Param("authorId") UUID authorId, @Param("limit") int limit);
+
+    // Rebuild: the newest pushed murals of the owner and of their accepted friends
+    @Modifying
+    @Query(value = "INSERT INTO home_timeline (owner_id, mural_id, created_at) "
+            + "SELECT :ownerId, m.id, m.created_at FROM mural m WHERE m.pushed AND (m.user_id = :ownerId "
+            + "OR m.user_id IN (SELECT f.receiver_id FROM friendship f WHERE f.sender_id = :ownerId AND f.status = 'ACCEPTED' "
+            + "UNION ALL SELECT f.sender_id FROM friendship f WHERE f.receiver_id = :ownerId AND f.status = 'ACCEPTED')) "
+            + "ORDER BY m.created_at DESC, m.id DESC LIMIT :limit ON CONFLICT DO NOTHING", nativeQuery = true)
+    int rebuild(@Param("ownerId") UUID ownerId, @Param("limit") int limit);
+
+    // First page of a timeline: a range scan of idx_home_timeline_owner_created_at
+    @Query(MuralRepository.SELECT_RESPONSE + "FROM TimelineEntry t JOIN Mural m ON m.id = t.muralId JOIN m.user u "
+            + "WHERE t.ownerId = :ownerId ORDER BY t.createdAt DESC, t.muralId DESC LIMIT :limit")
+    List<MuralResponseDto> findPage(@Param("ownerId") UUID ownerId, @Param("limit") int limit);
+
+    // Ranking candidates of a timeline: the same range scan, without the bodies or the authors' names
+    @Query("SELECT t.muralId AS id, m.user.id AS userId, t.createdAt AS createdAt "
+            + "FROM TimelineEntry t JOIN Mural m ON m.id = t.muralId "
+            + "WHERE t.ownerId = :ownerId ORDER BY t.createdAt DESC, t.muralId DESC LIMIT :limit")
+    List<FeedCandidate> findCandidates(@Param("ownerId") UUID ownerId, @Param("limit") int limit);
+
+    @Query(MuralRepository.SELECT_RESPONSE + "FROM TimelineEntry t JOIN Mural m ON m.id = t.muralId JOIN m.user u "
+            + "WHERE t.ownerId = :ownerId AND (t.createdAt, t.muralId) < (:createdAt, :afterId) "
+            + "ORDER BY t.createdAt DESC, t.muralId DESC LIMIT :limit")
+    List<MuralResponseDto> findPageAfter(@Param("ownerId") UUID ownerId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    // Caps every timeline to its newest entries; older ones are never read
+    @Modifying
+    @Query(value = "DELETE FROM home_timeline t USING ("
+            + "SELECT owner_id, mural_id, row_number() OVER "
+            + "(PARTITION BY owner_id ORDER BY created_at DESC, mural_id DESC) AS position FROM home_timeline "
+            + "WHERE owner_id IN (SELECT owner_id FROM home_timeline GROUP BY owner_id HAVING count(*) > :capacity)"
+            + ") o WHERE o.position > :capacity AND t.owner_id = o.owner_id AND t.mural_id = o.mural_id",
+            nativeQuery = true)
+    int trim(@Param("capacity") int capacity);
+
+    // Ended friendship: drops the author's murals from the owner's timeline, within the owner's index range
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.ownerId = :ownerId "
+            + "AND t.muralId IN (SELECT m.id FROM Mural m WHERE m.user.id = :authorId)")
+    int deleteAuthorFrom(@Param("ownerId") UUID ownerId, @Param("authorId") UUID authorId);
+
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.muralId = :muralId")
+    int deleteByMuralId(@Param("muralId") UUID muralId);
+
+    // Account purge: the users' timelines and their murals in other timelines
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.ownerId IN :userIds "
+            + "OR t.muralId IN (SELECT m.id FROM Mural m WHERE m.user.id IN :userIds)")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
+}
@@ -0,0 +1,33 @@
+package br.com.verbi.verbi.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.com.verbi.verbi.entity.TimelineState;
+
+@Repository
+public interface TimelineStateRepository extends JpaRepository<TimelineState, UUID> {
+
+    // Rebuild job: users whose timeline was never built
+    @Query(value = "SELECT u.id FROM users u WHERE NOT EXISTS "
+            + "(SELECT 1 FROM home_timeline_state s WHERE s.owner_id = u.id) LIMIT :limit", nativeQuery = true)
+    List<UUID> findOwnersWithoutTimeline(@Param("limit") int limit);
+
+    // Concurrent rebuilds of the same user both succeed
+    @Modifying
+    @Query(value = "INSERT INTO home_timeline_state (owner_id, built_at) VALUES (:ownerId, LOCALTIMESTAMP) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int markBuilt(@Param("ownerId") UUID ownerId);
+
+    // Account purge
+    @Modifying
+    @Query("DELETE FROM TimelineState s WHERE s.ownerId IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<UUID> userIds);
+}
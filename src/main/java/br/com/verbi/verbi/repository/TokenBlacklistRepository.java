@@ -1,16 +1,36 @@
 package br.com.verbi.verbi.repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import br.com.verbi.verbi.entity.TokenBlacklist;
 
 @Repository
-public interface TokenBlacklistRepository extends JpaRepository<TokenBlacklist, Long> {
-    Optional<TokenBlacklist> findByToken(String token);
+public interface TokenBlacklistRepository extends JpaRepository<TokenBlacklist, UUID> {
+    Optional<TokenBlacklist> findByFingerprint(byte[] fingerprint);
 
-    boolean existsByToken(String token);
-}
+    boolean existsByFingerprint(byte[] fingerprint);
+
+    // Pages through the tokens that are still valid, used to warm the revocation index
+    Slice<TokenBlacklist> findByExpirationDateAfter(LocalDateTime now, Pageable pageable);
 
+    // Rows written before fingerprints were introduced, still holding the full token
+    Slice<TokenBlacklist> findByFingerprintIsNullAndTokenIsNotNull(Pageable pageable);
+
+    // Deletes at most batchSize expired tokens in a single statement, walking the expiration index
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM token_blacklist WHERE id IN ("
+            + "SELECT id FROM token_blacklist WHERE expiration_date < :now LIMIT :batchSize)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -1,10 +1,15 @@
 package br.com.verbi.verbi.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import br.com.verbi.verbi.dto.UserProfileDto;
 import br.com.verbi.verbi.entity.User;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,11 +25,59 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     // Finds a User by their UUID
     Optional<User> findById(UUID id);
 
-    // Finds Users whose names contain the given string
-    List<User> findByNameContaining(String name);
+    // Profiles of several Users in a single IN query, without loading the entities
+    @Query("SELECT new br.com.verbi.verbi.dto.UserProfileDto(u.id, u.name, u.email, u.picture, u.description, "
+            + "u.profileVersion) FROM User u WHERE u.id IN :ids")
+    List<UserProfileDto> findProfilesByIdIn(@Param("ids") Collection<UUID> ids);
 
-    // Finds Users marked for deletion before a certain date, where the account is not deleted yet
-    List<User> findByDeleteMarkedDateBeforeAndDeletionDateIsNull(LocalDateTime cutoffDate);
+    // Search result row: only the columns shown in the results, plus the trigram distance it is ranked by
+    interface SearchRow {
+        UUID getId();
+
+        String getName();
+
+        String getPicture();
+
+        Float getDistance();
+    }
+
+    // First page of a name search, nearest names first. Ordering by the <-> distance lets the pg_trgm GiST
+    // index on search_name return rows already in rank order, so only the page is read instead of every match
+    @Query(value = "SELECT u.id AS id, u.name AS name, u.picture AS picture, "
+            + "u.search_name <-> :query AS distance FROM users u "
+            + "WHERE (u.search_name % :query OR u.search_name LIKE :pattern) AND u.deletion_date IS NULL "
+            + "ORDER BY u.search_name <-> :query, u.id LIMIT :limit", nativeQuery = true)
+    List<SearchRow> searchByName(@Param("query") String query, @Param("pattern") String pattern,
+            @Param("limit") int limit);
+
+    // Following pages, continuing after the (distance, id) of the last row returned
+    @Query(value = "SELECT u.id AS id, u.name AS name, u.picture AS picture, "
+            + "u.search_name <-> :query AS distance FROM users u "
+            + "WHERE (u.search_name % :query OR u.search_name LIKE :pattern) AND u.deletion_date IS NULL "
+            + "AND (u.search_name <-> :query > :distance "
+            + "OR (u.search_name <-> :query = :distance AND u.id > :id)) "
+            + "ORDER BY u.search_name <-> :query, u.id LIMIT :limit", nativeQuery = true)
+    List<SearchRow> searchByNameAfter(@Param("query") String query, @Param("pattern") String pattern,
+            @Param("distance") float distance, @Param("id") UUID id, @Param("limit") int limit);
+
+    // Account purge candidate: the id, plus the email to evict the principal cache
+    interface PurgeCandidate {
+        UUID getId();
+
+        String getEmail();
+    }
+
+    // Next chunk of Users marked for deletion before the cutoff, in id order after the given id
+    @Query(value = "SELECT u.id AS id, u.email AS email FROM users u "
+            + "WHERE u.delete_marked_date < :cutoff AND u.deletion_date IS NULL AND u.id > :afterId "
+            + "ORDER BY u.id LIMIT :limit", nativeQuery = true)
+    List<PurgeCandidate> findPurgeCandidates(@Param("cutoff") LocalDateTime cutoff,
+            @Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    // Account purge: the users themselves, once every dependent row is gone
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :userIds")
+    int deleteByIds(@Param("userIds") Collection<UUID> userIds);
 
     // Finds a User by their password reset token
     Optional<User> findByResetPasswordToken(String resetPasswordToken);
@@ -0,0 +1,68 @@
+package br.com.verbi.verbi.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.config.RabbitMQConfig;
+import br.com.verbi.verbi.entity.TokenRevocationMessage;
+
+@Component
+@ConditionalOnProperty(name = "verbi.revocation.broker", havingValue = "amqp", matchIfMissing = true)
+public class AmqpRevocationBroadcaster implements RevocationBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(AmqpRevocationBroadcaster.class);
+
+    /*
+     * Revocations travel as JSON instead of Java serialization, which the
+     * listener rejects for classes not explicitly allowed. The converter is
+     * kept to this exchange: the durable email queue may still hold Java
+     * serialized messages and keeps the default converter.
+     */
+    static final MessageConverter CONVERTER = new Jackson2JsonMessageConverter("br.com.verbi.verbi.entity");
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private RevocationIndex revocationIndex;
+
+    /**
+     * Applies the revocation locally and sends it to the fanout exchange.
+     * If the broker is unavailable the revocation is still stored in the
+     * database, and the other nodes pick it up on their next resync.
+     */
+    @Override
+    public void publish(TokenFingerprint fingerprint, long expiresAt) {
+        revocationIndex.add(fingerprint, expiresAt);
+        try {
+            rabbitTemplate.send(RabbitMQConfig.TOKEN_REVOCATION_EXCHANGE, "", CONVERTER.toMessage(
+                    new TokenRevocationMessage(fingerprint.toBytes(), expiresAt), new MessageProperties()));
+        } catch (AmqpException e) {
+            logger.warn("Failed to broadcast token revocation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies revocations published by any node, this one included.
+     *
+     * @param amqpMessage the JSON revocation message
+     */
+    @RabbitListener(queues = "#{tokenRevocationQueue.name}")
+    public void onRevocation(Message amqpMessage) {
+        TokenRevocationMessage message = (TokenRevocationMessage) CONVERTER.fromMessage(amqpMessage);
+        if (message.getExpiresAt() <= System.currentTimeMillis()) {
+            return; // Token already expired, nothing to reject
+        }
+        revocationIndex.add(TokenFingerprint.fromBytes(message.getFingerprint()), message.getExpiresAt());
+    }
+}
@@ -0,0 +1,157 @@
+package br.com.verbi.verbi.security;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import br.com.verbi.verbi.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * BCrypt password encoder that runs every hash on a dedicated, bounded pool.
+ *
+ * Request threads only wait for the result; when the pool and its queue are
+ * full the call fails immediately with {@link PasswordHashingUnavailableException}
+ * instead of piling up CPU-bound work, so a login burst can not starve the
+ * other endpoints.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int cost;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration timeout;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejected;
+
+    /**
+     * @param cost          bcrypt cost, the same on every node of the cluster
+     * @param threads       number of hashing threads
+     * @param queueCapacity hashes allowed to wait for a thread
+     * @param timeout       maximum time a request waits for its hash
+     * @param meterRegistry registry for the hashing metrics
+     */
+    public BoundedPasswordEncoder(int cost, int threads, int queueCapacity, Duration timeout,
+            MeterRegistry meterRegistry) {
+        this.cost = cost;
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.timeout = timeout;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("verbi.password.hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("verbi.password.hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("verbi.password.hash.rejected")
+                .description("Hashes refused because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("verbi.password.hash.queue", executor, e -> e.getQueue().size())
+                .description("Hashes waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("verbi.password.hash.cost", this, encoder -> encoder.cost)
+                .register(meterRegistry);
+
+        logger.info("Password hashing uses bcrypt cost {} on {} threads", this.cost, threads);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * A hash needs upgrading only when its cost is lower than the current one.
+     * Stronger hashes are kept, so a node running with an older configuration
+     * during a rollout never downgrades them.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            // Format: $2a$10$...
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < cost;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private <T> T submit(Timer timer, Callable<T> hash) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(hash));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException("Password hashing is saturated, try again later",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingUnavailableException("Password hashing timed out, try again later",
+                    RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,18 @@
+package br.com.verbi.verbi.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the {@link UserPrincipal} that JwtFilter already resolved for the
+ * current request into a controller method parameter, so controllers never
+ * parse the token or query the user again.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
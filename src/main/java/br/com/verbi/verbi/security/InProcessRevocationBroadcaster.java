@@ -0,0 +1,33 @@
+package br.com.verbi.verbi.security;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Broker stand-in that delivers revocations synchronously within the JVM.
+ * Extra indexes can be subscribed to simulate several nodes in tests.
+ */
+@Component
+@ConditionalOnProperty(name = "verbi.revocation.broker", havingValue = "in-process")
+public class InProcessRevocationBroadcaster implements RevocationBroadcaster {
+
+    private final List<RevocationIndex> subscribers = new CopyOnWriteArrayList<>();
+
+    public InProcessRevocationBroadcaster(RevocationIndex revocationIndex) {
+        subscribers.add(revocationIndex);
+    }
+
+    public void subscribe(RevocationIndex revocationIndex) {
+        subscribers.add(revocationIndex);
+    }
+
+    @Override
+    public void publish(TokenFingerprint fingerprint, long expiresAt) {
+        for (RevocationIndex subscriber : subscribers) {
+            subscriber.add(fingerprint, expiresAt);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package br.com.verbi.verbi.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import br.com.verbi.verbi.util.BoundedTtlCache;
+
 import java.util.Date;
 
 import javax.crypto.SecretKey;
@@ -21,6 +25,25 @@ public class JWTGenerator {
     @Value("${JWT_EXPIRATION}")
     private long jwtExpirationDate;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    // Claims of tokens whose signature was already checked, until the token expires
+    private BoundedTtlCache<TokenFingerprint, Claims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedClaims = new BoundedTtlCache<>(claimsCacheMaxSize);
+    }
+
     public String generateToken(String email) {
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + jwtExpirationDate);
@@ -29,32 +52,53 @@ public class JWTGenerator {
                 .setSubject(email)
                 .setIssuedAt(currentDate)
                 .setExpiration(expireDate)
-                .signWith(key())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    /**
+     * Verifies the token signature and expiration and returns its claims.
+     * Tokens already verified are served from the cache until their own
+     * expiration, so a token is only parsed once during its lifetime.
+     *
+     * @param token the raw JWT, without the "Bearer " prefix
+     * @return the verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     */
+    public Claims verify(String token) {
+        return verify(token, TokenFingerprint.of(token));
+    }
+
+    /**
+     * Same as {@link #verify(String)}, for callers that already hold the
+     * token's fingerprint.
+     *
+     * @param token       the raw JWT, without the "Bearer " prefix
+     * @param fingerprint the fingerprint of that token
+     * @return the verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     */
+    public Claims verify(String token, TokenFingerprint fingerprint) {
+        Claims claims = verifiedClaims.get(fingerprint);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                verifiedClaims.putUntil(fingerprint, claims, expiration.getTime());
+            }
+        }
+        return claims;
     }
 
     // extract username from JWT token
     public String getUsername(String token) {
-
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return verify(token).getSubject();
     }
 
     // validate JWT token
     public boolean validateToken(String token) {
-        Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parse(token);
+        verify(token);
         return true;
-
     }
 }
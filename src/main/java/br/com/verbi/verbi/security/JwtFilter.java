@@ -5,7 +5,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.GenericFilterBean;
 
-import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.service.UserService;
 import io.jsonwebtoken.lang.Collections;
 import jakarta.servlet.FilterChain;
@@ -37,22 +36,21 @@ public class JwtFilter extends GenericFilterBean {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
-            if (jwtGenerator.validateToken(token)) {
-                String email = jwtGenerator.getUsername(token);
-                
-                // Buscar o usuário pelo email
-                Optional<User> optionalUser = userService.findUserByEmail(email);
-
-                if (optionalUser.isPresent()) {
-                    User user = optionalUser.get();
-                    
-                    // Cria o AuthenticationToken
-                    UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList());
-                    
-                    // Define o contexto de segurança do Spring
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            // Verifica a assinatura uma única vez e reaproveita as claims
+            String email = jwtGenerator.verify(token, RequestFingerprint.of(request, token)).getSubject();
+
+            // Busca o principal do usuário (em cache) pelo email
+            Optional<UserPrincipal> optionalPrincipal = userService.findPrincipalByEmail(email);
+
+            if (optionalPrincipal.isPresent()) {
+                UserPrincipal principal = optionalPrincipal.get();
+
+                // Cria o AuthenticationToken
+                UsernamePasswordAuthenticationToken authToken = 
+                    new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+
+                // Define o contexto de segurança do Spring
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
 
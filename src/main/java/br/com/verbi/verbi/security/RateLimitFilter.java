@@ -0,0 +1,295 @@
+package br.com.verbi.verbi.security;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.verbi.verbi.config.RateLimitProperties;
+import br.com.verbi.verbi.util.TokenBucketLimiter;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+
+/**
+ * Rejects requests over the configured per-route limits with 429, before
+ * any authentication, password hashing or database work is done.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Bodies larger than this are not buffered to look for the email
+    private static final int MAX_BUFFERED_BODY = 16 * 1024;
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private JWTGenerator jwtGenerator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<LimitedRoute> routes = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(new LimitedRoute(route,
+                    new TokenBucketLimiter(route.getCapacity(), route.getPeriod(), properties.getMaxKeys()),
+                    Counter.builder("verbi.rate-limit.rejected")
+                            .tag("route", route.getName())
+                            .register(meterRegistry)));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        LimitedRoute route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest checkedRequest = request;
+        List<String> acquired = new ArrayList<>(route.config.getKeys().size());
+        for (RateLimitProperties.Key key : route.config.getKeys()) {
+            String value;
+            switch (key) {
+                case IP:
+                    value = request.getRemoteAddr();
+                    break;
+                case EMAIL:
+                    if (checkedRequest == request && isJson(request.getContentType())) {
+                        checkedRequest = CachedBodyRequest.of(request);
+                    }
+                    value = extractEmail(checkedRequest);
+                    break;
+                default:
+                    value = extractSubject(request);
+                    break;
+            }
+            if (value == null) {
+                continue;
+            }
+
+            String bucket = key.name() + '|' + value;
+            long wait = route.limiter.tryAcquire(bucket);
+            if (wait > 0) {
+                // A rejected request costs nothing: the tokens taken for its other keys are given back
+                acquired.forEach(route.limiter::release);
+                route.rejected.increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999L))));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests");
+                return;
+            }
+            acquired.add(bucket);
+        }
+
+        filterChain.doFilter(checkedRequest, response);
+    }
+
+    private LimitedRoute match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (LimitedRoute route : routes) {
+            List<String> methods = route.config.getMethods();
+            if ((methods.isEmpty() || methods.contains(request.getMethod()))
+                    && PATH_MATCHER.match(route.config.getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private static boolean isMultipart(String contentType) {
+        return contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    private String extractEmail(HttpServletRequest request) {
+        String email;
+        if (request instanceof CachedBodyRequest) {
+            email = readEmail(((CachedBodyRequest) request).body);
+        } else {
+            email = request.getParameter("email");
+            if (email == null && isMultipart(request.getContentType())) {
+                email = extractEmailFromParts(request);
+            }
+        }
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks for the email in the JSON parts of a multipart request, e.g. the
+     * user sent along with the picture on registration. The container keeps
+     * the parsed parts, so the controller can still read them.
+     */
+    private String extractEmailFromParts(HttpServletRequest request) {
+        try {
+            for (Part part : request.getParts()) {
+                if (isJson(part.getContentType()) && part.getSize() <= MAX_BUFFERED_BODY) {
+                    try (InputStream input = part.getInputStream()) {
+                        String email = readEmail(input.readAllBytes());
+                        if (email != null) {
+                            return email;
+                        }
+                    }
+                }
+            }
+        } catch (IOException | ServletException | IllegalStateException e) {
+            return null; // Malformed or oversized request, the controller will reject it
+        }
+        return null;
+    }
+
+    private String readEmail(byte[] json) {
+        if (json.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(json).get("email");
+            return node != null && node.isTextual() ? node.asText() : null;
+        } catch (IOException e) {
+            return null; // Malformed body, the controller will reject it
+        }
+    }
+
+    private String extractSubject(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        String token = header.substring(7);
+        try {
+            return jwtGenerator.verify(token, RequestFingerprint.of(request, token)).getSubject();
+        } catch (JwtException e) {
+            return null; // Invalid tokens are limited by IP only
+        }
+    }
+
+    private static final class LimitedRoute {
+
+        private final RateLimitProperties.Route config;
+        private final TokenBucketLimiter limiter;
+        private final Counter rejected;
+
+        private LimitedRoute(RateLimitProperties.Route config, TokenBucketLimiter limiter, Counter rejected) {
+            this.config = config;
+            this.limiter = limiter;
+            this.rejected = rejected;
+        }
+    }
+
+    /**
+     * Request whose body was read up front so it can be inspected here and
+     * read again by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        static HttpServletRequest of(HttpServletRequest request) throws IOException {
+            long length = request.getContentLengthLong();
+            if (length < 0 || length > MAX_BUFFERED_BODY) {
+                return request; // Unknown or large body: not buffered, limited by the other keys
+            }
+            return new CachedBodyRequest(request, request.getInputStream().readAllBytes());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory, so it is available at once
+                    try {
+                        if (input.available() > 0) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.verbi.verbi.security;
+
+import jakarta.servlet.ServletRequest;
+
+/**
+ * Computes the bearer token fingerprint once per request and shares it
+ * between the filters of the chain through a request attribute.
+ */
+final class RequestFingerprint {
+
+    private static final String ATTRIBUTE = TokenFingerprint.class.getName();
+
+    private RequestFingerprint() {
+    }
+
+    static TokenFingerprint of(ServletRequest request, String token) {
+        TokenFingerprint fingerprint = (TokenFingerprint) request.getAttribute(ATTRIBUTE);
+        if (fingerprint == null) {
+            fingerprint = TokenFingerprint.of(token);
+            request.setAttribute(ATTRIBUTE, fingerprint);
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.verbi.verbi.security;
+
+/**
+ * Propagates token revocations to the revocation index of every node.
+ *
+ * The implementation is selected with {@code verbi.revocation.broker}:
+ * {@code amqp} (default) uses the RabbitMQ fanout exchange, {@code in-process}
+ * delivers within the JVM and is meant for tests and single-node setups.
+ */
+public interface RevocationBroadcaster {
+
+    /**
+     * Publishes a revocation. The local index is also updated, either
+     * directly or through the broker.
+     *
+     * @param fingerprint fingerprint of the revoked token
+     * @param expiresAt   epoch millisecond at which the token stops being valid
+     */
+    void publish(TokenFingerprint fingerprint, long expiresAt);
+}
@@ -0,0 +1,41 @@
+package br.com.verbi.verbi.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.repository.TokenBlacklistRepository;
+
+/**
+ * Answers whether a token has been revoked, for every entry point that
+ * authenticates with a JWT (HTTP filter chain and STOMP CONNECT).
+ */
+@Component
+public class RevocationChecker {
+
+    @Autowired
+    private TokenBlacklistRepository tokenBlacklistRepository;
+
+    @Autowired
+    private RevocationIndex revocationIndex;
+
+    /**
+     * Checks whether a token has been revoked, answering from the revocation
+     * index and falling back to the database only for probable hits.
+     *
+     * @param fingerprint fingerprint of the presented token
+     * @return true if the token is blacklisted
+     */
+    public boolean isRevoked(TokenFingerprint fingerprint) {
+        switch (revocationIndex.lookup(fingerprint)) {
+            case REVOKED:
+                return true;
+            case NOT_REVOKED:
+                return false;
+            default:
+                // Probable hit that the index can not confirm: ask the database
+                boolean revoked = tokenBlacklistRepository.existsByFingerprint(fingerprint.toBytes());
+                revocationIndex.recordDatabaseResult(revoked);
+                return revoked;
+        }
+    }
+}
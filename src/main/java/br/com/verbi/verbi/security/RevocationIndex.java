@@ -0,0 +1,198 @@
+package br.com.verbi.verbi.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local index of revoked tokens, used to answer blacklist lookups without a
+ * database round trip.
+ *
+ * A Bloom filter sits in front of an exact set of token fingerprints. A
+ * negative answer from the filter is definitive. A positive answer is
+ * confirmed against the exact set, and only when the exact set does not know
+ * the token is the caller asked to check the database.
+ */
+@Component
+public class RevocationIndex {
+
+    public enum Lookup {
+        NOT_REVOKED,
+        REVOKED,
+        UNKNOWN
+    }
+
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+
+    // Fingerprint -> epoch millisecond at which the revoked token expires
+    private final Map<TokenFingerprint, Long> revoked = new ConcurrentHashMap<>();
+
+    // Serializes writers so that a rebuild never misses a concurrent add
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile BloomFilter filter;
+
+    private final Counter lookups;
+    private final Counter hits;
+    private final Counter databaseLookups;
+    private final Counter falsePositives;
+
+    public RevocationIndex(@Value("${verbi.revocation.expected-tokens:1000000}") int expectedTokens,
+            @Value("${verbi.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry) {
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedTokens, falsePositiveRate);
+
+        this.lookups = Counter.builder("verbi.revocation.lookups")
+                .description("Blacklist lookups answered by the revocation index")
+                .register(meterRegistry);
+        this.hits = Counter.builder("verbi.revocation.hits")
+                .description("Lookups that found a revoked token")
+                .register(meterRegistry);
+        this.databaseLookups = Counter.builder("verbi.revocation.database.lookups")
+                .description("Probable hits that had to be confirmed in the database")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("verbi.revocation.false.positives")
+                .description("Probable hits that turned out not to be revoked")
+                .register(meterRegistry);
+        Gauge.builder("verbi.revocation.size", revoked, Map::size)
+                .description("Revoked tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a revoked token.
+     *
+     * @param fingerprint fingerprint of the revoked token
+     * @param expiresAt   epoch millisecond at which the token stops being valid
+     */
+    public void add(TokenFingerprint fingerprint, long expiresAt) {
+        writeLock.lock();
+        try {
+            revoked.put(fingerprint, expiresAt);
+            filter.put(fingerprint);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Checks a token against the index.
+     *
+     * @param fingerprint fingerprint of the presented token
+     * @return REVOKED or NOT_REVOKED when the index knows the answer, UNKNOWN
+     *         when the database has to be consulted
+     */
+    public Lookup lookup(TokenFingerprint fingerprint) {
+        lookups.increment();
+
+        if (!filter.mightContain(fingerprint)) {
+            return Lookup.NOT_REVOKED;
+        }
+
+        Long expiresAt = revoked.get(fingerprint);
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return Lookup.REVOKED;
+        }
+
+        databaseLookups.increment();
+        return Lookup.UNKNOWN;
+    }
+
+    /**
+     * Records the outcome of a database check that followed an UNKNOWN lookup.
+     *
+     * @param revokedInDatabase whether the database had the token blacklisted
+     */
+    public void recordDatabaseResult(boolean revokedInDatabase) {
+        if (revokedInDatabase) {
+            hits.increment();
+        } else {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Drops expired tokens and rebuilds the Bloom filter, since bits of
+     * removed tokens can not be cleared individually.
+     *
+     * @return number of tokens removed
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+
+        writeLock.lock();
+        try {
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revoked.size()), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+
+            return before - revoked.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Fixed-size Bloom filter over token fingerprints. The fingerprint is a
+     * SHA-256 digest, so two of its words are used directly for double
+     * hashing instead of hashing the token again.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                    / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (optimalBits + 63) / 64);
+
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(TokenFingerprint fingerprint) {
+            long first = fingerprint.word(0);
+            long second = fingerprint.word(1) | 1;
+
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(first + i * second, bitCount);
+                bits.accumulateAndGet((int) (bit >>> 6), 1L << bit, (current, mask) -> current | mask);
+            }
+        }
+
+        boolean mightContain(TokenFingerprint fingerprint) {
+            long first = fingerprint.word(0);
+            long second = fingerprint.word(1) | 1;
+
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(first + i * second, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package br.com.verbi.verbi.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import br.com.verbi.verbi.repository.TokenBlacklistRepository;
 import java.io.IOException;
 
 import jakarta.servlet.FilterChain;
@@ -18,7 +17,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 public class TokenBlacklistFilter extends OncePerRequestFilter {
 
     @Autowired
-    private TokenBlacklistRepository tokenBlacklistRepository;
+    private RevocationChecker revocationChecker;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -27,7 +26,7 @@ public class TokenBlacklistFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            if (tokenBlacklistRepository.existsByToken(token)) {
+            if (revocationChecker.isRevoked(RequestFingerprint.of(request, token))) {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token está na blacklist");
                 return;
             }
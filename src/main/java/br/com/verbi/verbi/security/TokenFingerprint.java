@@ -0,0 +1,87 @@
+package br.com.verbi.verbi.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Fixed-size SHA-256 fingerprint of a token string.
+ *
+ * Used as the key wherever a token has to be looked up (verified claims,
+ * revocation checks) so that the full JWT never has to be hashed or compared
+ * more than once per request.
+ */
+public final class TokenFingerprint {
+
+    public static final int LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final byte[] bytes;
+
+    private TokenFingerprint(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Computes the fingerprint of a token.
+     *
+     * @param token the raw token
+     * @return the fingerprint
+     */
+    public static TokenFingerprint of(String token) {
+        return new TokenFingerprint(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Wraps an already computed fingerprint.
+     *
+     * @param bytes the 32 digest bytes
+     * @return the fingerprint
+     */
+    public static TokenFingerprint fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != LENGTH) {
+            throw new IllegalArgumentException("A token fingerprint must have " + LENGTH + " bytes");
+        }
+        return new TokenFingerprint(bytes.clone());
+    }
+
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * Reads one of the four 64-bit words of the digest. The digest is uniformly
+     * distributed, so the words can be used directly as hash values.
+     *
+     * @param index word index, from 0 to 3
+     * @return the word at that index
+     */
+    public long word(int index) {
+        long value = 0;
+        for (int i = index * 8; i < index * 8 + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof TokenFingerprint && Arrays.equals(bytes, ((TokenFingerprint) other).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+    }
+}
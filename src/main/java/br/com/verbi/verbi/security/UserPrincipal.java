@@ -0,0 +1,68 @@
+package br.com.verbi.verbi.security;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import br.com.verbi.verbi.entity.User;
+
+/**
+ * Immutable snapshot of the authenticated user kept in the SecurityContext.
+ *
+ * It only carries what request handling needs, instead of the JPA entity and
+ * its lazy collections. As an AuthenticatedPrincipal, Authentication.getName()
+ * resolves to the user's email.
+ */
+public final class UserPrincipal implements AuthenticatedPrincipal, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UUID id;
+    private final String email;
+    private final String displayName;
+    private final boolean suspended;
+
+    public UserPrincipal(UUID id, String email, String displayName, boolean suspended) {
+        this.id = id;
+        this.email = email;
+        this.displayName = displayName;
+        this.suspended = suspended;
+    }
+
+    public static UserPrincipal fromEntity(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getName(), user.isSuspended());
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * @return the user's display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * @return the email, which is the principal name used across the app
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.verbi.verbi.security;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.util.BoundedTtlCache;
+
+/**
+ * Bounded, time-limited cache of authenticated principals keyed by email.
+ *
+ * Entries are invalidated explicitly by UserService whenever the underlying
+ * user row changes, the TTL only bounds how stale an entry can get if a
+ * change happens outside of it.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final BoundedTtlCache<String, UserPrincipal> principals;
+    private final Duration ttl;
+
+    public UserPrincipalCache(@Value("${verbi.principal-cache.max-size:10000}") int maxSize,
+            @Value("${verbi.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.principals = new BoundedTtlCache<>(maxSize);
+        this.ttl = ttl;
+    }
+
+    public UserPrincipal get(String email) {
+        return principals.get(email);
+    }
+
+    public void put(UserPrincipal principal) {
+        principals.put(principal.getEmail(), principal, ttl);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            principals.invalidate(email);
+        }
+    }
+
+    public void invalidate(UUID userId) {
+        principals.invalidateIf(principal -> principal.getId().equals(userId));
+    }
+}
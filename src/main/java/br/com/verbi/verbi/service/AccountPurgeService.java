@@ -0,0 +1,331 @@
+package br.com.verbi.verbi.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.verbi.verbi.entity.JobCheckpoint;
+import br.com.verbi.verbi.repository.ChatRepository;
+import br.com.verbi.verbi.repository.CommentRepository;
+import br.com.verbi.verbi.repository.FriendshipRepository;
+import br.com.verbi.verbi.repository.JobCheckpointRepository;
+import br.com.verbi.verbi.repository.MessageRepository;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.repository.RefreshTokenRepository;
+import br.com.verbi.verbi.repository.TimelineEntryRepository;
+import br.com.verbi.verbi.repository.TimelineStateRepository;
+import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.repository.UserRepository.PurgeCandidate;
+import br.com.verbi.verbi.security.UserPrincipalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Permanently deletes accounts marked for deletion.
+ *
+ * Candidates are read in id order, a chunk at a time, and each chunk is
+ * deleted on a bounded worker pool, with one bulk statement per dependent
+ * table instead of loading and cascading entities. Rows shared by two users
+ * (friendships, chats, comments and timeline entries on someone else's
+ * murals) can belong to two chunks at once, so those are deleted first in a
+ * short transaction that only one chunk runs at a time; the rest of the
+ * chunk, which only touches its own users' rows, runs in parallel.
+ * The last id below which every chunk is done is checkpointed, so a run
+ * that stops halfway resumes from there.
+ */
+@Service
+public class AccountPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountPurgeService.class);
+
+    static final String JOB_NAME = "account-purge";
+
+    // Smallest UUID, the starting point of a fresh run
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private MuralRepository muralRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Autowired
+    private TimelineStateRepository timelineStateRepository;
+
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private UserAutocompleteService userAutocompleteService;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @Autowired
+    private GlobalMuralSnapshot globalMuralSnapshot;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${verbi.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${verbi.purge.threads:4}")
+    private int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger chunksInFlight = new AtomicInteger();
+
+    // Serializes the deletes of rows shared between users, so two chunks never lock them in opposite orders
+    private final ReentrantLock sharedRowsLock = new ReentrantLock();
+
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor executor;
+    private Counter purgedAccounts;
+    private Counter failedChunks;
+    private Timer chunkTimer;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "account-purge-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        purgedAccounts = Counter.builder("verbi.purge.accounts")
+                .description("Accounts permanently deleted")
+                .register(meterRegistry);
+        failedChunks = Counter.builder("verbi.purge.failed-chunks")
+                .register(meterRegistry);
+        chunkTimer = Timer.builder("verbi.purge.chunk")
+                .description("Time to delete one chunk of accounts and their data")
+                .register(meterRegistry);
+        Gauge.builder("verbi.purge.in-flight", chunksInFlight, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Deletes every account marked for deletion before the cutoff.
+     *
+     * @param cutoff Accounts marked before this date are deleted
+     * @return Number of accounts deleted, 0 if a run was already in progress
+     */
+    public long purgeMarkedAccounts(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Account purge already running, skipping");
+            return 0;
+        }
+        try {
+            return runPurge(cutoff);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long runPurge(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        UUID afterId = jobCheckpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> UUID.fromString(checkpoint.getLastKey()))
+                .orElse(FIRST_ID);
+        if (!FIRST_ID.equals(afterId)) {
+            logger.info("Resuming account purge after {}", afterId);
+        }
+
+        Progress progress = new Progress();
+        AtomicLong purged = new AtomicLong();
+        Semaphore permits = new Semaphore(threads * 2); // Bounds the chunks read ahead of the workers
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+
+        long sequence = 0;
+        List<PurgeCandidate> candidates;
+        do {
+            candidates = userRepository.findPurgeCandidates(cutoff, afterId, chunkSize);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            afterId = candidates.get(candidates.size() - 1).getId();
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                progress.fail();
+                break;
+            }
+
+            long chunkSequence = sequence++;
+            UUID lastId = afterId;
+            List<PurgeCandidate> chunk = candidates;
+            chunks.add(CompletableFuture.runAsync(() -> {
+                chunksInFlight.incrementAndGet();
+                try {
+                    purged.addAndGet(purgeChunk(chunk));
+                    progress.completed(chunkSequence, lastId);
+                } catch (RuntimeException e) {
+                    failedChunks.increment();
+                    progress.fail();
+                    logger.error("Failed to purge {} accounts up to {}, they will be retried on the next run",
+                            chunk.size(), lastId, e);
+                } finally {
+                    chunksInFlight.decrementAndGet();
+                    permits.release();
+                }
+            }, executor));
+        } while (candidates.size() == chunkSize);
+
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+        if (!progress.failed) {
+            jobCheckpointRepository.deleteById(JOB_NAME); // Done: the next run starts from the beginning
+        }
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Account purge deleted {} accounts in {} chunks in {} ms ({} accounts/s)",
+                purged.get(), chunks.size(), elapsedMs, purged.get() * 1000 / elapsedMs);
+        return purged.get();
+    }
+
+    /**
+     * Deletes one chunk of accounts and everything that references them,
+     * children before parents. The rows shared with other users are deleted
+     * and committed first, so a failure afterwards leaves the accounts in
+     * place to be retried on the next run.
+     */
+    private int purgeChunk(List<PurgeCandidate> chunk) {
+        List<UUID> userIds = chunk.stream().map(PurgeCandidate::getId).toList();
+
+        Integer deleted = chunkTimer.record(() -> {
+            List<UUID> friendIds = deleteSharedRows(userIds);
+
+            // Only after the commit, so a rollback leaves the popularity as it was
+            for (UUID friendId : friendIds) {
+                if (!userIds.contains(friendId)) {
+                    userAutocompleteService.adjustPopularity(friendId, -1);
+                }
+            }
+
+            return transactionTemplate.execute(status -> {
+                timelineStateRepository.deleteByUserIds(userIds);
+                muralRepository.deleteByUserIds(userIds);
+                refreshTokenRepository.deleteByUserIds(userIds);
+                return userRepository.deleteByIds(userIds);
+            });
+        });
+
+        // Only after the commit, so a rollback leaves the caches consistent
+        for (PurgeCandidate candidate : chunk) {
+            userPrincipalCache.invalidate(candidate.getEmail());
+            userProfileService.invalidate(candidate.getId());
+            userAutocompleteService.remove(candidate.getId());
+        }
+        globalMuralSnapshot.removeAuthors(userIds);
+        purgedAccounts.increment(deleted);
+        return deleted;
+    }
+
+    /**
+     * Deletes the rows the users share with others, one chunk at a time.
+     *
+     * @return Friends of the users, once per accepted friendship
+     */
+    private List<UUID> deleteSharedRows(List<UUID> userIds) {
+        sharedRowsLock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                List<UUID> friendIds = friendshipRepository.findAcceptedFriendIdsOf(userIds);
+                commentRepository.deleteByUserIds(userIds);
+                timelineEntryRepository.deleteByUserIds(userIds);
+                messageRepository.deleteByUserIds(userIds);
+                chatRepository.deleteByUserIds(userIds);
+                friendshipRepository.deleteByUserIds(userIds);
+                return friendIds;
+            });
+        } finally {
+            sharedRowsLock.unlock();
+        }
+    }
+
+    /**
+     * Tracks finished chunks and moves the checkpoint over the ones that
+     * finished in sequence, so a chunk still running or failed is never
+     * skipped on resume.
+     */
+    private final class Progress {
+
+        private final Map<Long, UUID> finished = new HashMap<>();
+        private long next;
+        private volatile boolean failed;
+
+        synchronized void completed(long sequence, UUID lastId) {
+            finished.put(sequence, lastId);
+            UUID checkpoint = null;
+            while (finished.containsKey(next)) {
+                checkpoint = finished.remove(next++);
+            }
+            if (checkpoint != null) {
+                jobCheckpointRepository.save(new JobCheckpoint(JOB_NAME, checkpoint.toString(), LocalDateTime.now()));
+            }
+        }
+
+        void fail() {
+            failed = true;
+        }
+    }
+}
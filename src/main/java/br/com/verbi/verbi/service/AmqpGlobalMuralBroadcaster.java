@@ -0,0 +1,48 @@
+package br.com.verbi.verbi.service;
+
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.config.RabbitMQConfig;
+import br.com.verbi.verbi.entity.GlobalMuralChangeMessage;
+
+@Component
+@ConditionalOnProperty(name = "verbi.feed.global-snapshot.broker", havingValue = "amqp", matchIfMissing = true)
+public class AmqpGlobalMuralBroadcaster implements GlobalMuralBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(AmqpGlobalMuralBroadcaster.class);
+
+    // Changes travel as JSON, like token revocations
+    static final MessageConverter CONVERTER = new Jackson2JsonMessageConverter("br.com.verbi.verbi.entity");
+
+    // Identifies this node's own changes, which come back through the fanout
+    static final String NODE_ID = UUID.randomUUID().toString();
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    /**
+     * Sends the change to the fanout exchange. If the broker is unavailable
+     * the other nodes still get it on their next reload.
+     */
+    @Override
+    public void publish(GlobalMuralChangeMessage change) {
+        change.setOrigin(NODE_ID);
+        try {
+            rabbitTemplate.send(RabbitMQConfig.GLOBAL_MURAL_EXCHANGE, "",
+                    CONVERTER.toMessage(change, new MessageProperties()));
+        } catch (AmqpException e) {
+            logger.warn("Failed to broadcast global mural change: {}", e.getMessage());
+        }
+    }
+}
@@ -1,28 +1,29 @@
 package br.com.verbi.verbi.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.exception.AccessDeniedException;
-import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.security.UserPrincipal;
 
 import java.util.UUID;
 
 @Service
 public class AuthorizationService {
-    
-    public void verifyUserAuthorization(UUID userId, UserRepository userRepository) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String authenticatedEmail = authentication.getName(); // Pega o email do usuário autenticado
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    /**
+     * Checks that the authenticated user is the one being acted upon, using the
+     * principal already resolved by the filter chain.
+     *
+     * @param userId UUID of the user the action targets
+     * @throws AccessDeniedException if the authenticated user is someone else
+     */
+    public void verifyUserAuthorization(UUID userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (!user.getEmail().equals(authenticatedEmail)) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)
+                || !principal.getId().equals(userId)) {
             throw new AccessDeniedException("You are not allowed to perform this action");
         }
     }
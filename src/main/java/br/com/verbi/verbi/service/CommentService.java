@@ -1,10 +1,13 @@
 package br.com.verbi.verbi.service;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import br.com.verbi.verbi.dto.CommentDto;
@@ -25,6 +28,9 @@ public class CommentService {
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private FeedSignals feedSignals;
+
     /**
      * Creates a new comment and associates it with the given user and mural.
      * 
@@ -40,7 +46,28 @@ public class CommentService {
         comment.setUser(user); // Associate the user with the comment
         comment.setMural(mural); // Associate the mural with the comment
 
-        return commentRepository.save(comment); // Save and return the created comment
+        Comment saved = commentRepository.save(comment);
+        // Feeds rank murals by their comments; the author id does not load the user
+        UUID muralId = mural.getId();
+        UUID userId = user.getId();
+        UUID authorId = mural.getUser().getId();
+        LocalDateTime createdAt = saved.getCreatedAt();
+        afterCommit(() -> feedSignals.recordComment(muralId, userId, authorId, createdAt));
+        return saved; // Return the created comment
+    }
+
+    // Counted only once the comment is committed, so a rolled back comment never lifts a mural
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
     }
 
     /**
@@ -29,6 +29,23 @@ public class EmailService {
      * @param body    email body
      */
     public void sendEmail(String to, String subject, String body) {
+        try {
+            deliverEmail(to, subject, body);
+        } catch (MailException e) {
+            emailQueueService.sendEmailToQueue(to, subject, body); // Send to queue on failure
+            throw new RuntimeException("Failed to send email, queued for later delivery.", e);
+        }
+    }
+
+    /**
+     * Sends an email right away, leaving retries to the caller.
+     *
+     * @param to      recipient's email address
+     * @param subject email subject
+     * @param body    email body
+     * @throws MailException if the mail server can not be reached or rejects the message
+     */
+    public void deliverEmail(String to, String subject, String body) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true);
@@ -40,14 +57,12 @@ public class EmailService {
             mailSender.send(message);
         } catch (MessagingException e) {
             throw new EmailCreationException("Failed to create email message", e);
-        } catch (MailException e) {
-            emailQueueService.sendEmailToQueue(to, subject, body); // Send to queue on failure
-            throw new RuntimeException("Failed to send email, queued for later delivery.", e);
         }
     }
 
     /**
-     * Sends a confirmation email to the user.
+     * Sends a confirmation email to the user. Called from the outbox
+     * dispatcher, which retries on failure, so it is not queued here.
      *
      * @param user the user to whom the email is sent
      */
@@ -55,7 +70,7 @@ public class EmailService {
         String confirmationLink = generateConfirmationLink(user);
         String body = String.format("Hello %s,\n\nPlease click the following link to confirm your email:\n%s",
                 user.getName(), confirmationLink);
-        sendEmail(user.getEmail(), "Email Confirmation", body);
+        deliverEmail(user.getEmail(), "Email Confirmation", body);
     }
 
     /**
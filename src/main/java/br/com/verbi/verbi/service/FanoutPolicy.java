@@ -0,0 +1,43 @@
+package br.com.verbi.verbi.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides which murals are pushed into home timelines. Authors with fewer
+ * friends than the push threshold are pushed; the murals of the others
+ * would cost one timeline row per friend, so they are pulled at read time.
+ *
+ * The threshold can be changed at runtime (see FeedFanoutEndpoint). Each
+ * mural records whether it was pushed, so a change only applies to new
+ * murals and no mural is lost or shown twice.
+ */
+@Service
+public class FanoutPolicy {
+
+    private final AtomicInteger pushThreshold;
+
+    public FanoutPolicy(@Value("${verbi.feed.push-threshold:5000}") int pushThreshold) {
+        this.pushThreshold = new AtomicInteger(validate(pushThreshold));
+    }
+
+    public int getPushThreshold() {
+        return pushThreshold.get();
+    }
+
+    /**
+     * @param threshold Authors with at least this many friends are pulled; 0 pulls everyone
+     */
+    public void setPushThreshold(int threshold) {
+        pushThreshold.set(validate(threshold));
+    }
+
+    private static int validate(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Push threshold must not be negative");
+        }
+        return threshold;
+    }
+}
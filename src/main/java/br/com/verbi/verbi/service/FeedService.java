@@ -0,0 +1,269 @@
+package br.com.verbi.verbi.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.com.verbi.verbi.dto.CursorPageDto;
+import br.com.verbi.verbi.dto.FeedCandidate;
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.exception.InvalidDataException;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.service.FeedSignals.Signal;
+import br.com.verbi.verbi.util.FeedCursor;
+import br.com.verbi.verbi.util.FeedMerger;
+import br.com.verbi.verbi.util.FeedRanker;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Builds mural feeds from three sources, each read with the same cursor and
+ * merged in (createdAt, id) order, newest first:
+ * <ul>
+ * <li>the user's home timeline, with the murals pushed on write;</li>
+ * <li>murals of the user and their friends that were not pushed, because
+ * the author has too many friends or the fan-out has not run yet;</li>
+ * <li>GLOBAL murals, for the visible feed only, mostly served from memory
+ * by {@link GlobalMuralSnapshot}.</li>
+ * </ul>
+ * A ranked feed scores the newest candidates of the same sources, read
+ * without their bodies, and loads only the best scored (see
+ * {@link FeedRanker}), in a single page. Its GLOBAL candidates are the ones
+ * in the snapshot, so ranking never reads GLOBAL murals from the database.
+ */
+@Service
+public class FeedService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 50;
+
+    // Feed order: newest first, ties broken by id as Postgres compares uuids
+    static final Comparator<FeedCandidate> FEED_ORDER = Comparator.comparing(FeedCandidate::getCreatedAt)
+            .thenComparing(FeedCandidate::getId, FeedService::compareIds)
+            .reversed();
+
+    @Autowired
+    private MuralRepository muralRepository;
+
+    @Autowired
+    private HomeTimelineService homeTimelineService;
+
+    @Autowired
+    private FeedSignals feedSignals;
+
+    @Autowired
+    private GlobalMuralSnapshot globalMuralSnapshot;
+
+    // Newest murals considered for a ranked feed
+    @Value("${verbi.feed.ranking.candidates:5000}")
+    private int rankingCandidates;
+
+    @Value("${verbi.feed.ranking.recency-weight:1.0}")
+    private double recencyWeight;
+
+    @Value("${verbi.feed.ranking.affinity-weight:0.5}")
+    private double affinityWeight;
+
+    @Value("${verbi.feed.ranking.activity-weight:0.3}")
+    private double activityWeight;
+
+    @Value("${verbi.feed.ranking.recency-half-life:PT12H}")
+    private Duration recencyHalfLife;
+
+    private FeedRanker ranker;
+
+    // Ranking arrays of each request thread, grown to the largest candidate set seen
+    private final ThreadLocal<RankingBuffers> rankingBuffers = ThreadLocal.withInitial(RankingBuffers::new);
+
+    @PostConstruct
+    void init() {
+        ranker = new FeedRanker(recencyWeight, affinityWeight, activityWeight, recencyHalfLife.toMillis());
+    }
+
+    /**
+     * Lists the murals visible to a user: their own and their friends', and
+     * every GLOBAL mural.
+     *
+     * @param userId The user requesting the feed.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param limit  Maximum number of murals.
+     * @return A page of the feed.
+     * @throws InvalidDataException if the cursor is malformed.
+     */
+    public CursorPageDto<MuralResponseDto> getVisibleFeed(UUID userId, String cursor, int limit) {
+        return read(userId, cursor, limit, true);
+    }
+
+    /**
+     * Lists the user's own murals and their friends'.
+     *
+     * @param userId The user requesting the feed.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param limit  Maximum number of murals.
+     * @return A page of the feed.
+     * @throws InvalidDataException if the cursor is malformed.
+     */
+    public CursorPageDto<MuralResponseDto> getHomeFeed(UUID userId, String cursor, int limit) {
+        return read(userId, cursor, limit, false);
+    }
+
+    /**
+     * Ranks the murals visible to a user: their own and their friends', and
+     * every GLOBAL mural.
+     *
+     * @param userId The user requesting the feed.
+     * @param limit  Maximum number of murals.
+     * @return The best scored murals, without a next page.
+     */
+    public CursorPageDto<MuralResponseDto> rankVisibleFeed(UUID userId, int limit) {
+        return rank(userId, limit, true);
+    }
+
+    /**
+     * Ranks the user's own murals and their friends'.
+     *
+     * @param userId The user requesting the feed.
+     * @param limit  Maximum number of murals.
+     * @return The best scored murals, without a next page.
+     */
+    public CursorPageDto<MuralResponseDto> rankHomeFeed(UUID userId, int limit) {
+        return rank(userId, limit, false);
+    }
+
+    private CursorPageDto<MuralResponseDto> read(UUID userId, String cursor, int limit, boolean withGlobal) {
+        int pageSize = pageSize(limit);
+        FeedCursor after = cursor == null || cursor.isEmpty() ? null : FeedCursor.decode(cursor);
+
+        // One extra row from each source tells whether there is a next page
+        int fetch = pageSize + 1;
+        return toPage(FeedMerger.merge(sources(userId, after, fetch, withGlobal), FEED_ORDER,
+                MuralResponseDto::getId, fetch), pageSize);
+    }
+
+    private CursorPageDto<MuralResponseDto> rank(UUID userId, int limit, boolean withGlobal) {
+        List<List<FeedCandidate>> sources = new ArrayList<>(3);
+        sources.add(homeTimelineService.readCandidates(userId, rankingCandidates));
+        sources.add(muralRepository.findUnpushedCandidatesFor(userId, rankingCandidates));
+        if (withGlobal) {
+            sources.add(Collections.unmodifiableList(globalMuralSnapshot.newest(rankingCandidates)));
+        }
+        List<FeedCandidate> candidates = FeedMerger.merge(sources, FEED_ORDER, FeedCandidate::getId,
+                rankingCandidates);
+        int n = candidates.size();
+        RankingBuffers buffers = rankingBuffers.get().ensureCapacity(n);
+
+        long now = feedSignals.nowMillis();
+        Map<UUID, Signal> affinities = feedSignals.affinitiesOf(userId);
+        for (int i = 0; i < n; i++) {
+            FeedCandidate mural = candidates.get(i);
+            buffers.createdAt[i] = FeedSignals.toMillis(mural.getCreatedAt());
+            buffers.affinity[i] = feedSignals.affinity(affinities, mural.getUserId(), now);
+            buffers.activity[i] = feedSignals.activity(mural.getId(), now);
+        }
+        ranker.score(now, buffers.createdAt, buffers.affinity, buffers.activity, n, buffers.scores);
+        int selected = FeedRanker.selectTop(buffers.scores, n, pageSize(limit), buffers.top);
+
+        List<FeedCandidate> top = new ArrayList<>(selected);
+        for (int i = 0; i < selected; i++) {
+            top.add(candidates.get(buffers.top[i]));
+        }
+        return new CursorPageDto<>(load(top), null);
+    }
+
+    /**
+     * Loads the selected murals, in the given order: those from the snapshot
+     * are already in memory, the others are read in one query. Murals deleted
+     * since they were ranked are left out.
+     */
+    private List<MuralResponseDto> load(List<FeedCandidate> selected) {
+        List<UUID> missing = new ArrayList<>();
+        for (FeedCandidate candidate : selected) {
+            if (!(candidate instanceof MuralResponseDto)) {
+                missing.add(candidate.getId());
+            }
+        }
+        Map<UUID, MuralResponseDto> loaded = missing.isEmpty() ? Map.of()
+                : muralRepository.findResponsesByIdIn(missing).stream()
+                        .collect(Collectors.toMap(MuralResponseDto::getId, Function.identity()));
+
+        List<MuralResponseDto> items = new ArrayList<>(selected.size());
+        for (FeedCandidate candidate : selected) {
+            MuralResponseDto mural = candidate instanceof MuralResponseDto dto ? dto : loaded.get(candidate.getId());
+            if (mural != null) {
+                items.add(mural);
+            }
+        }
+        return items;
+    }
+
+    private List<List<MuralResponseDto>> sources(UUID userId, FeedCursor after, int fetch, boolean withGlobal) {
+        List<List<MuralResponseDto>> sources = new ArrayList<>(3);
+        sources.add(homeTimelineService.read(userId, after, fetch));
+        sources.add(after == null
+                ? muralRepository.findUnpushedFor(userId, fetch)
+                : muralRepository.findUnpushedForAfter(userId, after.getCreatedAt(), after.getId(), fetch));
+        if (withGlobal) {
+            sources.add(globalMuralSnapshot.read(after, fetch));
+        }
+        return sources;
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Maps up to pageSize + 1 murals to a feed page: the extra one, if
+     * present, only tells that there is a next page.
+     */
+    static CursorPageDto<MuralResponseDto> toPage(List<MuralResponseDto> murals, int pageSize) {
+        boolean hasNext = murals.size() > pageSize;
+        List<MuralResponseDto> page = hasNext ? List.copyOf(murals.subList(0, pageSize)) : murals;
+
+        String nextCursor = null;
+        if (hasNext) {
+            MuralResponseDto last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(page, nextCursor);
+    }
+
+    // Unsigned, byte by byte, like the uuid type in Postgres
+    private static int compareIds(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    /**
+     * Input and output arrays of the ranker, reused across the requests of
+     * a thread so scoring does not allocate.
+     */
+    private static final class RankingBuffers {
+
+        long[] createdAt = new long[0];
+        float[] affinity = new float[0];
+        float[] activity = new float[0];
+        float[] scores = new float[0];
+        int[] top = new int[0];
+
+        RankingBuffers ensureCapacity(int n) {
+            if (createdAt.length < n) {
+                createdAt = new long[n];
+                affinity = new float[n];
+                activity = new float[n];
+                scores = new float[n];
+                top = new int[Math.min(n, MAX_LIMIT)];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package br.com.verbi.verbi.service;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ranking signals of the feed, kept in memory and updated as comments are
+ * created, so ranking a request only reads them:
+ * <ul>
+ * <li>comment activity of each mural;</li>
+ * <li>affinity of a viewer with an author, from the viewer's comments on
+ * the author's murals.</li>
+ * </ul>
+ * Both are counters that decay exponentially with their half-life. The
+ * signals are per node; at startup they are seeded from the recent comments.
+ */
+@Service
+public class FeedSignals {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedSignals.class);
+
+    // Comments of the mural's author and commenter, oldest first
+    private static final String SEED_QUERY = "SELECT c.mural_id, c.user_id AS commenter_id, "
+            + "m.user_id AS author_id, c.created_at FROM comments c JOIN mural m ON m.id = c.mural_id "
+            + "WHERE c.created_at >= ? ORDER BY c.created_at LIMIT ?";
+
+    // Signals decayed below this are dropped by the sweep
+    private static final double EPSILON = 0.01;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final double activityDecayPerMilli;
+    private final double affinityDecayPerMilli;
+    private final Duration seedWindow;
+    private final int seedLimit;
+
+    // Comment and mural times are local date-times, so "now" is read in the same zone
+    Clock clock = Clock.systemDefaultZone();
+
+    private final Map<UUID, Signal> activity = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<UUID, Signal>> affinity = new ConcurrentHashMap<>();
+
+    public FeedSignals(@Value("${verbi.feed.ranking.activity-half-life:PT6H}") Duration activityHalfLife,
+            @Value("${verbi.feed.ranking.affinity-half-life:P14D}") Duration affinityHalfLife,
+            @Value("${verbi.feed.ranking.seed-window:P7D}") Duration seedWindow,
+            @Value("${verbi.feed.ranking.seed-limit:500000}") int seedLimit) {
+        this.activityDecayPerMilli = Math.log(2) / activityHalfLife.toMillis();
+        this.affinityDecayPerMilli = Math.log(2) / affinityHalfLife.toMillis();
+        this.seedWindow = seedWindow;
+        this.seedLimit = seedLimit;
+    }
+
+    /**
+     * Seeds the signals from the comments of the seed window.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        LocalDateTime since = LocalDateTime.now(clock).minus(seedWindow);
+        try {
+            int[] rows = new int[1];
+            jdbcTemplate.query(SEED_QUERY, rs -> {
+                recordComment(rs.getObject("mural_id", UUID.class), rs.getObject("commenter_id", UUID.class),
+                        rs.getObject("author_id", UUID.class), rs.getTimestamp("created_at").toLocalDateTime());
+                rows[0]++;
+            }, Timestamp.valueOf(since), seedLimit);
+            logger.info("Seeded the feed signals from {} comments in {} ms",
+                    rows[0], (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            logger.warn("Could not seed the feed signals, ranking starts from recency only: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Records a comment: one more unit of activity for the mural and, unless
+     * the author comments on their own mural, of affinity of the commenter
+     * with the author.
+     *
+     * @param muralId     The mural commented on
+     * @param commenterId The user who commented
+     * @param authorId    The author of the mural
+     * @param createdAt   When the comment was made
+     */
+    public void recordComment(UUID muralId, UUID commenterId, UUID authorId, LocalDateTime createdAt) {
+        long at = toMillis(createdAt);
+        activity.compute(muralId, (id, signal) -> Signal.add(signal, at, activityDecayPerMilli));
+        if (!commenterId.equals(authorId)) {
+            affinity.computeIfAbsent(commenterId, id -> new ConcurrentHashMap<>())
+                    .compute(authorId, (id, signal) -> Signal.add(signal, at, affinityDecayPerMilli));
+        }
+    }
+
+    /**
+     * Current comment activity of a mural.
+     */
+    public float activity(UUID muralId, long nowMillis) {
+        Signal signal = activity.get(muralId);
+        return signal == null ? 0f : (float) signal.valueAt(nowMillis, activityDecayPerMilli);
+    }
+
+    /**
+     * Affinities of a viewer, keyed by author; empty if the viewer has none.
+     * Read with {@link #affinity(Map, UUID, long)}.
+     */
+    public Map<UUID, Signal> affinitiesOf(UUID viewerId) {
+        return affinity.getOrDefault(viewerId, Map.of());
+    }
+
+    /**
+     * Current affinity with an author, from the map of {@link #affinitiesOf(UUID)}.
+     */
+    public float affinity(Map<UUID, Signal> affinities, UUID authorId, long nowMillis) {
+        Signal signal = affinities.get(authorId);
+        return signal == null ? 0f : (float) signal.valueAt(nowMillis, affinityDecayPerMilli);
+    }
+
+    /**
+     * Current time, on the same scale as {@link #toMillis(LocalDateTime)}.
+     */
+    public long nowMillis() {
+        return toMillis(LocalDateTime.now(clock));
+    }
+
+    /**
+     * Drops the signals that have decayed to nothing, so the maps hold only
+     * recently active murals and pairs.
+     */
+    @Scheduled(fixedDelayString = "${verbi.feed.ranking.sweep-interval:PT30M}")
+    public void sweep() {
+        long now = nowMillis();
+        activity.values().removeIf(signal -> signal.valueAt(now, activityDecayPerMilli) < EPSILON);
+        affinity.values().removeIf(authors -> {
+            authors.values().removeIf(signal -> signal.valueAt(now, affinityDecayPerMilli) < EPSILON);
+            return authors.isEmpty();
+        });
+    }
+
+    int size() {
+        return activity.size() + affinity.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Milliseconds of a local date-time, for the ranking arithmetic only.
+     */
+    public static long toMillis(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000; // No Instant allocated
+    }
+
+    /**
+     * A decayed counter: value as of the time of the last update.
+     */
+    public static final class Signal {
+
+        private final double value;
+        private final long updatedAt;
+
+        private Signal(double value, long updatedAt) {
+            this.value = value;
+            this.updatedAt = updatedAt;
+        }
+
+        double valueAt(long millis, double decayPerMilli) {
+            // Events recorded out of order are not decayed into the future
+            return value * Math.exp(-decayPerMilli * Math.max(0, millis - updatedAt));
+        }
+
+        static Signal add(Signal current, long at, double decayPerMilli) {
+            if (current == null) {
+                return new Signal(1, at);
+            }
+            if (at >= current.updatedAt) {
+                return new Signal(current.valueAt(at, decayPerMilli) + 1, at);
+            }
+            // An older event: decay it to the time of the current value instead
+            return new Signal(current.value + Math.exp(-decayPerMilli * (current.updatedAt - at)), current.updatedAt);
+        }
+    }
+}
@@ -47,6 +47,16 @@ public class FileService {
 
     
 
+    /**
+     * Deletes a file saved by saveFile, given the path it returned.
+     *
+     * @param path path returned by saveFile
+     * @throws IOException if the file exists but can not be deleted
+     */
+    public void deleteFile(String path) throws IOException {
+        Files.deleteIfExists(Paths.get(path));
+    }
+
     public Resource loadFile(String fileName, String subDir) throws MalformedURLException {
         Path filePath = Paths.get(baseUploadDir, subDir).resolve(fileName);
         Resource resource = new UrlResource(filePath.toUri());
@@ -11,8 +11,12 @@ import org.springframework.stereotype.Service;
 import br.com.verbi.verbi.entity.Friendship;
 import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.enums.FriendshipStatus;
+import br.com.verbi.verbi.enums.OutboxEventType;
+import br.com.verbi.verbi.exception.AccessDeniedException;
+import br.com.verbi.verbi.exception.InvalidDataException;
 import br.com.verbi.verbi.repository.FriendshipRepository;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 
 @Service
 public class FriendshipService {
@@ -26,6 +30,12 @@ public class FriendshipService {
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private UserAutocompleteService userAutocompleteService;
+
+    @Autowired
+    private OutboxService outboxService;
+
     /**
      * Sends a friend request from one user to another.
      *
@@ -61,13 +71,23 @@ public class FriendshipService {
      * @return The updated Friendship entity.
      * @throws EntityNotFoundException If the friendship does not exist.
      */
+    @Transactional
     public Friendship acceptFriendRequest(UUID friendshipId) {
         Friendship friendship = friendshipRepository.findById(friendshipId)
                 .orElseThrow(() -> new EntityNotFoundException("Friendship not found"));
 
+        boolean newFriendship = friendship.getStatus() != FriendshipStatus.ACCEPTED;
         friendship.setStatus(FriendshipStatus.ACCEPTED);
         Friendship savedFriendship = friendshipRepository.save(friendship);
 
+        if (newFriendship) {
+            // Friend count ranks the autocomplete suggestions
+            userAutocompleteService.adjustPopularity(savedFriendship.getSender().getId(), 1);
+            userAutocompleteService.adjustPopularity(savedFriendship.getReceiver().getId(), 1);
+            // Each friend's recent murals are copied into the other's home timeline
+            outboxService.record(OutboxEventType.FRIENDSHIP_ACCEPTED, savedFriendship.getId());
+        }
+
         // Automatically create a chat between the two friends
         chatService.createChat(savedFriendship.getSender(), savedFriendship.getReceiver());
 
@@ -80,15 +100,51 @@ public class FriendshipService {
      * @param friendshipId The UUID of the friendship to decline.
      * @return The updated Friendship entity with declined status.
      * @throws EntityNotFoundException If the friendship does not exist.
+     * @throws InvalidDataException    If the friendship is not pending; use removeFriend to end an accepted one.
      */
     public Friendship declineFriendRequest(UUID friendshipId) {
         Friendship friendship = friendshipRepository.findById(friendshipId)
                 .orElseThrow(() -> new EntityNotFoundException("Friendship not found"));
 
+        if (friendship.getStatus() != FriendshipStatus.PENDING) {
+            throw new InvalidDataException("Only pending friend requests can be declined");
+        }
         friendship.setStatus(FriendshipStatus.DECLINED);
         return friendshipRepository.save(friendship);
     }
 
+    /**
+     * Ends an accepted friendship. The row is kept as DECLINED, and a
+     * FRIENDSHIP_ENDED event removes each user's murals from the other's
+     * home timeline, so friends-only murals stop showing up in their feeds.
+     *
+     * @param friendshipId The UUID of the friendship to end.
+     * @param userId       The UUID of the user ending it, one of the two friends.
+     * @return The updated Friendship entity.
+     * @throws EntityNotFoundException If the friendship does not exist.
+     * @throws AccessDeniedException   If the user is not part of the friendship.
+     * @throws InvalidDataException    If the friendship is not accepted.
+     */
+    @Transactional
+    public Friendship removeFriend(UUID friendshipId, UUID userId) {
+        Friendship friendship = friendshipRepository.findById(friendshipId)
+                .orElseThrow(() -> new EntityNotFoundException("Friendship not found"));
+
+        if (!friendship.getSender().getId().equals(userId) && !friendship.getReceiver().getId().equals(userId)) {
+            throw new AccessDeniedException("You are not part of this friendship");
+        }
+        if (friendship.getStatus() != FriendshipStatus.ACCEPTED) {
+            throw new InvalidDataException("Only accepted friendships can be removed");
+        }
+
+        friendship.setStatus(FriendshipStatus.DECLINED);
+        Friendship savedFriendship = friendshipRepository.save(friendship);
+        userAutocompleteService.adjustPopularity(savedFriendship.getSender().getId(), -1);
+        userAutocompleteService.adjustPopularity(savedFriendship.getReceiver().getId(), -1);
+        outboxService.record(OutboxEventType.FRIENDSHIP_ENDED, savedFriendship.getId());
+        return savedFriendship;
+    }
+
     /**
      * Retrieves all friends of a given user.
      *
@@ -96,7 +152,7 @@ public class FriendshipService {
      * @return A list of accepted friendships.
      */
     public List<Friendship> getFriends(User user) {
-        return friendshipRepository.findBySenderOrReceiverAndStatus(user, user, FriendshipStatus.ACCEPTED);
+        return friendshipRepository.findAcceptedOf(user.getId());
     }
 
     /**
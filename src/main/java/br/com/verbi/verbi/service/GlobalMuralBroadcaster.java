@@ -0,0 +1,22 @@
+package br.com.verbi.verbi.service;
+
+import br.com.verbi.verbi.entity.GlobalMuralChangeMessage;
+
+/**
+ * Propagates changes of the global mural snapshot to the other nodes, so a
+ * deleted mural, or one no longer GLOBAL, leaves every feed right away
+ * instead of on the next reload.
+ *
+ * The implementation is selected with {@code verbi.feed.global-snapshot.broker}:
+ * {@code amqp} (default) uses the RabbitMQ fanout exchange, {@code in-process}
+ * notifies no one and is meant for tests and single-node setups.
+ */
+public interface GlobalMuralBroadcaster {
+
+    /**
+     * Sends a change already applied to this node's snapshot.
+     *
+     * @param change the change
+     */
+    void publish(GlobalMuralChangeMessage change);
+}
@@ -0,0 +1,35 @@
+package br.com.verbi.verbi.service;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.entity.GlobalMuralChangeMessage;
+
+/**
+ * Applies the global mural changes made on other nodes to this node's
+ * snapshot. Kept apart from {@link AmqpGlobalMuralBroadcaster}, which the
+ * snapshot itself depends on.
+ */
+@Component
+@ConditionalOnProperty(name = "verbi.feed.global-snapshot.broker", havingValue = "amqp", matchIfMissing = true)
+public class GlobalMuralChangeListener {
+
+    @Autowired
+    private GlobalMuralSnapshot globalMuralSnapshot;
+
+    /**
+     * @param amqpMessage the JSON change message
+     */
+    @RabbitListener(queues = "#{globalMuralQueue.name}")
+    public void onChange(Message amqpMessage) {
+        GlobalMuralChangeMessage change = (GlobalMuralChangeMessage) AmqpGlobalMuralBroadcaster.CONVERTER
+                .fromMessage(amqpMessage);
+        if (AmqpGlobalMuralBroadcaster.NODE_ID.equals(change.getOrigin())) {
+            return; // Applied when it was made
+        }
+        globalMuralSnapshot.applyRemote(change);
+    }
+}
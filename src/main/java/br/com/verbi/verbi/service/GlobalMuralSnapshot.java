@@ -0,0 +1,351 @@
+package br.com.verbi.verbi.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.entity.GlobalMuralChangeMessage;
+import br.com.verbi.verbi.enums.MuralVisibility;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.util.FeedCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The newest GLOBAL murals, the same for every viewer, kept in memory so the
+ * feeds do not read them from the database on every request.
+ *
+ * The murals are held in an immutable array, in feed order, that is
+ * replaced on every change: readers take the current array without
+ * locking. Changes are applied after the commit and sent to the other
+ * nodes through the {@link GlobalMuralBroadcaster}, so a mural deleted or
+ * no longer GLOBAL leaves every node's feeds at once. The whole array is
+ * also reloaded from the database at startup and then periodically, which
+ * catches up on changes a node missed; changes made while a reload reads
+ * the database are replayed on top of what it read. Pages past the end of
+ * the array are completed from the database.
+ */
+@Service
+public class GlobalMuralSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalMuralSnapshot.class);
+
+    @Autowired
+    private MuralRepository muralRepository;
+
+    @Autowired
+    private GlobalMuralBroadcaster broadcaster;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final int capacity;
+
+    // Empty and incomplete until loaded, so every read goes to the database
+    private volatile Snapshot snapshot = new Snapshot(new MuralResponseDto[0], false);
+
+    // Changes applied while a reload reads the database, replayed on top of what it read; null between reloads
+    private List<UnaryOperator<Snapshot>> changesDuringReload;
+
+    private final Object reloadLock = new Object();
+
+    private Counter memoryReads;
+    private Counter databaseReads;
+
+    public GlobalMuralSnapshot(@Value("${verbi.feed.global-snapshot.size:1000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("verbi.feed.global-snapshot.size must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @PostConstruct
+    void init() {
+        memoryReads = Counter.builder("verbi.feed.global-snapshot.reads").tag("source", "memory")
+                .register(meterRegistry);
+        databaseReads = Counter.builder("verbi.feed.global-snapshot.reads").tag("source", "database")
+                .register(meterRegistry);
+        Gauge.builder("verbi.feed.global-snapshot.size", this, s -> s.snapshot.murals.length)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the newest GLOBAL murals from the database into the snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${verbi.feed.global-snapshot.refresh-interval:PT30S}",
+            initialDelayString = "${verbi.feed.global-snapshot.refresh-interval:PT30S}")
+    public void reload() {
+        synchronized (reloadLock) {
+            long start = System.nanoTime();
+            synchronized (this) {
+                changesDuringReload = new ArrayList<>();
+            }
+            try {
+                List<MuralResponseDto> newest;
+                try {
+                    newest = muralRepository.findGlobal(capacity + 1); // One more tells whether the snapshot has them all
+                } catch (DataAccessException e) {
+                    logger.warn("Could not reload the global mural snapshot, keeping the current one: {}",
+                            e.getMessage());
+                    return;
+                }
+
+                boolean complete = newest.size() <= capacity;
+                MuralResponseDto[] murals = newest.subList(0, Math.min(newest.size(), capacity))
+                        .toArray(new MuralResponseDto[0]);
+                int replayed;
+                synchronized (this) {
+                    // A change made during the query may be missing from what was read: apply it again
+                    Snapshot next = new Snapshot(murals, complete);
+                    for (UnaryOperator<Snapshot> change : changesDuringReload) {
+                        next = change.apply(next);
+                    }
+                    replayed = changesDuringReload.size();
+                    snapshot = next;
+                }
+                logger.debug("Reloaded {} global murals in {} ms, {} changes replayed", murals.length,
+                        (System.nanoTime() - start) / 1_000_000, replayed);
+            } finally {
+                synchronized (this) {
+                    changesDuringReload = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads GLOBAL murals in feed order, from memory, and from the database
+     * for the part past the end of the snapshot.
+     *
+     * @param after Position to read after, or null for the newest murals.
+     * @param limit Maximum number of murals.
+     * @return The murals, in feed order.
+     */
+    public List<MuralResponseDto> read(FeedCursor after, int limit) {
+        Snapshot current = snapshot; // The same array for the whole read
+        MuralResponseDto[] murals = current.murals;
+        int from = after == null ? 0 : current.indexAfter(after);
+        int to = Math.min(murals.length, from + limit);
+
+        List<MuralResponseDto> page = new ArrayList<>(Math.max(0, to - from));
+        page.addAll(Arrays.asList(murals).subList(from, to));
+        if (page.size() == limit || current.complete) {
+            memoryReads.increment();
+            return page;
+        }
+
+        // Past the end of the snapshot: continue from its last mural, or from the cursor
+        databaseReads.increment();
+        int remaining = limit - page.size();
+        if (!page.isEmpty()) {
+            MuralResponseDto last = page.get(page.size() - 1);
+            page.addAll(muralRepository.findGlobalAfter(last.getCreatedAt(), last.getId(), remaining));
+        } else if (after != null) {
+            page.addAll(muralRepository.findGlobalAfter(after.getCreatedAt(), after.getId(), remaining));
+        } else {
+            page.addAll(muralRepository.findGlobal(remaining));
+        }
+        return page;
+    }
+
+    /**
+     * The newest GLOBAL murals held in memory, for feed ranking. Never reads
+     * the database, so ranking considers at most the snapshot's murals.
+     *
+     * @param limit Maximum number of murals.
+     * @return The murals, in feed order.
+     */
+    public List<MuralResponseDto> newest(int limit) {
+        MuralResponseDto[] murals = snapshot.murals;
+        return Collections.unmodifiableList(Arrays.asList(murals).subList(0, Math.min(murals.length, limit)));
+    }
+
+    /**
+     * Adds or replaces a mural after the current transaction commits, on
+     * every node. A mural no longer GLOBAL is removed.
+     */
+    public void put(MuralResponseDto mural) {
+        afterCommit(() -> {
+            change(current -> withPut(current, mural));
+            GlobalMuralChangeMessage message = new GlobalMuralChangeMessage(GlobalMuralChangeMessage.Type.PUT);
+            message.setMuralId(mural.getId());
+            message.setBody(mural.getBody());
+            message.setVisibility(mural.getVisibility());
+            message.setUserName(mural.getUserName());
+            message.setCreatedAt(mural.getCreatedAt().toString());
+            message.setUserId(mural.getUserId());
+            broadcaster.publish(message);
+        });
+    }
+
+    /**
+     * Removes a mural after the current transaction commits, on every node.
+     */
+    public void remove(UUID muralId) {
+        afterCommit(() -> {
+            change(current -> withRemoved(current, muralId));
+            GlobalMuralChangeMessage message = new GlobalMuralChangeMessage(GlobalMuralChangeMessage.Type.REMOVE);
+            message.setMuralId(muralId);
+            broadcaster.publish(message);
+        });
+    }
+
+    /**
+     * Removes the murals of deleted users after the current transaction
+     * commits, on every node.
+     */
+    public void removeAuthors(Collection<UUID> userIds) {
+        List<UUID> authors = List.copyOf(userIds);
+        afterCommit(() -> {
+            change(current -> withoutAuthors(current, authors));
+            GlobalMuralChangeMessage message =
+                    new GlobalMuralChangeMessage(GlobalMuralChangeMessage.Type.REMOVE_AUTHORS);
+            message.setUserIds(authors);
+            broadcaster.publish(message);
+        });
+    }
+
+    /**
+     * Applies a change made on another node, which already committed it.
+     *
+     * @param message the change
+     */
+    public void applyRemote(GlobalMuralChangeMessage message) {
+        switch (message.getType()) {
+            case PUT:
+                MuralResponseDto mural = new MuralResponseDto(message.getMuralId(), message.getBody(),
+                        message.getVisibility(), message.getUserName(), LocalDateTime.parse(message.getCreatedAt()),
+                        message.getUserId());
+                change(current -> withPut(current, mural));
+                break;
+            case REMOVE:
+                change(current -> withRemoved(current, message.getMuralId()));
+                break;
+            case REMOVE_AUTHORS:
+                change(current -> withoutAuthors(current, message.getUserIds()));
+                break;
+        }
+    }
+
+    // Publishes the changed array, if anything changed, and keeps the change for a reload in progress
+    private synchronized void change(UnaryOperator<Snapshot> change) {
+        snapshot = change.apply(snapshot);
+        if (changesDuringReload != null) {
+            changesDuringReload.add(change);
+        }
+    }
+
+    // The snapshot with the mural added or replaced, or removed if no longer GLOBAL
+    private Snapshot withPut(Snapshot current, MuralResponseDto mural) {
+        if (mural.getVisibility() != MuralVisibility.GLOBAL) {
+            return withRemoved(current, mural.getId());
+        }
+        List<MuralResponseDto> murals = new ArrayList<>(current.murals.length + 1);
+        for (MuralResponseDto existing : current.murals) {
+            if (!existing.getId().equals(mural.getId())) {
+                murals.add(existing);
+            }
+        }
+
+        boolean complete = current.complete;
+        int position = insertionPoint(murals, mural);
+        // Older than the oldest kept, with older murals missing: it belongs to the database part
+        if (position == murals.size() && !complete) {
+            return murals.size() == current.murals.length ? current
+                    : new Snapshot(murals.toArray(new MuralResponseDto[0]), false);
+        }
+        murals.add(position, mural);
+        if (murals.size() > capacity) {
+            murals.remove(murals.size() - 1);
+            complete = false;
+        }
+        return new Snapshot(murals.toArray(new MuralResponseDto[0]), complete);
+    }
+
+    private static Snapshot withRemoved(Snapshot current, UUID muralId) {
+        MuralResponseDto[] murals = Arrays.stream(current.murals)
+                .filter(mural -> !mural.getId().equals(muralId))
+                .toArray(MuralResponseDto[]::new);
+        return murals.length == current.murals.length ? current : new Snapshot(murals, current.complete);
+    }
+
+    private static Snapshot withoutAuthors(Snapshot current, Collection<UUID> userIds) {
+        MuralResponseDto[] murals = Arrays.stream(current.murals)
+                .filter(mural -> !userIds.contains(mural.getUserId()))
+                .toArray(MuralResponseDto[]::new);
+        return murals.length == current.murals.length ? current : new Snapshot(murals, current.complete);
+    }
+
+    private static int insertionPoint(List<MuralResponseDto> murals, MuralResponseDto mural) {
+        int position = Collections.binarySearch(murals, mural, FeedService.FEED_ORDER);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    int size() {
+        return snapshot.murals.length;
+    }
+
+    /**
+     * The murals at one point in time, newest first. Complete when there are
+     * no older GLOBAL murals in the database.
+     */
+    private static final class Snapshot {
+
+        private final MuralResponseDto[] murals;
+        private final boolean complete;
+
+        Snapshot(MuralResponseDto[] murals, boolean complete) {
+            this.murals = murals;
+            this.complete = complete;
+        }
+
+        // Index of the first mural after the cursor, by binary search
+        int indexAfter(FeedCursor after) {
+            MuralResponseDto position = new MuralResponseDto(after.getId(), null, null, null, after.getCreatedAt());
+            int low = 0, high = murals.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (FeedService.FEED_ORDER.compare(murals[middle], position) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
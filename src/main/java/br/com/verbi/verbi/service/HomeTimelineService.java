@@ -0,0 +1,218 @@
+package br.com.verbi.verbi.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.verbi.verbi.dto.FeedCandidate;
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.enums.FriendshipStatus;
+import br.com.verbi.verbi.repository.FriendshipRepository;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.repository.TimelineEntryRepository;
+import br.com.verbi.verbi.repository.TimelineStateRepository;
+import br.com.verbi.verbi.util.FeedCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+
+/**
+ * Materialized home timelines: each user's own murals and their friends',
+ * newest first, in home_timeline.
+ *
+ * A mural is pushed into the timelines when it is created, through the
+ * outbox (MURAL_CREATED), so the post is not slowed down by the number of
+ * friends. Murals of authors at or above the FanoutPolicy threshold are not
+ * pushed; FeedService pulls them at read time. Reading a timeline is a range
+ * scan of one index. Timelines are capped to the newest capacity entries by
+ * the trim job, and users whose timeline was never built are rebuilt from
+ * the mural table.
+ */
+@Service
+public class HomeTimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomeTimelineService.class);
+
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Autowired
+    private TimelineStateRepository timelineStateRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @Autowired
+    private MuralRepository muralRepository;
+
+    @Autowired
+    private FanoutPolicy fanoutPolicy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${verbi.timeline.capacity:800}")
+    private int capacity;
+
+    @Value("${verbi.timeline.rebuild-batch-size:200}")
+    private int rebuildBatchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Pushes a new mural into the timelines of its author and their friends,
+     * unless the author has too many friends.
+     *
+     * @param muralId The created mural; nothing happens if it was deleted since
+     * @return Number of timelines written, 0 if the mural is left to be pulled
+     */
+    @Transactional
+    public int fanOut(UUID muralId) {
+        Optional<UUID> authorId = muralRepository.findAuthorId(muralId);
+        if (authorId.isEmpty()) {
+            return 0;
+        }
+        int threshold = fanoutPolicy.getPushThreshold();
+        if (friendshipRepository.countFriendsUpTo(authorId.get(), threshold) >= threshold) {
+            meterRegistry.counter("verbi.timeline.fanout.skipped").increment();
+            return 0;
+        }
+
+        int rows = timelineEntryRepository.fanOut(muralId);
+        muralRepository.markPushed(muralId);
+        meterRegistry.counter("verbi.timeline.fanout.rows").increment(rows);
+        return rows;
+    }
+
+    /**
+     * Copies the recent murals of two new friends into each other's timeline.
+     *
+     * @param friendshipId The accepted friendship
+     */
+    @Transactional
+    public void connect(UUID friendshipId) {
+        friendshipRepository.findById(friendshipId)
+                .filter(friendship -> friendship.getStatus() == FriendshipStatus.ACCEPTED)
+                .ifPresent(friendship -> {
+                    UUID senderId = friendship.getSender().getId();
+                    UUID receiverId = friendship.getReceiver().getId();
+                    timelineEntryRepository.copyRecent(senderId, receiverId, capacity);
+                    timelineEntryRepository.copyRecent(receiverId, senderId, capacity);
+                });
+    }
+
+    /**
+     * Removes the murals of two former friends from each other's timeline.
+     * Nothing happens if they became friends again in the meantime.
+     *
+     * @param friendshipId The ended friendship
+     */
+    @Transactional
+    public void disconnect(UUID friendshipId) {
+        friendshipRepository.findById(friendshipId)
+                .filter(friendship -> friendship.getStatus() != FriendshipStatus.ACCEPTED)
+                .ifPresent(friendship -> {
+                    UUID senderId = friendship.getSender().getId();
+                    UUID receiverId = friendship.getReceiver().getId();
+                    timelineEntryRepository.deleteAuthorFrom(senderId, receiverId);
+                    timelineEntryRepository.deleteAuthorFrom(receiverId, senderId);
+                });
+    }
+
+    /**
+     * Removes a mural from every timeline. Joins the caller's transaction.
+     */
+    @Transactional
+    public void remove(UUID muralId) {
+        timelineEntryRepository.deleteByMuralId(muralId);
+    }
+
+    /**
+     * Reads the murals pushed into a user's home timeline, newest first,
+     * building the timeline first if needed.
+     *
+     * @param userId The owner of the timeline.
+     * @param after  Position to read after, or null for the newest murals.
+     * @param limit  Maximum number of murals.
+     * @return The murals, in feed order.
+     */
+    public List<MuralResponseDto> read(UUID userId, FeedCursor after, int limit) {
+        ensureBuilt(userId);
+        if (after == null) {
+            return timelineEntryRepository.findPage(userId, limit);
+        }
+        return timelineEntryRepository.findPageAfter(userId, after.getCreatedAt(), after.getId(), limit);
+    }
+
+    /**
+     * Reads the newest murals of a user's home timeline as ranking
+     * candidates, without their bodies, building the timeline first if needed.
+     *
+     * @param userId The owner of the timeline.
+     * @param limit  Maximum number of murals.
+     * @return The candidates, in feed order.
+     */
+    public List<FeedCandidate> readCandidates(UUID userId, int limit) {
+        ensureBuilt(userId);
+        return timelineEntryRepository.findCandidates(userId, limit);
+    }
+
+    /**
+     * Builds the timelines of users that have none, a batch at a time.
+     *
+     * @return Number of timelines built
+     */
+    public long rebuildMissing() {
+        long rebuilt = 0;
+        List<UUID> owners;
+        do {
+            owners = timelineStateRepository.findOwnersWithoutTimeline(rebuildBatchSize);
+            for (UUID ownerId : owners) {
+                rebuild(ownerId);
+            }
+            rebuilt += owners.size();
+        } while (owners.size() == rebuildBatchSize);
+        return rebuilt;
+    }
+
+    /**
+     * Drops timeline entries beyond the capacity of each timeline.
+     *
+     * @return Number of entries deleted
+     */
+    public long trim() {
+        Integer deleted = transactionTemplate.execute(status -> timelineEntryRepository.trim(capacity));
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void ensureBuilt(UUID ownerId) {
+        if (!timelineStateRepository.existsById(ownerId)) {
+            rebuild(ownerId);
+        }
+    }
+
+    private void rebuild(UUID ownerId) {
+        Integer rows = transactionTemplate.execute(status -> {
+            int inserted = timelineEntryRepository.rebuild(ownerId, capacity);
+            timelineStateRepository.markBuilt(ownerId);
+            return inserted;
+        });
+        logger.debug("Built home timeline of {} with {} murals", ownerId, rows);
+    }
+}
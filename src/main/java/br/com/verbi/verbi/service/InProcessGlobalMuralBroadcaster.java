@@ -0,0 +1,20 @@
+package br.com.verbi.verbi.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.verbi.verbi.entity.GlobalMuralChangeMessage;
+
+/**
+ * Broker stand-in for a single node: the change is already in the only
+ * snapshot there is.
+ */
+@Component
+@ConditionalOnProperty(name = "verbi.feed.global-snapshot.broker", havingValue = "in-process")
+public class InProcessGlobalMuralBroadcaster implements GlobalMuralBroadcaster {
+
+    @Override
+    public void publish(GlobalMuralChangeMessage change) {
+        // Nothing to deliver
+    }
+}
@@ -1,7 +1,7 @@
 package br.com.verbi.verbi.service;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,13 +10,16 @@ import org.springframework.stereotype.Service;
 import java.util.UUID;
 
 import br.com.verbi.verbi.dto.MuralDto;
+import br.com.verbi.verbi.dto.MuralResponseDto;
 import br.com.verbi.verbi.entity.Mural;
 import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.enums.MuralVisibility;
+import br.com.verbi.verbi.enums.OutboxEventType;
 import br.com.verbi.verbi.exception.AccessDeniedException;
 import br.com.verbi.verbi.exception.UserNotFoundException;
 import br.com.verbi.verbi.repository.MuralRepository;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,8 +30,18 @@ public class MuralService {
     @Autowired
     private MuralRepository muralRepository; // Repository for mural entity
 
+    @Autowired
+    private OutboxService outboxService; // Fan-out to the home timelines after commit
+
+    @Autowired
+    private HomeTimelineService homeTimelineService; // Materialized home timelines
+
+    @Autowired
+    private GlobalMuralSnapshot globalMuralSnapshot; // Newest GLOBAL murals, in memory
+
     /**
-     * Creates a new mural.
+     * Creates a new mural. It reaches the home timelines of the author's
+     * friends shortly after the commit (see HomeTimelineService).
      * 
      * @param body     The content of the mural.
      * @param visibility The visibility setting of the mural.
@@ -36,6 +49,7 @@ public class MuralService {
      * @return The created mural.
      * @throws UserNotFoundException if the user is null.
      */
+    @Transactional
     public Mural createMural(String body, MuralVisibility visibility, User user) {
         if (user == null) {
             throw new UserNotFoundException("User not found"); // Check if the user is null
@@ -45,8 +59,14 @@ public class MuralService {
         mural.setBody(body);
         mural.setVisibility(visibility);
         mural.setUser(user); // Set the user associated with the mural
+        mural.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS)); // Database precision, for the feed cursor
 
-        return muralRepository.save(mural); // Save and return the created mural
+        Mural savedMural = muralRepository.save(mural);
+        outboxService.record(OutboxEventType.MURAL_CREATED, savedMural.getId());
+        if (visibility == MuralVisibility.GLOBAL) {
+            globalMuralSnapshot.put(toResponse(savedMural)); // Shown in the visible feeds once committed
+        }
+        return savedMural; // Return the created mural
     }
 
     /**
@@ -64,9 +84,9 @@ public class MuralService {
      * 
      * @param name     The name of the user whose murals to find.
      * @param pageable The pagination information.
-     * @return A paginated list of murals.
+     * @return A paginated list of murals, with their author's name.
      */
-    public Page<Mural> findMuralsByUserName(String name, Pageable pageable) {
+    public Page<MuralResponseDto> findMuralsByUserName(String name, Pageable pageable) {
         return muralRepository.findMuralsByUserName(name, pageable); // Return the paginated list of murals
     }
 
@@ -91,7 +111,13 @@ public class MuralService {
 
         mural.setBody(muralDto.getBody()); // Update mural content
         mural.setVisibility(muralDto.getVisibility()); // Update mural visibility
-        return muralRepository.save(mural); // Save and return the updated mural
+        Mural updatedMural = muralRepository.save(mural);
+        if (updatedMural.getVisibility() == MuralVisibility.GLOBAL) {
+            globalMuralSnapshot.put(toResponse(updatedMural)); // New body, or newly GLOBAL
+        } else {
+            globalMuralSnapshot.remove(id); // No longer GLOBAL, if it was
+        }
+        return updatedMural; // Return the updated mural
     }
 
     /**
@@ -102,6 +128,7 @@ public class MuralService {
      * @throws EntityNotFoundException if the mural is not found.
      * @throws AccessDeniedException    if the user does not have permission to delete the mural.
      */
+    @Transactional
     public void deleteMural(UUID id, User user) {
         Mural mural = muralRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Mural Not Found")); // Throw exception if mural not found
@@ -111,24 +138,14 @@ public class MuralService {
             throw new AccessDeniedException("You don't have permission to delete this mural.");
         }
 
+        homeTimelineService.remove(id); // Drop it from the home timelines
         muralRepository.delete(mural); // Delete the mural
+        globalMuralSnapshot.remove(id);
     }
 
-    /**
-     * Lists visible murals based on visibility settings.
-     * 
-     * @param user The user requesting visible murals.
-     * @return A list of visible murals.
-     */
-    public List<Mural> getVisibleMurals(User user) {
-        List<Mural> globalMurals = muralRepository.findByVisibility(MuralVisibility.GLOBAL); // Find global murals
-        List<Mural> friendMurals = muralRepository.findByUserInAndVisibility(user.getFriends(),
-                MuralVisibility.FRIENDS_ONLY); // Find friend-only murals
-
-        List<Mural> allMurals = new ArrayList<>();
-        allMurals.addAll(globalMurals); // Add global murals to the list
-        allMurals.addAll(friendMurals); // Add friend murals to the list
-
-        return allMurals; // Return all visible murals
+    // Loads the author's name if the user is only a reference
+    private static MuralResponseDto toResponse(Mural mural) {
+        return new MuralResponseDto(mural.getId(), mural.getBody(), mural.getVisibility(),
+                mural.getUser().getName(), mural.getCreatedAt(), mural.getUser().getId());
     }
 }
@@ -0,0 +1,155 @@
+package br.com.verbi.verbi.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.verbi.verbi.entity.OutboxEvent;
+import br.com.verbi.verbi.enums.OutboxEventStatus;
+import br.com.verbi.verbi.repository.OutboxEventRepository;
+import br.com.verbi.verbi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Drains outbox_events in batches and carries out each event, e.g. sends
+ * the confirmation email of a new user or pushes a new mural into the home
+ * timelines.
+ *
+ * A batch is claimed in a short transaction: the rows are locked with SKIP
+ * LOCKED and pushed claimTimeout into the future, so other nodes do not take
+ * them. The events are then handled outside any transaction. A handled
+ * event is deleted; a failed one is retried with exponential backoff and
+ * marked FAILED after maxAttempts. If the node dies mid-batch, the claim
+ * expires and another node picks the events up, so handlers must tolerate
+ * running twice.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private HomeTimelineService homeTimelineService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${verbi.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${verbi.outbox.claim-timeout:PT5M}")
+    private Duration claimTimeout;
+
+    @Value("${verbi.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${verbi.outbox.backoff:PT30S}")
+    private Duration backoff;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Handles due events until none is left, a batch at a time.
+     */
+    @Scheduled(fixedDelayString = "${verbi.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claimBatch();
+            for (OutboxEvent event : batch) {
+                handle(event);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.lockNextBatch(now, batchSize);
+            for (OutboxEvent event : events) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setAvailableAt(now.plus(claimTimeout)); // Retried from here if this node dies
+            }
+            return outboxEventRepository.saveAll(events);
+        });
+    }
+
+    private void handle(OutboxEvent event) {
+        try {
+            switch (event.getType()) {
+                case USER_REGISTERED -> sendConfirmationEmail(event);
+                case MURAL_CREATED -> homeTimelineService.fanOut(event.getAggregateId());
+                case FRIENDSHIP_ACCEPTED -> homeTimelineService.connect(event.getAggregateId());
+                case FRIENDSHIP_ENDED -> homeTimelineService.disconnect(event.getAggregateId());
+            }
+        } catch (RuntimeException e) {
+            failed(event, e);
+            return;
+        }
+        outboxEventRepository.delete(event);
+        meterRegistry.counter("verbi.outbox.dispatched", "type", event.getType().name(), "outcome", "success")
+                .increment();
+    }
+
+    private void sendConfirmationEmail(OutboxEvent event) {
+        // Skipped if the account was deleted or confirmed in the meantime
+        userRepository.findById(event.getAggregateId())
+                .filter(user -> user.getEmailConfirmationToken() != null)
+                .ifPresent(emailService::sendConfirmationEmail);
+    }
+
+    private void failed(OutboxEvent event, RuntimeException e) {
+        String outcome;
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(OutboxEventStatus.FAILED);
+            outcome = "failed";
+            logger.error("Outbox event {} ({}) failed {} times, giving up", event.getId(), event.getType(),
+                    event.getAttempts(), e);
+        } else {
+            event.setAvailableAt(LocalDateTime.now().plus(backoffFor(event.getAttempts())));
+            outcome = "retry";
+            logger.warn("Outbox event {} ({}) failed, retrying at {}: {}", event.getId(), event.getType(),
+                    event.getAvailableAt(), e.getMessage());
+        }
+        event.setLastError(truncate(String.valueOf(e.getMessage()), 1000));
+        outboxEventRepository.save(event);
+        meterRegistry.counter("verbi.outbox.dispatched", "type", event.getType().name(), "outcome", outcome)
+                .increment();
+    }
+
+    // backoff, 2 x backoff, 4 x backoff... capped at 2^10
+    private Duration backoffFor(int attempts) {
+        return backoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.verbi.verbi.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import br.com.verbi.verbi.entity.OutboxEvent;
+import br.com.verbi.verbi.enums.OutboxEventType;
+import br.com.verbi.verbi.repository.OutboxEventRepository;
+import jakarta.transaction.Transactional;
+
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Records an event to be handled by OutboxDispatcher. Joins the caller's
+     * transaction, so the event is stored if and only if the change it is
+     * about is committed.
+     *
+     * @param type        Event type
+     * @param aggregateId Id of the entity the event is about
+     * @throws jakarta.transaction.TransactionalException if there is no transaction
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void record(OutboxEventType type, UUID aggregateId) {
+        outboxEventRepository.save(new OutboxEvent(type, aggregateId, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.verbi.verbi.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.verbi.verbi.dto.AuthResponseDto;
+import br.com.verbi.verbi.entity.RefreshToken;
+import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.exception.TokenExpiredException;
+import br.com.verbi.verbi.exception.TokenInvalidException;
+import br.com.verbi.verbi.repository.RefreshTokenRepository;
+import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.TokenFingerprint;
+
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JWTGenerator jwtGenerator;
+
+    @Value("${verbi.refresh-token.ttl:P30D}")
+    private Duration refreshTokenTtl;
+
+    /**
+     * Issues an access token and the first refresh token of a new family,
+     * after the user has authenticated.
+     *
+     * @param user the authenticated user
+     * @return the access and refresh tokens
+     */
+    @Transactional
+    public AuthResponseDto issueTokens(User user) {
+        return new AuthResponseDto(jwtGenerator.generateToken(user.getEmail()),
+                createRefreshToken(user, UUID.randomUUID()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh
+     * token of the same family. Nothing is hashed with bcrypt and the token
+     * is found with a single lookup on its hash.
+     *
+     * Presenting a token that was already rotated means it was copied: the
+     * whole family is revoked, logging out both the legitimate client and
+     * whoever reused it.
+     *
+     * @param rawToken the refresh token sent by the client
+     * @return the new access and refresh tokens
+     * @throws TokenInvalidException if the token is unknown, revoked or reused
+     * @throws TokenExpiredException if the token has expired
+     */
+    @Transactional(noRollbackFor = TokenInvalidException.class)
+    public AuthResponseDto rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new TokenInvalidException("Invalid refresh token"));
+
+        // markRotated only succeeds once, even for concurrent requests with the same token
+        if (current.isRevoked() || refreshTokenRepository.markRotated(current.getId()) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            logger.warn("Refresh token reuse detected, revoked family {}", current.getFamilyId());
+            throw new TokenInvalidException("Refresh token has already been used");
+        }
+
+        if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new TokenExpiredException("Refresh token has expired");
+        }
+
+        User user = current.getUser();
+        return new AuthResponseDto(jwtGenerator.generateToken(user.getEmail()),
+                createRefreshToken(user, current.getFamilyId()));
+    }
+
+    /**
+     * Revokes the family of the given refresh token, so neither it nor any
+     * token rotated from it can be exchanged again. Tokens that are unknown
+     * or belong to another user are ignored.
+     *
+     * @param rawToken the refresh token sent by the client
+     * @param userId   the authenticated user logging out
+     */
+    @Transactional
+    public void revokeFamily(String rawToken, UUID userId) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .filter(token -> token.getUser().getId().equals(userId))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Revokes every refresh token of the user, logging out all of their sessions.
+     *
+     * @param userId UUID of the user
+     */
+    @Transactional
+    public void revokeAll(UUID userId) {
+        refreshTokenRepository.revokeByUserId(userId);
+    }
+
+    private String createRefreshToken(User user, UUID familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUser(user);
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(refreshTokenTtl));
+        refreshTokenRepository.save(refreshToken);
+        return rawToken;
+    }
+
+    // Refresh tokens are 256 random bits, so a plain SHA-256 is enough to store them safely
+    private static byte[] hash(String rawToken) {
+        return TokenFingerprint.of(rawToken).toBytes();
+    }
+}
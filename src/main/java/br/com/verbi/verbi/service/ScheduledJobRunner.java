@@ -0,0 +1,116 @@
+package br.com.verbi.verbi.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import br.com.verbi.verbi.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Runs a scheduled job on exactly one node of the cluster.
+ *
+ * Each run starts after a random delay, so the nodes do not all hit the
+ * database at the same instant, and then tries to take the job's lease in
+ * job_leases. Only the node that gets the lease runs the job; the others
+ * skip this run. The lease is kept for at least lockAtLeastFor, longer than
+ * the jitter, so a node firing late does not run the job a second time.
+ */
+@Service
+public class ScheduledJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobRunner.class);
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${verbi.scheduling.max-jitter:PT30S}")
+    private Duration maxJitter;
+
+    @Value("${verbi.scheduling.lock-at-least-for:PT2M}")
+    private Duration lockAtLeastFor;
+
+    // Identifies this node in job_leases; pid@host when not set
+    @Value("${verbi.scheduling.node-id:}")
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        if (lockAtLeastFor.compareTo(maxJitter) <= 0) {
+            throw new IllegalStateException("verbi.scheduling.lock-at-least-for must be longer than max-jitter");
+        }
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+    }
+
+    /**
+     * Starts the job after a random delay, on the scheduler pool, if this
+     * node gets its lease.
+     *
+     * @param jobName       Name of the job, the key of its lease
+     * @param lockAtMostFor How long the lease is held if the node dies mid-run
+     * @param job           The job; returns the number of rows it processed
+     */
+    public void runExclusively(String jobName, Duration lockAtMostFor, LongSupplier job) {
+        long jitterMillis = maxJitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(maxJitter.toMillis() + 1);
+        taskScheduler.schedule(() -> execute(jobName, lockAtMostFor, job),
+                Instant.now().plusMillis(jitterMillis));
+    }
+
+    void execute(String jobName, Duration lockAtMostFor, LongSupplier job) {
+        boolean acquired;
+        try {
+            acquired = jobLeaseRepository.tryAcquire(jobName, nodeId, seconds(lockAtMostFor)) == 1;
+        } catch (DataAccessException e) {
+            logger.warn("Could not take the lease of job {}, skipping this run: {}", jobName, e.getMessage());
+            acquired = false;
+        }
+        if (!acquired) {
+            meterRegistry.counter("verbi.job.skipped", "job", jobName).increment();
+            logger.debug("Job {} is running on another node, skipping", jobName);
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            long rows = job.getAsLong();
+            meterRegistry.counter("verbi.job.rows", "job", jobName).increment(rows);
+            logger.info("Job {} processed {} rows", jobName, rows);
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            logger.error("Job {} failed", jobName, e);
+        } finally {
+            sample.stop(meterRegistry.timer("verbi.job.duration", "job", jobName, "outcome", outcome));
+            try {
+                jobLeaseRepository.release(jobName, nodeId, seconds(lockAtLeastFor));
+            } catch (DataAccessException e) {
+                logger.warn("Could not release the lease of job {}, it expires on its own: {}",
+                        jobName, e.getMessage());
+            }
+        }
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
@@ -1,36 +1,159 @@
 package br.com.verbi.verbi.service;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import br.com.verbi.verbi.entity.TokenBlacklist;
 import br.com.verbi.verbi.repository.TokenBlacklistRepository;
+import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.RevocationBroadcaster;
+import br.com.verbi.verbi.security.RevocationIndex;
+import br.com.verbi.verbi.security.TokenFingerprint;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class TokenBlacklistService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
     private final TokenBlacklistRepository tokenBlacklistRepository;
 
-    public TokenBlacklistService(TokenBlacklistRepository tokenBlacklistRepository) {
+    private final RevocationIndex revocationIndex;
+
+    private final RevocationBroadcaster revocationBroadcaster;
+
+    private final JWTGenerator jwtGenerator;
+
+    private final int sweepBatchSize;
+
+    public TokenBlacklistService(TokenBlacklistRepository tokenBlacklistRepository,
+            RevocationIndex revocationIndex,
+            RevocationBroadcaster revocationBroadcaster,
+            JWTGenerator jwtGenerator,
+            @Value("${verbi.revocation.sweep-batch-size:1000}") int sweepBatchSize) {
         this.tokenBlacklistRepository = tokenBlacklistRepository;
+        this.revocationIndex = revocationIndex;
+        this.revocationBroadcaster = revocationBroadcaster;
+        this.jwtGenerator = jwtGenerator;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * Loads the tokens that are still blacklisted into the revocation index,
+     * before the application starts serving requests. It runs again
+     * periodically to catch up with revocations whose broadcast this node
+     * missed (broker outage, node disconnected from the exchange).
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${verbi.revocation.resync-interval:PT10M}",
+            initialDelayString = "${verbi.revocation.resync-interval:PT10M}")
+    public void loadRevocationIndex() {
+        backfillFingerprints();
+        revocationIndex.purgeExpired(); // Every node trims its own index; the table sweep runs on one node
+        LocalDateTime now = LocalDateTime.now();
+        Pageable pageable = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+
+        Slice<TokenBlacklist> page;
+        do {
+            page = tokenBlacklistRepository.findByExpirationDateAfter(now, pageable);
+            page.forEach(this::index);
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+
+        logger.info("Loaded {} blacklisted tokens into the revocation index", revocationIndex.size());
+    }
+
+    private void index(TokenBlacklist blacklistedToken) {
+        TokenFingerprint fingerprint;
+        if (blacklistedToken.getFingerprint() != null) {
+            fingerprint = TokenFingerprint.fromBytes(blacklistedToken.getFingerprint());
+        } else if (blacklistedToken.getToken() != null) {
+            fingerprint = TokenFingerprint.of(blacklistedToken.getToken()); // Legacy row not backfilled yet
+        } else {
+            return;
+        }
+        revocationIndex.add(fingerprint, toEpochMilli(blacklistedToken.getExpirationDate()));
     }
 
     /**
-     * Adds a token to the blacklist with a default expiration time.
+     * Writes the fingerprint of rows blacklisted before fingerprints were
+     * introduced, which only hold the full token, and clears the token.
+     * Runs before the index is loaded, so it only finds work once after an
+     * upgrade. A legacy row whose token was blacklisted again since then is
+     * a duplicate and is deleted instead.
+     *
+     * @return the number of legacy rows converted or removed
+     */
+    int backfillFingerprints() {
+        Pageable firstPage = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+
+        int converted = 0;
+        Slice<TokenBlacklist> page;
+        do {
+            // Converted rows leave the result, so the first page is always the next batch
+            page = tokenBlacklistRepository.findByFingerprintIsNullAndTokenIsNotNull(firstPage);
+            for (TokenBlacklist legacy : page) {
+                byte[] fingerprint = TokenFingerprint.of(legacy.getToken()).toBytes();
+                if (tokenBlacklistRepository.existsByFingerprint(fingerprint)) {
+                    tokenBlacklistRepository.delete(legacy);
+                } else {
+                    legacy.setFingerprint(fingerprint);
+                    legacy.setToken(null);
+                    tokenBlacklistRepository.save(legacy);
+                }
+                converted++;
+            }
+        } while (page.hasNext());
+
+        if (converted > 0) {
+            logger.info("Backfilled fingerprints of {} legacy blacklisted tokens", converted);
+        }
+        return converted;
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Adds a token to the blacklist until the token's own expiration.
+     * Tokens that are already invalid or expired are rejected by the filter
+     * chain anyway, so they are not stored.
      * 
      * @param token the token to blacklist
      */
     public void blacklistToken(String token) {
+        Date expiration;
+        try {
+            expiration = jwtGenerator.verify(token).getExpiration();
+        } catch (JwtException e) {
+            logger.debug("Ignoring blacklist request for an invalid or expired token");
+            return;
+        }
+
         TokenBlacklist blacklistedToken = new TokenBlacklist();
-        blacklistedToken.setToken(token);
-        blacklistedToken.setExpirationDate(LocalDateTime.now().plusMinutes(30)); // Default expiration: 30 min
+        blacklistedToken.setFingerprint(TokenFingerprint.of(token).toBytes());
+        blacklistedToken.setExpirationDate(LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()));
         tokenBlacklistRepository.save(blacklistedToken);
+
+        // Applies the revocation here and on every other node
+        revocationBroadcaster.publish(TokenFingerprint.fromBytes(blacklistedToken.getFingerprint()),
+                expiration.getTime());
     }
 
     /**
@@ -40,7 +163,8 @@ public class TokenBlacklistService {
      * @return true if the token is blacklisted and valid, false otherwise
      */
     public boolean isTokenBlacklisted(String token) {
-        Optional<TokenBlacklist> tokenOptional = tokenBlacklistRepository.findByToken(token);
+        Optional<TokenBlacklist> tokenOptional = tokenBlacklistRepository
+                .findByFingerprint(TokenFingerprint.of(token).toBytes());
 
         if (tokenOptional.isPresent()) {
             TokenBlacklist blacklistedToken = tokenOptional.get();
@@ -57,12 +181,25 @@ public class TokenBlacklistService {
 
     /**
      * Cleans up expired tokens from the blacklist to maintain optimal performance.
+     * Rows are removed with bulk DELETE statements of at most sweepBatchSize rows,
+     * each in its own short transaction, so the table is never loaded into memory.
+     * Scheduled once an hour on one node of the cluster (see ScheduledJobs).
+     *
+     * @return the number of rows removed
      */
-    @Scheduled(cron = "0 0 * * * *") // Executes once an hour
-    public void cleanUpExpiredTokens() {
-        List<TokenBlacklist> expiredTokens = tokenBlacklistRepository.findAll().stream()
-                .filter(token -> token.getExpirationDate().isBefore(LocalDateTime.now()))
-                .collect(Collectors.toList());
-        tokenBlacklistRepository.deleteAll(expiredTokens);
+    public int cleanUpExpiredTokens() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        int removed = 0;
+        int deleted;
+        do {
+            deleted = tokenBlacklistRepository.deleteExpiredBatch(now, sweepBatchSize);
+            removed += deleted;
+        } while (deleted == sweepBatchSize);
+
+        logger.info("Removed {} expired blacklisted tokens in {} ms", removed,
+                (System.nanoTime() - start) / 1_000_000);
+        return removed;
     }
 }
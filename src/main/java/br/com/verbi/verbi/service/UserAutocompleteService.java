@@ -0,0 +1,161 @@
+package br.com.verbi.verbi.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.com.verbi.verbi.dto.UserSummaryDto;
+import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.util.PrefixIndex;
+
+/**
+ * Typeahead over user names, served from memory.
+ *
+ * The index is loaded once at startup and then kept current by
+ * {@link UserService} (create, rename, delete) and {@link FriendshipService}
+ * (friend count, used to rank the suggestions). Those adjustments only reach
+ * the node that made them and miss friendships removed in bulk, so the
+ * friend counts are also recomputed from the database periodically.
+ */
+@Service
+public class UserAutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserAutocompleteService.class);
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    // Users with their number of accepted friendships, in either direction
+    private static final String LOAD_QUERY = "SELECT u.id, u.name, u.picture, COALESCE(f.friends, 0) AS friends "
+            + "FROM users u LEFT JOIN ("
+            + "  SELECT user_id, COUNT(*) AS friends FROM ("
+            + "    SELECT sender_id AS user_id FROM friendship WHERE status = 'ACCEPTED'"
+            + "    UNION ALL"
+            + "    SELECT receiver_id AS user_id FROM friendship WHERE status = 'ACCEPTED'"
+            + "  ) accepted GROUP BY user_id"
+            + ") f ON f.user_id = u.id "
+            + "WHERE u.deletion_date IS NULL";
+
+    // Accepted friendships per user, in either direction; users without any are reset to 0
+    private static final String POPULARITY_QUERY = "SELECT user_id, COUNT(*) AS friends FROM ("
+            + "  SELECT sender_id AS user_id FROM friendship WHERE status = 'ACCEPTED'"
+            + "  UNION ALL"
+            + "  SELECT receiver_id AS user_id FROM friendship WHERE status = 'ACCEPTED'"
+            + ") accepted GROUP BY user_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final PrefixIndex<UserSummaryDto> index;
+
+    // Users deleted while the initial load is running, so the load does not bring them back
+    private final Set<UUID> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    public UserAutocompleteService(@Value("${verbi.autocomplete.top-k:" + DEFAULT_LIMIT + "}") int topK) {
+        this.index = new PrefixIndex<>(topK);
+    }
+
+    /**
+     * Loads every user into the index. Users changed by the hooks below while
+     * this runs keep their newer state.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        loading = true;
+        try {
+            jdbcTemplate.query(LOAD_QUERY, rs -> {
+                UUID id = rs.getObject("id", UUID.class);
+                String name = rs.getString("name");
+                if (!removedWhileLoading.contains(id)) {
+                    index.putIfAbsent(id, name, rs.getLong("friends"),
+                            new UserSummaryDto(id, name, rs.getString("picture")));
+                    if (removedWhileLoading.contains(id)) {
+                        index.remove(id); // Deleted between the check and the insert
+                    }
+                }
+            });
+            logger.info("Loaded {} users into the autocomplete index in {} ms",
+                    index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            logger.warn("Could not load the autocomplete index, suggestions will be incomplete: {}",
+                    e.getMessage());
+        } finally {
+            loading = false;
+            removedWhileLoading.clear();
+        }
+    }
+
+    /**
+     * Recomputes every user's friend count, correcting increments and
+     * decrements made on other nodes or never made at all (account purge,
+     * deleted users).
+     */
+    @Scheduled(fixedDelayString = "${verbi.autocomplete.popularity-refresh:PT15M}",
+            initialDelayString = "${verbi.autocomplete.popularity-refresh:PT15M}")
+    public void refreshPopularity() {
+        long start = System.nanoTime();
+        try {
+            Map<UUID, Long> friends = new HashMap<>();
+            jdbcTemplate.query(POPULARITY_QUERY,
+                    rs -> { friends.put(rs.getObject("user_id", UUID.class), rs.getLong("friends")); });
+            for (UUID userId : index.ids()) {
+                index.setScore(userId, friends.getOrDefault(userId, 0L));
+            }
+            logger.debug("Refreshed autocomplete popularity of {} users in {} ms",
+                    friends.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            logger.warn("Could not refresh autocomplete popularity: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Suggests users whose name, or one of its words, starts with the prefix,
+     * most popular first.
+     *
+     * @param prefix Typed prefix (accents and case are ignored)
+     * @param limit  Maximum number of suggestions
+     * @return Matching users
+     */
+    public List<UserSummaryDto> complete(String prefix, int limit) {
+        return index.search(prefix, limit).stream()
+                .map(user -> new UserSummaryDto(user.getId(), user.getName(), user.getPicture()))
+                .toList();
+    }
+
+    /**
+     * Adds a new user, or updates the name and picture of an existing one.
+     */
+    public void put(User user) {
+        index.put(user.getId(), user.getName(),
+                new UserSummaryDto(user.getId(), user.getName(), user.getPicture()));
+    }
+
+    public void remove(UUID userId) {
+        if (loading) {
+            removedWhileLoading.add(userId);
+        }
+        index.remove(userId);
+    }
+
+    /**
+     * Changes the popularity of a user, e.g. when a friendship is accepted or removed.
+     */
+    public void adjustPopularity(UUID userId, int delta) {
+        index.adjustScore(userId, delta);
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.verbi.verbi.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.com.verbi.verbi.dto.UserProfileDto;
+import br.com.verbi.verbi.exception.InvalidDataException;
+import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.util.BoundedTtlCache;
+
+/**
+ * Read-through cache of user profiles, looked up by id or by email.
+ *
+ * UserService invalidates an entry whenever it changes the profile; the TTL
+ * only bounds how stale an entry can get when the change was made on
+ * another node. Every invalidation bumps a generation counter, and a load
+ * that started before an invalidation does not keep its result in the cache,
+ * so a slow read can not put the old profile back for a whole TTL.
+ */
+@Service
+public class UserProfileService {
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final BoundedTtlCache<UUID, UserProfileDto> profiles;
+    private final BoundedTtlCache<String, UUID> idsByEmail;
+    private final Duration ttl;
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserProfileService(@Value("${verbi.profile-cache.max-size:10000}") int maxSize,
+            @Value("${verbi.profile-cache.ttl:PT2M}") Duration ttl) {
+        this.profiles = new BoundedTtlCache<>(maxSize);
+        this.idsByEmail = new BoundedTtlCache<>(maxSize);
+        this.ttl = ttl;
+    }
+
+    public Optional<UserProfileDto> findById(UUID userId) {
+        UserProfileDto profile = profiles.get(userId);
+        if (profile != null) {
+            return Optional.of(profile);
+        }
+        long loadedAt = generation.get();
+        return userRepository.findById(userId)
+                .map(UserProfileDto::fromEntity)
+                .map(loaded -> cache(loaded, loadedAt));
+    }
+
+    public Optional<UserProfileDto> findByEmail(String email) {
+        UUID userId = idsByEmail.get(email);
+        if (userId != null) {
+            UserProfileDto profile = profiles.get(userId);
+            if (profile != null && email.equals(profile.getEmail())) {
+                return Optional.of(profile);
+            }
+            idsByEmail.invalidate(email); // Email changed or profile evicted
+        }
+        long loadedAt = generation.get();
+        return userRepository.findByEmail(email)
+                .map(UserProfileDto::fromEntity)
+                .map(loaded -> cache(loaded, loadedAt));
+    }
+
+    /**
+     * Looks up several profiles at once: cached ones are served from memory,
+     * the others are loaded with a single IN query and cached.
+     *
+     * @param userIds Ids to look up; duplicates are ignored
+     * @return Profiles found, in the order of the first occurrence of each id
+     * @throws InvalidDataException if there are more than MAX_BATCH_SIZE distinct ids
+     */
+    public List<UserProfileDto> findAllById(Collection<UUID> userIds) {
+        if (userIds == null) {
+            return List.of();
+        }
+        Set<UUID> ids = new LinkedHashSet<>(userIds);
+        ids.remove(null);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new InvalidDataException("At most " + MAX_BATCH_SIZE + " users can be requested at once");
+        }
+
+        Map<UUID, UserProfileDto> found = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID userId : ids) {
+            UserProfileDto profile = profiles.get(userId);
+            if (profile != null) {
+                found.put(userId, profile);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long loadedAt = generation.get();
+            for (UserProfileDto profile : userRepository.findProfilesByIdIn(missing)) {
+                found.put(profile.getId(), cache(profile, loadedAt));
+            }
+        }
+
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public void invalidate(UUID userId) {
+        generation.incrementAndGet(); // Loads already in flight may have read the old profile
+        UserProfileDto profile = profiles.get(userId);
+        profiles.invalidate(userId);
+        if (profile != null) {
+            idsByEmail.invalidate(profile.getEmail());
+        }
+    }
+
+    private UserProfileDto cache(UserProfileDto profile, long loadedAt) {
+        if (generation.get() != loadedAt) {
+            return profile; // Invalidated while loading: serve it, but do not cache it
+        }
+        profiles.put(profile.getId(), profile, ttl);
+        if (profile.getEmail() != null) {
+            idsByEmail.put(profile.getEmail(), profile.getId(), ttl);
+        }
+        if (generation.get() != loadedAt) {
+            // An invalidation slipped in between the check and the put
+            profiles.invalidate(profile.getId());
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.verbi.verbi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import br.com.verbi.verbi.dto.CursorPageDto;
+import br.com.verbi.verbi.dto.UserSummaryDto;
+import br.com.verbi.verbi.exception.InvalidDataException;
+import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.repository.UserRepository.SearchRow;
+import br.com.verbi.verbi.util.NameNormalizer;
+
+@Service
+public class UserSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 50;
+
+    // Queries shorter than a trigram are matched by prefix instead of substring
+    private static final int TRIGRAM_LENGTH = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Searches users by name, ranked by trigram distance to the query. Accents
+     * and case are ignored. Pages are chained with an opaque cursor holding the
+     * (distance, id) of the last result, so a page never re-reads the ones before.
+     *
+     * @param name   the text typed by the user
+     * @param cursor cursor returned with the previous page, or null for the first page
+     * @param limit  maximum number of results
+     * @return the page of results
+     */
+    public CursorPageDto<UserSummaryDto> searchByName(String name, String cursor, int limit) {
+        String query = NameNormalizer.normalize(name);
+        if (query == null || query.isEmpty()) {
+            return new CursorPageDto<>(List.of(), null);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        String pattern = escapeLike(query);
+        pattern = query.length() < TRIGRAM_LENGTH ? pattern + "%" : "%" + pattern + "%";
+
+        // One extra row tells whether there is a next page
+        List<SearchRow> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = userRepository.searchByName(query, pattern, pageSize + 1);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            rows = userRepository.searchByNameAfter(query, pattern, after.distance, after.id, pageSize + 1);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<SearchRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        List<UserSummaryDto> items = page.stream()
+                .map(row -> new UserSummaryDto(row.getId(), row.getName(), row.getPicture()))
+                .toList();
+        String nextCursor = null;
+        if (hasNext) {
+            SearchRow last = page.get(page.size() - 1);
+            nextCursor = new Cursor(last.getDistance(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(items, nextCursor);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Position after a result; the distance is kept bit-exact so the keyset comparison is stable
+    private static final class Cursor {
+
+        private final float distance;
+        private final UUID id;
+
+        private Cursor(float distance, UUID id) {
+            this.distance = distance;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = Integer.toHexString(Float.floatToIntBits(distance)) + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                float distance = Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, separator), 16));
+                return new Cursor(distance, UUID.fromString(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new InvalidDataException("Invalid search cursor");
+            }
+        }
+    }
+}
@@ -1,32 +1,39 @@
 package br.com.verbi.verbi.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import br.com.verbi.verbi.dto.UserDto;
 import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.enums.OutboxEventType;
 import br.com.verbi.verbi.exception.EmailAlreadyExistsException;
-import br.com.verbi.verbi.exception.EmailServiceUnavailableException;
 import br.com.verbi.verbi.exception.TokenExpiredException;
 import br.com.verbi.verbi.exception.TokenInvalidException;
 import br.com.verbi.verbi.exception.UserNotFoundException;
+import br.com.verbi.verbi.repository.RefreshTokenRepository;
 import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.security.UserPrincipal;
+import br.com.verbi.verbi.security.UserPrincipalCache;
 
 import java.time.LocalDateTime;
 
 import java.io.IOException;
 
-import java.util.Optional;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository; // Repository for User data access
 
@@ -40,10 +47,38 @@ public class UserService {
     private FileService fileService; // Service for file handling
 
     @Autowired
-    private EmailService emailService; // Service for email handling
+    private UserPrincipalCache userPrincipalCache; // Cache of authenticated principals
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository; // Refresh tokens issued to the user
+
+    @Autowired
+    private UserAutocompleteService userAutocompleteService; // In-memory index of user names
+
+    @Autowired
+    private AccountPurgeService accountPurgeService; // Bulk deletion of marked accounts
+
+    @Autowired
+    private UserProfileService userProfileService; // Cache of public profiles
+
+    @Autowired
+    private OutboxService outboxService; // Side effects carried out after commit
+
+    @Autowired
+    private GlobalMuralSnapshot globalMuralSnapshot; // In-memory copy of the newest global murals
+
+    @Autowired
+    private TransactionTemplate transactionTemplate; // Short transactions around the writes only
 
     /**
      * Registers a new user with the provided email and picture.
+     * The confirmation email is not sent here: a USER_REGISTERED event is
+     * stored with the user and OutboxDispatcher sends it, so registration
+     * does not wait on, or fail with, the mail server.
+     *
+     * The password is hashed and the picture stored before the transaction
+     * starts, so no database connection is held while waiting on the hashing
+     * pool or the disk. If the transaction fails the picture is deleted.
      * 
      * @param userDto Data Transfer Object containing user data
      * @param picture MultipartFile representing the user's profile picture
@@ -76,10 +111,31 @@ public class UserService {
             }
         }
 
-        sendConfirmationEmail(user); // Send confirmation email
+        // Save the user and the confirmation email event in the same transaction
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                User saved = userRepository.save(user);
+                outboxService.record(OutboxEventType.USER_REGISTERED, saved.getId());
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            deletePicture(user.getPicture()); // No user references it
+            throw e;
+        }
+        userAutocompleteService.put(savedUser); // Committed, visible to autocomplete
+        return savedUser;
+    }
 
-        // Save the user in the repository and return the User entity
-        return userRepository.save(user);
+    private void deletePicture(String picture) {
+        if (picture == null) {
+            return;
+        }
+        try {
+            fileService.deleteFile(picture);
+        } catch (IOException e) {
+            logger.warn("Failed to delete orphan picture {}: {}", picture, e.getMessage());
+        }
     }
 
     /**
@@ -89,24 +145,9 @@ public class UserService {
      * @return Saved User entity
      */
     public User save(User user) {
-        return userRepository.save(user);
-    }
-
-    /**
-     * Sends a confirmation email to the user.
-     * 
-     * @param user User entity to send the email to
-     * @return Status message regarding email sending
-     */
-    private String sendConfirmationEmail(User user) {
-        try {
-            emailService.sendConfirmationEmail(user); // Send the email
-            return "User registered successfully and confirmation email sent.";
-        } catch (EmailServiceUnavailableException e) {
-            return "User registered successfully, but the email service is down. The confirmation email will be sent as soon as possible.";
-        } catch (Exception e) {
-            return "User registered successfully, but an error occurred while sending the confirmation email.";
-        }
+        User savedUser = userRepository.save(user);
+        userAutocompleteService.put(savedUser);
+        return savedUser;
     }
 
     /**
@@ -118,10 +159,16 @@ public class UserService {
      */
     public boolean authenticateUser(String email, String password) {
         User user = userRepository.findByEmail(email).orElse(null); // Retrieve user by email
-        if (user != null) {
-            return passwordEncoder.matches(password, user.getPassword()); // Check password
+        if (user == null || !passwordEncoder.matches(password, user.getPassword())) { // Check password
+            return false;
         }
-        return false;
+
+        // Rehash with the current bcrypt cost while the raw password is at hand
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(password));
+            userRepository.save(user);
+        }
+        return true;
     }
 
     /**
@@ -149,6 +196,17 @@ public class UserService {
         return userRepository.findById(userId);
     }
 
+    /**
+     * Returns a reference to a User without loading it from the database,
+     * for associating the user with other entities.
+     * 
+     * @param userId User's UUID
+     * @return Lazy reference to the User
+     */
+    public User getReference(UUID userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
     /**
      * Finds a User by their email.
      * 
@@ -160,13 +218,23 @@ public class UserService {
     }
 
     /**
-     * Finds Users whose names contain the specified string.
+     * Finds the authenticated principal for an email, served from the
+     * principal cache when possible.
      * 
-     * @param name Name substring to search for
-     * @return List of Users whose names contain the specified substring
+     * @param email User's email
+     * @return Optional containing the principal, if the user exists
      */
-    public List<User> findUserByName(String name) {
-        return userRepository.findByNameContaining(name);
+    public Optional<UserPrincipal> findPrincipalByEmail(String email) {
+        UserPrincipal principal = userPrincipalCache.get(email);
+        if (principal == null) {
+            Optional<User> user = userRepository.findByEmail(email);
+            if (user.isEmpty()) {
+                return Optional.empty();
+            }
+            principal = UserPrincipal.fromEntity(user.get());
+            userPrincipalCache.put(principal);
+        }
+        return Optional.of(principal);
     }
 
     /**
@@ -177,7 +245,7 @@ public class UserService {
      * @param newPassword New password to set
      */
     public void updatePassword(UUID userId, String oldPassword, String newPassword) {
-        authorizationService.verifyUserAuthorization(userId, userRepository); // Verify authorization
+        authorizationService.verifyUserAuthorization(userId); // Verify authorization
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
@@ -188,6 +256,7 @@ public class UserService {
 
         user.setPassword(passwordEncoder.encode(newPassword)); // Encrypt new password
         userRepository.save(user); // Save changes
+        refreshTokenRepository.revokeByUserId(userId); // Sessions opened with the old password end here
     }
 
     /**
@@ -201,7 +270,10 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not Found"));
 
         user.setPicture(fileName); // Set new profile picture file name
+        user.setProfileVersion(user.getProfileVersion() + 1); // New ETag for the profile
         userRepository.save(user); // Save changes
+        userProfileService.invalidate(userId);
+        userAutocompleteService.put(user);
     }
 
     /**
@@ -255,6 +327,7 @@ public class UserService {
         user.setResetPasswordExpires(null); // Clear expiration date
 
         userRepository.save(user); // Save changes
+        refreshTokenRepository.revokeByUserId(user.getId()); // Sessions opened with the old password end here
     }
 
     /**
@@ -265,20 +338,27 @@ public class UserService {
      * @return Updated User entity
      */
     public User updateUser(UUID userId, UserDto userDto) {
-        authorizationService.verifyUserAuthorization(userId, userRepository); // Verify authorization
+        authorizationService.verifyUserAuthorization(userId); // Verify authorization
 
         return userRepository.findById(userId).map(user -> {
+            userPrincipalCache.invalidate(user.getEmail()); // Email may change, drop the old entry
+
             // Update user data
             user.setName(userDto.getName());
             user.setEmail(userDto.getEmail());
             user.setDescription(userDto.getDescription());
+            user.setProfileVersion(user.getProfileVersion() + 1); // New ETag for the profile
 
             // If a new password is provided, update the password
             if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
                 user.setPassword(passwordEncoder.encode(userDto.getPassword())); // Encrypt new password
             }
 
-            return userRepository.save(user); // Save changes
+            User savedUser = userRepository.save(user); // Save changes
+            userPrincipalCache.invalidate(savedUser.getEmail());
+            userProfileService.invalidate(userId);
+            userAutocompleteService.put(savedUser);
+            return savedUser;
         }).orElseThrow(() -> new RuntimeException("User not found with id " + userId)); // Handle user not found
     }
 
@@ -288,7 +368,7 @@ public class UserService {
      * @param userId UUID of the user to suspend
      */
     public void suspendUser(UUID userId) {
-        authorizationService.verifyUserAuthorization(userId, userRepository); // Verify authorization
+        authorizationService.verifyUserAuthorization(userId); // Verify authorization
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
@@ -296,6 +376,7 @@ public class UserService {
         user.setSuspended(true); // Set user as suspended
         user.setSuspensionDate(LocalDateTime.now()); // Set suspension date
         userRepository.save(user); // Save changes
+        userPrincipalCache.invalidate(user.getEmail());
     }
 
     /**
@@ -310,6 +391,7 @@ public class UserService {
         user.setSuspended(false); // Set user as not suspended
         user.setSuspensionDate(null); // Clear suspension date
         userRepository.save(user); // Save changes
+        userPrincipalCache.invalidate(user.getEmail());
     }
 
     /**
@@ -331,7 +413,7 @@ public class UserService {
      * @param userId UUID of the user to mark for deletion
      */
     public void markForDeletion(UUID userId) {
-        authorizationService.verifyUserAuthorization(userId, userRepository); // Verify authorization
+        authorizationService.verifyUserAuthorization(userId); // Verify authorization
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not Found"));
@@ -342,18 +424,15 @@ public class UserService {
 
     /**
      * Deletes accounts marked for deletion that are older than 30 days.
-     * This method is scheduled to run daily at midnight.
+     * Scheduled daily at midnight on one node of the cluster (see ScheduledJobs).
+     *
+     * @return Number of accounts deleted
      */
-    @Scheduled(cron = "0 0 0 * * ?") // Executes daily at midnight
-    public void deleteMarkedAccounts() {
+    public long deleteMarkedAccounts() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime cutoffDate = now.minusDays(30); // Exclude after 30 days
 
-        List<User> usersToDelete = userRepository.findByDeleteMarkedDateBeforeAndDeletionDateIsNull(cutoffDate);
-
-        for (User user : usersToDelete) {
-            deleteUser(user.getId()); // Delete all accounts
-        }
+        return accountPurgeService.purgeMarkedAccounts(cutoffDate); // Chunked bulk deletes, see AccountPurgeService
     }
 
     /**
@@ -365,7 +444,12 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not Found"));
 
+        refreshTokenRepository.deleteByUserId(userId); // Refresh tokens can not outlive the account
         userRepository.delete(user); // Delete user
+        userPrincipalCache.invalidate(user.getEmail());
+        userProfileService.invalidate(userId);
+        userAutocompleteService.remove(userId);
+        globalMuralSnapshot.removeAuthors(List.of(userId)); // Their murals leave the global feed
     }
 
 }
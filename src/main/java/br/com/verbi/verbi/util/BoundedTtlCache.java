@@ -0,0 +1,155 @@
+package br.com.verbi.verbi.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Small concurrent cache where every entry carries its own expiry instant and
+ * the number of entries is capped.
+ *
+ * Expired entries are dropped lazily on read and in bulk whenever the cache
+ * grows past its capacity. If the cache is still full after that sweep, an
+ * arbitrary tenth of the entries is discarded so the sweep cost is amortized.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    public BoundedTtlCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    public BoundedTtlCache(int maxSize, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached value, or null if it is absent or expired.
+     *
+     * @param key the cache key
+     * @return the cached value or null
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Caches a value for the given amount of time.
+     *
+     * @param key   the cache key
+     * @param value the value to cache
+     * @param ttl   how long the entry stays valid
+     */
+    public void put(K key, V value, Duration ttl) {
+        putUntil(key, value, clock.getAsLong() + ttl.toMillis());
+    }
+
+    /**
+     * Caches a value until the given epoch millisecond. Values that are
+     * already expired are not stored.
+     *
+     * @param key       the cache key
+     * @param value     the value to cache
+     * @param expiresAt epoch millisecond after which the entry is stale
+     */
+    public void putUntil(K key, V value, long expiresAt) {
+        if (expiresAt <= clock.getAsLong()) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry whose value matches the predicate. This walks the
+     * whole cache, so it is meant for rare write paths only.
+     *
+     * @param predicate condition on the cached value
+     */
+    public void invalidateIf(Predicate<V> predicate) {
+        entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private void evict() {
+        // Only one writer sweeps at a time, the others just carry on
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = clock.getAsLong();
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+
+            int excess = entries.size() - maxSize;
+            if (excess > 0) {
+                int toRemove = excess + maxSize / 10;
+                Iterator<K> iterator = entries.keySet().iterator();
+                while (toRemove-- > 0 && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.verbi.verbi.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import br.com.verbi.verbi.exception.InvalidDataException;
+
+/**
+ * Opaque position in a mural feed: the (createdAt, id) of the last mural of
+ * a page. Feeds are ordered by both, newest first, and the next page starts
+ * strictly after the cursor.
+ */
+public final class FeedCursor {
+
+    private final LocalDateTime createdAt;
+    private final UUID id;
+
+    public FeedCursor(LocalDateTime createdAt, UUID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidDataException if the cursor was not produced by {@link #encode()}
+     */
+    public static FeedCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidDataException("Invalid feed cursor");
+        }
+    }
+}
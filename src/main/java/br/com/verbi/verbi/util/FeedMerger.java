@@ -0,0 +1,65 @@
+package br.com.verbi.verbi.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Merges feed sources that are each already sorted in feed order, such as a
+ * home timeline page and the murals pulled at read time. An item found in
+ * several sources is kept once.
+ */
+public final class FeedMerger {
+
+    private FeedMerger() {
+    }
+
+    /**
+     * @param sources Lists sorted by order
+     * @param order   Feed order shared by every source
+     * @param key     Identity of an item, to drop duplicates
+     * @param limit   Maximum number of items returned
+     * @return The first limit distinct items of all sources, in order
+     */
+    public static <T, K> List<T> merge(List<List<T>> sources, Comparator<? super T> order,
+            Function<? super T, K> key, int limit) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> order.compare(a.item, b.item));
+        for (List<T> source : sources) {
+            Iterator<T> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(limit);
+        Set<K> seen = new HashSet<>();
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            if (seen.add(key.apply(head.item))) {
+                merged.add(head.item);
+            }
+            if (head.rest.hasNext()) {
+                head.item = head.rest.next();
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Head<T> {
+
+        private T item;
+        private final Iterator<T> rest;
+
+        private Head(T item, Iterator<T> rest) {
+            this.item = item;
+            this.rest = rest;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.verbi.verbi.util;
+
+/**
+ * Scores feed candidates and selects the best k, over primitive arrays
+ * supplied by the caller, so ranking a few thousand candidates allocates
+ * nothing.
+ *
+ * score = recencyWeight * 2^(-age / recencyHalfLife)
+ *       + affinityWeight * ln(1 + affinity)
+ *       + activityWeight * ln(1 + activity)
+ *
+ * The top k are kept in a bounded min-heap of candidate indices, O(n log k)
+ * instead of sorting all n scores. Ties go to the lower index, which is the
+ * newer candidate when the input is in feed order.
+ */
+public final class FeedRanker {
+
+    private static final double LN_2 = Math.log(2);
+
+    private final double recencyWeight;
+    private final double affinityWeight;
+    private final double activityWeight;
+    private final double recencyDecayPerMilli;
+
+    public FeedRanker(double recencyWeight, double affinityWeight, double activityWeight,
+            long recencyHalfLifeMillis) {
+        if (recencyHalfLifeMillis <= 0) {
+            throw new IllegalArgumentException("recencyHalfLifeMillis must be positive");
+        }
+        this.recencyWeight = recencyWeight;
+        this.affinityWeight = affinityWeight;
+        this.activityWeight = activityWeight;
+        this.recencyDecayPerMilli = LN_2 / recencyHalfLifeMillis;
+    }
+
+    /**
+     * Scores the first n candidates into scores.
+     *
+     * @param nowMillis       Current time, in the same epoch as createdAtMillis
+     * @param createdAtMillis Creation time of each candidate
+     * @param affinity        Viewer's affinity with each candidate's author
+     * @param activity        Recent comment activity of each candidate
+     * @param n               Number of candidates
+     * @param scores          Output, at least n long
+     */
+    public void score(long nowMillis, long[] createdAtMillis, float[] affinity, float[] activity, int n,
+            float[] scores) {
+        for (int i = 0; i < n; i++) {
+            long age = Math.max(0, nowMillis - createdAtMillis[i]);
+            scores[i] = (float) (recencyWeight * Math.exp(-recencyDecayPerMilli * age)
+                    + affinityWeight * Math.log1p(affinity[i])
+                    + activityWeight * Math.log1p(activity[i]));
+        }
+    }
+
+    /**
+     * Selects the k best scored candidates.
+     *
+     * @param scores Scores of the candidates
+     * @param n      Number of candidates
+     * @param k      Number to select
+     * @param top    Output, at least min(n, k) long: candidate indices, best first
+     * @return Number of indices written to top
+     */
+    public static int selectTop(float[] scores, int n, int k, int[] top) {
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size < k) {
+                top[size] = i;
+                siftUp(scores, top, size++);
+            } else if (k > 0 && better(scores, i, top[0])) {
+                top[0] = i; // Replaces the worst of the current top k
+                siftDown(scores, top, 0, size);
+            }
+        }
+
+        // Heap sort in place: the worst goes last
+        for (int end = size - 1; end > 0; end--) {
+            int worst = top[0];
+            top[0] = top[end];
+            top[end] = worst;
+            siftDown(scores, top, 0, end);
+        }
+        return size;
+    }
+
+    private static boolean better(float[] scores, int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    // Min-heap on "better": the root is the worst kept candidate
+    private static void siftUp(float[] scores, int[] heap, int position) {
+        int item = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!better(scores, heap[parent], item)) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = item;
+    }
+
+    private static void siftDown(float[] scores, int[] heap, int position, int size) {
+        int item = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && better(scores, heap[child], heap[child + 1])) {
+                child++; // The worse of the two children
+            }
+            if (!better(scores, item, heap[child])) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = item;
+    }
+}
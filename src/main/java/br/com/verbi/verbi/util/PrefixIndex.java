@@ -0,0 +1,424 @@
+package br.com.verbi.verbi.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index over names, answering "best k names starting with
+ * this prefix" without touching the database.
+ *
+ * Names are normalized with {@link NameNormalizer} and indexed by the whole
+ * name and by every later word, so "silva" finds "Ana Silva". Each trie node
+ * keeps the k best entries of its subtree, ordered by score, so a lookup is a
+ * walk of at most {@link #MAX_DEPTH} nodes plus a copy of that array. Below
+ * that depth entries are kept in a bucket on the last node and filtered on
+ * lookup, which bounds the trie size for long names.
+ *
+ * Reads share a read lock; updates take the write lock and only touch the
+ * nodes on the paths of the updated name.
+ */
+public class PrefixIndex<V> {
+
+    public static final int MAX_DEPTH = 12;
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    // Best score first, then alphabetical, then by id so the order is total
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong((Entry e) -> e.score).reversed()
+            .thenComparing(e -> e.key)
+            .thenComparing(e -> e.id);
+
+    private final int topK;
+    private final Node root = new Node();
+    private final Map<UUID, Entry> byId = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param topK number of entries kept per node, the largest lookup limit
+     */
+    public PrefixIndex(int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        this.topK = topK;
+    }
+
+    /**
+     * Adds or replaces an entry, keeping the current score of an existing one.
+     */
+    public void put(UUID id, String name, V value) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = byId.get(id);
+            putInternal(id, name, existing == null ? 0 : existing.score, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces an entry with the given score.
+     */
+    public void put(UUID id, String name, long score, V value) {
+        lock.writeLock().lock();
+        try {
+            putInternal(id, name, score, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an entry only if there is none for the id yet.
+     *
+     * @return true if the entry was added
+     */
+    public boolean putIfAbsent(UUID id, String name, long score, V value) {
+        lock.writeLock().lock();
+        try {
+            if (byId.containsKey(id)) {
+                return false;
+            }
+            putInternal(id, name, score, value);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds delta to the score of an entry, if present.
+     */
+    @SuppressWarnings("unchecked")
+    public void adjustScore(UUID id, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = byId.get(id);
+            if (existing != null) {
+                putInternal(id, existing.name, Math.max(0, existing.score + delta), (V) existing.value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the score of an entry, if present. Entries already at that score
+     * are left alone, so a periodic refresh only rewrites what changed.
+     */
+    @SuppressWarnings("unchecked")
+    public void setScore(UUID id, long score) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = byId.get(id);
+            if (existing != null && existing.score != score) {
+                putInternal(id, existing.name, score, (V) existing.value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Entry existing = byId.remove(id);
+            if (existing != null) {
+                unlink(existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the best entries whose name, or one of its words, starts with
+     * the prefix.
+     *
+     * @param prefix prefix to search for, normalized like the names
+     * @param limit  maximum number of results, capped at topK
+     * @return values of the matching entries, best first
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> search(String prefix, int limit) {
+        String key = NameNormalizer.normalize(prefix);
+        int max = Math.min(limit, topK);
+        if (key == null || key.isEmpty() || max <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int depth = 0; depth < Math.min(key.length(), MAX_DEPTH); depth++) {
+                node = node.child(key.charAt(depth));
+                if (node == null) {
+                    return List.of();
+                }
+            }
+
+            List<V> result = new ArrayList<>(max);
+            if (key.length() <= MAX_DEPTH) {
+                for (int i = 0; i < node.top.length && i < max; i++) {
+                    result.add((V) node.top[i].value);
+                }
+                return result;
+            }
+
+            // Longer than the trie: filter the bucket of the deepest node
+            List<Entry> matches = new ArrayList<>();
+            Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Posting posting : node.postings) {
+                if (posting.key.startsWith(key) && seen.add(posting.entry)) {
+                    matches.add(posting.entry);
+                }
+            }
+            matches.sort(ORDER);
+            for (int i = 0; i < matches.size() && i < max; i++) {
+                result.add((V) matches.get(i).value);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Snapshot of the ids in the index.
+     */
+    public List<UUID> ids() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byId.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putInternal(UUID id, String name, long score, V value) {
+        Entry existing = byId.remove(id);
+        if (existing != null) {
+            unlink(existing);
+        }
+        String key = NameNormalizer.normalize(name);
+        if (key == null || key.isEmpty()) {
+            return; // Nothing to match against
+        }
+        Entry entry = new Entry(id, name, key, score, value);
+        byId.put(id, entry);
+        for (String word : words(key)) {
+            link(word, entry);
+        }
+    }
+
+    private void link(String word, Entry entry) {
+        Node node = root;
+        for (int depth = 0; depth < Math.min(word.length(), MAX_DEPTH); depth++) {
+            node = node.childOrCreate(word.charAt(depth));
+            offer(node, entry);
+        }
+        node.addPosting(new Posting(word, entry));
+    }
+
+    private void unlink(Entry entry) {
+        for (String word : words(entry.key)) {
+            int length = Math.min(word.length(), MAX_DEPTH);
+            Node[] path = new Node[length + 1];
+            path[0] = root;
+            for (int depth = 0; depth < length; depth++) {
+                path[depth + 1] = path[depth].child(word.charAt(depth));
+            }
+            path[length].removePostings(entry);
+
+            // Bottom-up, so each node is rebuilt from already rebuilt children
+            for (int depth = length; depth > 0; depth--) {
+                Node node = path[depth];
+                if (node.isEmpty()) {
+                    path[depth - 1].removeChild(word.charAt(depth - 1));
+                } else if (node.contains(entry)) {
+                    rebuild(node);
+                }
+            }
+        }
+    }
+
+    private void offer(Node node, Entry entry) {
+        Entry[] top = node.top;
+        if (node.contains(entry)) {
+            return; // Already here through another word of the same name
+        }
+        if (top.length == topK && ORDER.compare(entry, top[topK - 1]) >= 0) {
+            return;
+        }
+        int position = Arrays.binarySearch(top, entry, ORDER);
+        position = position < 0 ? -position - 1 : position;
+        int length = Math.min(top.length + 1, topK);
+        Entry[] updated = new Entry[length];
+        System.arraycopy(top, 0, updated, 0, position);
+        updated[position] = entry;
+        System.arraycopy(top, position, updated, position + 1, length - position - 1);
+        node.top = updated;
+    }
+
+    /**
+     * Recomputes the top entries of a node from its own postings and the top
+     * entries of its children, which together cover the whole subtree.
+     */
+    private void rebuild(Node node) {
+        List<Entry> candidates = new ArrayList<>();
+        for (Posting posting : node.postings) {
+            candidates.add(posting.entry);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(ORDER);
+
+        List<Entry> top = new ArrayList<>(topK);
+        for (Entry candidate : candidates) {
+            if (top.size() == topK) {
+                break;
+            }
+            if (top.isEmpty() || top.get(top.size() - 1) != candidate) {
+                top.add(candidate); // Duplicates are adjacent after sorting
+            }
+        }
+        node.top = top.toArray(NO_ENTRIES);
+    }
+
+    private static Set<String> words(String key) {
+        Set<String> words = new LinkedHashSet<>();
+        words.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            words.add(key.substring(i + 1));
+        }
+        return words;
+    }
+
+    private static final class Entry {
+
+        private final UUID id;
+        private final String name;
+        private final String key;
+        private final long score;
+        private final Object value;
+
+        private Entry(UUID id, String name, String key, long score, Object value) {
+            this.id = id;
+            this.name = name;
+            this.key = key;
+            this.score = score;
+            this.value = value;
+        }
+    }
+
+    private static final class Posting {
+
+        private final String key;
+        private final Entry entry;
+
+        private Posting(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    private static final class Node {
+
+        // Children sorted by label, searched with a binary search
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+
+        // Best entries of the subtree, best first
+        private Entry[] top = NO_ENTRIES;
+
+        // Words ending here, or on the deepest level every word passing through
+        private List<Posting> postings = List.of();
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int position = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newLabels[position] = label;
+            newChildren[position] = new Node();
+            System.arraycopy(labels, position, newLabels, position + 1, labels.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[position];
+        }
+
+        private void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        private void addPosting(Posting posting) {
+            if (postings.isEmpty()) {
+                postings = new ArrayList<>(1);
+            }
+            postings.add(posting);
+        }
+
+        private void removePostings(Entry entry) {
+            if (!postings.isEmpty()) {
+                postings.removeIf(posting -> posting.entry == entry);
+            }
+        }
+
+        private boolean contains(Entry entry) {
+            for (Entry candidate : top) {
+                if (candidate == entry) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isEmpty() {
+            return children.length == 0 && postings.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.verbi.verbi.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket per key.
+ *
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival
+ * time of the next request (the GCRA formulation of a token bucket), updated
+ * with a compare-and-set, so concurrent requests never block each other.
+ *
+ * A key whose arrival time is in the past has a full bucket and carries no
+ * state worth keeping; such idle keys are swept when the number of keys grows
+ * past its cap, at most once per second so the sweep cost stays amortized.
+ */
+public class TokenBucketLimiter {
+
+    private static final long EVICTION_SPACING = Duration.ofSeconds(1).toNanos();
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile long nextEviction;
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final int maxKeys;
+    private final LongSupplier clock;
+
+    /**
+     * @param capacity number of requests allowed in a burst
+     * @param period   time needed to refill a full bucket
+     * @param maxKeys  number of keys above which idle keys are swept
+     */
+    public TokenBucketLimiter(int capacity, Duration period, int maxKeys) {
+        this(capacity, period, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketLimiter(int capacity, Duration period, int maxKeys, LongSupplier clock) {
+        if (capacity <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("capacity and period must be positive");
+        }
+        this.emissionInterval = period.toNanos() / capacity;
+        this.burstTolerance = emissionInterval * (capacity - 1);
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.nextEviction = clock.getAsLong();
+    }
+
+    /**
+     * Takes one token from the key's bucket.
+     *
+     * @param key the bucket key
+     * @return 0 if the request is allowed, otherwise the nanoseconds to wait
+     *         until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            if (buckets.size() > maxKeys) {
+                evictIdle(now);
+            }
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            long wait = start - now - burstTolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, start + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(String)}, e.g. when
+     * another limit rejected the same request.
+     *
+     * @param key the bucket key
+     */
+    public void release(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-emissionInterval); // An arrival time in the past is just a full bucket
+        }
+    }
+
+    private void evictIdle(long now) {
+        if (now - nextEviction < 0 || !evicting.compareAndSet(false, true)) {
+            return; // Swept recently, or another thread is already sweeping
+        }
+        try {
+            buckets.entrySet().removeIf(entry -> entry.getValue().get() < now);
+            nextEviction = now + EVICTION_SPACING;
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
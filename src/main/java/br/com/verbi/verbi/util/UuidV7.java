@@ -0,0 +1,59 @@
+package br.com.verbi.verbi.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates version 7 UUIDs (RFC 9562): the first 48 bits are the Unix time
+ * in milliseconds, so ids sort by creation time and new rows land at the
+ * end of the primary key index instead of at random pages.
+ *
+ * The 12 bits after the version count ids created in the same millisecond,
+ * so ids from this process are strictly increasing; the last 62 bits are
+ * random.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_SEQUENCE = 0xFFF;
+
+    private static long lastMillis;
+    private static int sequence;
+
+    private UuidV7() {
+    }
+
+    public static UUID generate() {
+        long millis;
+        int seq;
+        synchronized (UuidV7.class) {
+            millis = Math.max(System.currentTimeMillis(), lastMillis); // Never goes back with the clock
+            if (millis == lastMillis) {
+                if (sequence == MAX_SEQUENCE) {
+                    millis++; // Sequence exhausted: borrow the next millisecond
+                    sequence = 0;
+                } else {
+                    sequence++;
+                }
+            } else {
+                sequence = 0;
+            }
+            lastMillis = millis;
+            seq = sequence;
+        }
+
+        long mostSigBits = (millis << 16) | 0x7000L | seq;
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * @return Creation time of a version 7 UUID, in Unix milliseconds
+     */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -1,36 +1,84 @@
 package br.com.verbi.verbi.websocket;
 
+import java.util.Collections;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
 
+import br.com.verbi.verbi.exception.InvalidJwtTokenException;
+import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.RevocationChecker;
+import br.com.verbi.verbi.security.TokenFingerprint;
+import br.com.verbi.verbi.security.UserPrincipal;
+import br.com.verbi.verbi.service.UserService;
+import io.jsonwebtoken.JwtException;
 
+/**
+ * Autentica a sessão STOMP uma única vez, no frame CONNECT.
+ *
+ * O principal resolvido fica associado à sessão WebSocket e é reaproveitado
+ * pelos frames SEND e SUBSCRIBE seguintes, sem validar o token de novo.
+ */
+@Component
 public class MyChannelInterceptor implements ChannelInterceptor {
 
+    @Autowired
+    private JWTGenerator jwtGenerator;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RevocationChecker revocationChecker;
+
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
-        MessageHeaderAccessor headerAccessor = MessageHeaderAccessor.getAccessor(message, MessageHeaderAccessor.class);
-
-        if (headerAccessor != null) {
-            Object authTokenObject = headerAccessor.getHeader("Authorization");
-            System.out.println("Authorization header: " + authTokenObject); // Log do cabeçalho
-
-            if (authTokenObject instanceof String) {
-                String authToken = (String) authTokenObject;
-                // Lógica de validação do token
-                if (!isValidToken(authToken)) {
-                    throw new SecurityException("Invalid authentication token");
-                }
-            } else {
-                throw new SecurityException("Authorization header is missing or not a valid string");
-            }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message; // Heartbeats e mensagens internas
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if ((command == StompCommand.SEND || command == StompCommand.SUBSCRIBE)
+                && accessor.getUser() == null) {
+            // A sessão não passou pelo CONNECT autenticado
+            throw new InvalidJwtTokenException("WebSocket session is not authenticated");
         }
         return message; // Retorna a mensagem se a verificação passar
     }
 
-    private boolean isValidToken(String token) {
-        // Lógica para validar o token (ex: JWT)
-        return token != null && !token.isEmpty();
+    private UsernamePasswordAuthenticationToken authenticate(String header) {
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new InvalidJwtTokenException("Authorization header is missing or not a Bearer token");
+        }
+
+        String token = header.substring(7);
+        TokenFingerprint fingerprint = TokenFingerprint.of(token);
+
+        String email;
+        try {
+            email = jwtGenerator.verify(token, fingerprint).getSubject();
+        } catch (JwtException e) {
+            throw new InvalidJwtTokenException("Invalid authentication token");
+        }
+        if (revocationChecker.isRevoked(fingerprint)) {
+            throw new InvalidJwtTokenException("Token has been revoked");
+        }
+
+        Optional<UserPrincipal> principal = userService.findPrincipalByEmail(email);
+        if (principal.isEmpty()) {
+            throw new InvalidJwtTokenException("User not found");
+        }
+        return new UsernamePasswordAuthenticationToken(principal.get(), null, Collections.emptyList());
     }
 }
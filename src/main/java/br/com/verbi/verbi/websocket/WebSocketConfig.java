@@ -1,5 +1,6 @@
 package br.com.verbi.verbi.websocket;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
@@ -11,6 +12,9 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private MyChannelInterceptor myChannelInterceptor;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOrigins("http://localhost:8080").withSockJS();
@@ -22,11 +26,8 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker("/topic");
     }
 
-    /*
-     * @Override
-     * public void configureClientInboundChannel(ChannelRegistration registration) {
-     * registration.interceptors(new MyChannelInterceptor()); // Certifique-se de
-     * que o interceptor está sendo registrado
-     * }
-     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(myChannelInterceptor); // Autentica a sessão no CONNECT
+    }
 }
@@ -1,7 +1,6 @@
 package br.com.verbi.verbi.controller;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -15,9 +14,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -25,6 +24,8 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -32,7 +33,8 @@ import br.com.verbi.verbi.entity.Friendship;
 import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.enums.FriendshipStatus;
 import br.com.verbi.verbi.exceptionhandler.GlobalExceptionHandler;
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.CurrentUserArgumentResolver;
+import br.com.verbi.verbi.security.UserPrincipal;
 import br.com.verbi.verbi.service.FriendshipService;
 import br.com.verbi.verbi.service.UserService;
 
@@ -45,9 +47,6 @@ public class FriendshipControllerTest {
     @Mock
     private FriendshipService friendshipService;
 
-    @Mock
-    private JWTGenerator jwtGenerator;
-
     @Mock
     private UserService userService;
 
@@ -64,6 +63,7 @@ public class FriendshipControllerTest {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders.standaloneSetup(friendshipController)
                 .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new CurrentUserArgumentResolver())
                 .build();
 
         // Simulação de um usuário remetente
@@ -71,6 +71,10 @@ public class FriendshipControllerTest {
         sender.setId(UUID.randomUUID());
         sender.setEmail("sender@example.com");
 
+        // Principal autenticado, como o JwtFilter deixaria no contexto
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(UserPrincipal.fromEntity(sender), null, List.of()));
+
         // Simulação de uma amizade
         friendship = new Friendship();
         friendship.setId(UUID.randomUUID());
@@ -82,15 +86,16 @@ public class FriendshipControllerTest {
         friendshipId = UUID.randomUUID();
     }
 
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Test
     public void testSendFriendRequest_Success() throws Exception {
-        String token = "Bearer validToken";
-        when(jwtGenerator.getUsername(anyString())).thenReturn("sender@example.com");
-        when(userService.findUserByEmail(anyString())).thenReturn(Optional.of(sender));
         when(friendshipService.sendFriendRequest(any(UUID.class), any(UUID.class))).thenReturn(friendship);
 
-        mockMvc.perform(post("/api/friendship/send/{receiverId}", receiverId)
-                .header("Authorization", token))
+        mockMvc.perform(post("/api/friendship/send/{receiverId}", receiverId))
                 .andExpect(status().isCreated())
                 .andExpect(content().string("Friend request sent successfully"));
 
@@ -123,17 +128,14 @@ public class FriendshipControllerTest {
 
     @Test
     public void testGetFriends_Success() throws Exception {
-        String token = "Bearer validToken";
-        when(jwtGenerator.getUsername(anyString())).thenReturn("sender@example.com");
-        when(userService.findUserByEmail(anyString())).thenReturn(Optional.of(sender));
+        when(userService.getReference(sender.getId())).thenReturn(sender);
 
         // Simulação de uma lista de amigos
         List<Friendship> friends = new ArrayList<>();
         friends.add(friendship);
         when(friendshipService.getFriends(any(User.class))).thenReturn(friends);
 
-        mockMvc.perform(get("/api/friendship/friends")
-                .header("Authorization", token))
+        mockMvc.perform(get("/api/friendship/friends"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].status").value(FriendshipStatus.PENDING.toString()));
 
@@ -6,9 +6,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +23,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -30,7 +32,8 @@ import br.com.verbi.verbi.dto.MuralDto;
 import br.com.verbi.verbi.entity.Mural;
 import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.enums.MuralVisibility;
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.CurrentUserArgumentResolver;
+import br.com.verbi.verbi.security.UserPrincipal;
 import br.com.verbi.verbi.service.MuralService;
 import br.com.verbi.verbi.service.UserService;
 
@@ -49,9 +52,6 @@ public class MuralControllerTest {
     @Mock
     private UserService userService;
 
-    @Mock
-    private JWTGenerator jwtGenerator;
-
     private User user;
     private Mural mural;
 
@@ -59,7 +59,8 @@ public class MuralControllerTest {
     public void setUp() {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders.standaloneSetup(muralController)
-                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver(),
+                        new CurrentUserArgumentResolver())
                 .build();
 
         user = new User();
@@ -72,6 +73,16 @@ public class MuralControllerTest {
         mural.setBody("This is a test mural");
         mural.setUser(user);
         mural.setVisibility(MuralVisibility.GLOBAL); // Define a visibilidade do mural
+
+        // Principal autenticado, como o JwtFilter deixaria no contexto
+        UserPrincipal principal = UserPrincipal.fromEntity(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -80,15 +91,11 @@ public class MuralControllerTest {
         muralDto.setBody("This is a test mural");
         muralDto.setVisibility(MuralVisibility.GLOBAL); // Defina a visibilidade
 
-        String token = "Bearer mockedToken";
-
-        when(jwtGenerator.getUsername(anyString())).thenReturn(user.getEmail());
-        when(userService.findUserByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userService.getReference(user.getId())).thenReturn(user);
         when(muralService.createMural(muralDto.getBody(), muralDto.getVisibility(), user)).thenReturn(mural);
 
         mockMvc.perform(post("/api/mural/write")
                 .contentType(MediaType.APPLICATION_JSON)
-                .header("Authorization", token)
                 .content("{\"body\": \"This is a test mural\", \"visibility\": \"GLOBAL\"}"))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.body").value("This is a test mural"))
@@ -104,10 +111,7 @@ public class MuralControllerTest {
         muralDto.setBody("Updated mural body");
         muralDto.setVisibility(MuralVisibility.FRIENDS_ONLY); // Defina a nova visibilidade
 
-        String token = "Bearer mockedToken";
-
-        when(jwtGenerator.getUsername(anyString())).thenReturn(user.getEmail());
-        when(userService.findUserByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userService.getReference(user.getId())).thenReturn(user);
         when(muralService.updateMural(eq(muralId), any(MuralDto.class), eq(user))).thenAnswer(invocation -> {
             MuralDto dto = invocation.getArgument(1);
             mural.setBody(dto.getBody());
@@ -117,7 +121,6 @@ public class MuralControllerTest {
 
         mockMvc.perform(put("/api/mural/update/{id}", muralId)
                 .contentType(MediaType.APPLICATION_JSON)
-                .header("Authorization", token)
                 .content("{\"body\": \"Updated mural body\", \"visibility\": \"FRIENDS_ONLY\"}")) // Inclui visibilidade
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.body").value("Updated mural body"))
@@ -133,13 +136,9 @@ public class MuralControllerTest {
     @Test
     void testDeleteMural_Success() throws Exception {
         UUID muralId = mural.getId();
-        String token = "Bearer mockedToken";
-
-        when(jwtGenerator.getUsername(anyString())).thenReturn(user.getEmail());
-        when(userService.findUserByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userService.getReference(user.getId())).thenReturn(user);
 
-        mockMvc.perform(delete("/api/mural/delete/{id}", muralId)
-                .header("Authorization", token))
+        mockMvc.perform(delete("/api/mural/delete/{id}", muralId))
                 .andExpect(status().isNoContent());
 
         verify(muralService, times(1)).deleteMural(muralId, user);
@@ -12,11 +12,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,23 +29,37 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.multipart.MultipartFile;
 
+import br.com.verbi.verbi.dto.AuthResponseDto;
 import br.com.verbi.verbi.dto.LoginDto;
 import br.com.verbi.verbi.dto.UserDto;
+import br.com.verbi.verbi.dto.UserProfileDto;
+import br.com.verbi.verbi.entity.RefreshToken;
 import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.exception.TokenExpiredException;
+import br.com.verbi.verbi.exception.TokenInvalidException;
 import br.com.verbi.verbi.exception.UserNotFoundException;
+import br.com.verbi.verbi.repository.RefreshTokenRepository;
 import br.com.verbi.verbi.repository.UserRepository;
-import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.CurrentUserArgumentResolver;
+import br.com.verbi.verbi.security.UserPrincipal;
 import br.com.verbi.verbi.service.EmailService;
+import br.com.verbi.verbi.service.RefreshTokenService;
 import br.com.verbi.verbi.service.TokenBlacklistService;
+import br.com.verbi.verbi.service.UserAutocompleteService;
+import br.com.verbi.verbi.service.UserProfileService;
+import br.com.verbi.verbi.service.UserSearchService;
 import br.com.verbi.verbi.service.UserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,7 +81,16 @@ public class UserControllerTest {
     private MultipartFile picture;
 
     @Mock
-    private JWTGenerator jwtGenerator;
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private UserSearchService userSearchService;
+
+    @Mock
+    private UserAutocompleteService userAutocompleteService;
+
+    @Mock
+    private UserProfileService userProfileService;
 
     @Mock
     private EmailService emailService;
@@ -75,10 +101,26 @@ public class UserControllerTest {
     @Mock
     private TokenBlacklistService tokenBlacklistService;
 
+    private User loggedUser;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setCustomArgumentResolvers(new CurrentUserArgumentResolver())
+                .build();
+
+        // Principal autenticado, como o JwtFilter deixaria no contexto
+        loggedUser = new User();
+        loggedUser.setId(UUID.randomUUID());
+        loggedUser.setEmail("logged@example.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(UserPrincipal.fromEntity(loggedUser), null, List.of()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -110,15 +152,59 @@ public class UserControllerTest {
         LoginDto loginDto = new LoginDto("test@example.com", "password123");
         String token = "mockedToken";
 
-        when(userService.findUserByEmail(loginDto.getEmail())).thenReturn(Optional.of(new User()));
+        User user = new User();
+        when(userService.findUserByEmail(loginDto.getEmail())).thenReturn(Optional.of(user));
         when(userService.authenticateUser(loginDto.getEmail(), loginDto.getPassword())).thenReturn(true);
-        when(jwtGenerator.generateToken(loginDto.getEmail())).thenReturn(token);
+        when(refreshTokenService.issueTokens(user)).thenReturn(new AuthResponseDto(token, "mockedRefreshToken"));
 
         mockMvc.perform(post("/api/user/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"email\": \"test@example.com\", \"password\": \"password123\"}"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.token").value("Bearer " + token));
+                .andExpect(jsonPath("$.token").value("Bearer " + token))
+                .andExpect(jsonPath("$.refreshToken").value("mockedRefreshToken"));
+    }
+
+    @Test
+    public void testRefreshToken_Success() throws Exception {
+        when(refreshTokenService.rotate("oldRefreshToken"))
+                .thenReturn(new AuthResponseDto("newToken", "newRefreshToken"));
+
+        mockMvc.perform(post("/api/user/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"oldRefreshToken\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("Bearer newToken"))
+                .andExpect(jsonPath("$.refreshToken").value("newRefreshToken"));
+    }
+
+    @Test
+    public void testRefreshToken_Missing_BadRequest() throws Exception {
+        // Corpo sem refresh token não chega ao serviço
+        mockMvc.perform(post("/api/user/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Refresh token is required"));
+
+        mockMvc.perform(post("/api/user/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"  \"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(refreshTokenService, never()).rotate(any());
+    }
+
+    @Test
+    public void testRefreshToken_Reused() throws Exception {
+        when(refreshTokenService.rotate("rotatedRefreshToken"))
+                .thenThrow(new TokenInvalidException("Refresh token has already been used"));
+
+        mockMvc.perform(post("/api/user/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"rotatedRefreshToken\"}"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().string("Refresh token has already been used"));
     }
 
     @Test
@@ -145,6 +231,54 @@ public class UserControllerTest {
                 .andExpect(content().string("Logout Successfully"));
 
         verify(tokenBlacklistService, times(1)).blacklistToken("mockedToken");
+        // Sem refresh token no corpo, todas as sessões do usuário são encerradas
+        verify(refreshTokenService, times(1)).revokeAll(loggedUser.getId());
+    }
+
+    @Test
+    public void testLogout_WithRefreshToken_RevokesOnlyItsFamily() throws Exception {
+        mockMvc.perform(post("/api/user/logout")
+                .header("Authorization", "Bearer mockedToken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"sessionRefreshToken\"}"))
+                .andExpect(status().isOk());
+
+        verify(refreshTokenService, times(1)).revokeFamily("sessionRefreshToken", loggedUser.getId());
+        verify(refreshTokenService, never()).revokeAll(any());
+    }
+
+    @Test
+    public void testRefreshToken_AfterLogout_Unauthorized() throws Exception {
+        // Serviço real sobre um repositório simulado que guarda o estado do token
+        RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+        RefreshTokenService realRefreshTokenService = new RefreshTokenService();
+        ReflectionTestUtils.setField(realRefreshTokenService, "refreshTokenRepository", refreshTokenRepository);
+        ReflectionTestUtils.setField(userController, "refreshTokenService", realRefreshTokenService);
+
+        RefreshToken stored = new RefreshToken();
+        stored.setId(UUID.randomUUID());
+        stored.setFamilyId(UUID.randomUUID());
+        stored.setUser(loggedUser);
+        stored.setExpiresAt(LocalDateTime.now().plusDays(30));
+
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revokeFamily(stored.getFamilyId())).thenAnswer(invocation -> {
+            stored.setRevoked(true);
+            return 1;
+        });
+
+        mockMvc.perform(post("/api/user/logout")
+                .header("Authorization", "Bearer mockedToken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"sessionRefreshToken\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/user/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"sessionRefreshToken\"}"))
+                .andExpect(status().isUnauthorized());
+
+        verify(refreshTokenRepository, never()).markRotated(any());
     }
 
     @Test
@@ -154,18 +288,53 @@ public class UserControllerTest {
         user.setId(userId);
         user.setEmail("test@example.com");
 
-        when(userService.findUserById(userId)).thenReturn(Optional.of(user));
+        when(userProfileService.findById(userId)).thenReturn(Optional.of(UserProfileDto.fromEntity(user)));
 
         mockMvc.perform(get("/api/user/" + userId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.email").value("test@example.com"));
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + userId + "-0\""))
+                .andExpect(jsonPath("$.email").value("test@example.com"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    public void testGetUserById_NotModified() throws Exception {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setProfileVersion(3);
+
+        when(userProfileService.findById(userId)).thenReturn(Optional.of(UserProfileDto.fromEntity(user)));
+
+        // ETag igual ao da versão atual: 304 sem corpo
+        mockMvc.perform(get("/api/user/" + userId).header(HttpHeaders.IF_NONE_MATCH, "\"" + userId + "-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testGetUsersByIds_ReturnsSummaries() throws Exception {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setName("Ana");
+        user.setEmail("ana@test.com");
+
+        when(userProfileService.findAllById(List.of(user.getId(), user.getId())))
+                .thenReturn(List.of(UserProfileDto.fromEntity(user)));
+
+        mockMvc.perform(post("/api/user/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [\"" + user.getId() + "\", \"" + user.getId() + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Ana"))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
     }
 
     @Test
     public void testGetUserById_NotFound() throws Exception {
         UUID userId = UUID.randomUUID();
 
-        when(userService.findUserById(userId)).thenReturn(Optional.empty());
+        when(userProfileService.findById(userId)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/user/" + userId))
                 .andExpect(status().isNotFound());
@@ -0,0 +1,154 @@
+package br.com.verbi.verbi.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.entity.Friendship;
+import br.com.verbi.verbi.entity.Mural;
+import br.com.verbi.verbi.entity.TimelineEntry;
+import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.enums.FriendshipStatus;
+import br.com.verbi.verbi.enums.MuralVisibility;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true" })
+public class MuralRepositoryTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MuralRepository muralRepository;
+
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+
+    private Statistics statistics;
+    private User author;
+    private User friend;
+    private final LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @BeforeEach
+    public void setUp() {
+        author = user("Ana");
+        friend = user("Bruno");
+        Friendship friendship = new Friendship();
+        friendship.setSender(author);
+        friendship.setReceiver(friend);
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        entityManager.persist(friendship);
+
+        // Mais murais do que cabem numa página, então a contagem também roda
+        for (int i = 0; i < 15; i++) {
+            Mural mural = new Mural();
+            mural.setBody("mural " + i);
+            mural.setVisibility(i % 3 == 0 ? MuralVisibility.FRIENDS_ONLY : MuralVisibility.GLOBAL);
+            mural.setUser(author);
+            mural.setCreatedAt(now.minusMinutes(i));
+            entityManager.persist(mural);
+
+            TimelineEntry entry = new TimelineEntry();
+            entry.setOwnerId(friend.getId());
+            entry.setMuralId(mural.getId());
+            entry.setCreatedAt(mural.getCreatedAt());
+            entityManager.persist(entry);
+        }
+        entityManager.flush();
+        entityManager.clear(); // Nothing cached: every user must come from the queries
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private Mural mural(User user, MuralVisibility visibility) {
+        Mural mural = new Mural();
+        mural.setBody(user.getName());
+        mural.setVisibility(visibility);
+        mural.setUser(user);
+        mural.setCreatedAt(now.plusMinutes(1));
+        return entityManager.persist(mural);
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.toLowerCase() + "@test.com");
+        return entityManager.persist(user);
+    }
+
+    @Test
+    public void testFindMuralsByUserName_PageCostsOneQueryPlusCount() {
+        Page<MuralResponseDto> page = muralRepository.findMuralsByUserName("Ana",
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertEquals(PAGE_SIZE, page.getNumberOfElements());
+        assertEquals(15, page.getTotalElements());
+        page.forEach(mural -> assertEquals("Ana", mural.getUserName()));
+        // Antes: 1 consulta dos murais + 1 por autor + a contagem
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFeedQueries_OneStatementPerSource() {
+        List<MuralResponseDto> global = muralRepository.findGlobal(PAGE_SIZE);
+        List<MuralResponseDto> pushed = timelineEntryRepository.findPage(friend.getId(), PAGE_SIZE);
+
+        assertEquals(PAGE_SIZE, global.size());
+        assertEquals(PAGE_SIZE, pushed.size());
+        assertEquals("Ana", pushed.get(0).getUserName());
+        assertEquals(author.getId(), pushed.get(0).getUserId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindGlobalAfter_ContinuesFromTheCursor() {
+        List<MuralResponseDto> first = muralRepository.findGlobal(5);
+        MuralResponseDto last = first.get(first.size() - 1);
+
+        List<MuralResponseDto> next = muralRepository.findGlobalAfter(last.getCreatedAt(), last.getId(), 5);
+
+        assertEquals(List.of("mural 1", "mural 2", "mural 4", "mural 5", "mural 7"),
+                first.stream().map(MuralResponseDto::getBody).toList());
+        assertEquals(List.of("mural 8", "mural 10", "mural 11", "mural 13", "mural 14"),
+                next.stream().map(MuralResponseDto::getBody).toList());
+    }
+
+    @Test
+    public void testDeleteAuthorFrom_FormerFriendsMuralsLeaveTheTimeline() {
+        User other = user("Carla");
+        Mural kept = mural(other, MuralVisibility.FRIENDS_ONLY);
+        TimelineEntry entry = new TimelineEntry();
+        entry.setOwnerId(friend.getId());
+        entry.setMuralId(kept.getId());
+        entry.setCreatedAt(kept.getCreatedAt());
+        entityManager.persist(entry);
+        entityManager.flush();
+
+        // Fim da amizade Ana-Bruno: nada da Ana, nem os murais só para amigos, fica no /home do Bruno
+        assertEquals(15, timelineEntryRepository.deleteAuthorFrom(friend.getId(), author.getId()));
+        entityManager.clear();
+
+        List<MuralResponseDto> pushed = timelineEntryRepository.findPage(friend.getId(), 50);
+        assertEquals(List.of("Carla"), pushed.stream().map(MuralResponseDto::getUserName).toList());
+    }
+}
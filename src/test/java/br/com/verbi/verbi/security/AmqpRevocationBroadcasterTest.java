@@ -0,0 +1,65 @@
+package br.com.verbi.verbi.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.verbi.verbi.config.RabbitMQConfig;
+import br.com.verbi.verbi.entity.TokenRevocationMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class AmqpRevocationBroadcasterTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private AmqpRevocationBroadcaster sender;
+    private AmqpRevocationBroadcaster receiver;
+    private RevocationIndex receiverIndex;
+
+    @BeforeEach
+    public void setUp() {
+        sender = node(new RevocationIndex(1000, 0.01, new SimpleMeterRegistry()));
+        receiverIndex = new RevocationIndex(1000, 0.01, new SimpleMeterRegistry());
+        receiver = node(receiverIndex);
+    }
+
+    private AmqpRevocationBroadcaster node(RevocationIndex revocationIndex) {
+        AmqpRevocationBroadcaster broadcaster = new AmqpRevocationBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(broadcaster, "revocationIndex", revocationIndex);
+        return broadcaster;
+    }
+
+    @Test
+    public void testRevocation_ReachesAnotherNodeThroughTheConverter() {
+        TokenFingerprint fingerprint = TokenFingerprint.of("header.payload.signature");
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        sender.publish(fingerprint, expiresAt);
+
+        ArgumentCaptor<Message> sent = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(RabbitMQConfig.TOKEN_REVOCATION_EXCHANGE), eq(""), sent.capture());
+
+        // O que vai pela rede: JSON, lido de volta pelo tipo do cabeçalho, sem serialização Java
+        Message message = sent.getValue();
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, message.getMessageProperties().getContentType());
+        receiver.onRevocation(message);
+
+        assertEquals(RevocationIndex.Lookup.REVOKED, receiverIndex.lookup(fingerprint));
+        assertEquals(expiresAt,
+                ((TokenRevocationMessage) AmqpRevocationBroadcaster.CONVERTER.fromMessage(message)).getExpiresAt());
+    }
+}
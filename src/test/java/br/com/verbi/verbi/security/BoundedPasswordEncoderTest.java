@@ -0,0 +1,58 @@
+package br.com.verbi.verbi.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import br.com.verbi.verbi.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    private BoundedPasswordEncoder newEncoder(int cost, Duration timeout) {
+        encoder = new BoundedPasswordEncoder(cost, 1, 1, timeout, new SimpleMeterRegistry());
+        return encoder;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    public void testEncodeAndMatches() {
+        newEncoder(4, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("password");
+
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    public void testUpgradeEncoding_OnlyWhenCostIsLower() {
+        newEncoder(5, Duration.ofSeconds(5));
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+        // Hash mais forte nunca é rebaixado
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password")));
+    }
+
+    @Test
+    public void testSlowHash_FailsFastInsteadOfBlocking() {
+        newEncoder(12, Duration.ofMillis(1));
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("password"));
+    }
+}
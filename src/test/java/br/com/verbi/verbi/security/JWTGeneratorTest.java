@@ -0,0 +1,72 @@
+package br.com.verbi.verbi.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+public class JWTGeneratorTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("a-test-secret-that-is-long-enough-for-hs256".getBytes());
+
+    private JWTGenerator jwtGenerator;
+
+    @BeforeEach
+    public void setUp() {
+        jwtGenerator = newGenerator(SECRET, 60_000);
+    }
+
+    private JWTGenerator newGenerator(String secret, long expiration) {
+        JWTGenerator generator = new JWTGenerator();
+        ReflectionTestUtils.setField(generator, "jwtSecret", secret);
+        ReflectionTestUtils.setField(generator, "jwtExpirationDate", expiration);
+        ReflectionTestUtils.setField(generator, "claimsCacheMaxSize", 100);
+        generator.init();
+        return generator;
+    }
+
+    @Test
+    public void testVerify_ReturnsSubject() {
+        String token = jwtGenerator.generateToken("test@example.com");
+
+        assertEquals("test@example.com", jwtGenerator.verify(token).getSubject());
+        assertEquals("test@example.com", jwtGenerator.getUsername(token));
+    }
+
+    @Test
+    public void testVerify_CachesVerifiedClaims() {
+        String token = jwtGenerator.generateToken("test@example.com");
+
+        Claims first = jwtGenerator.verify(token);
+        Claims second = jwtGenerator.verify(token);
+
+        // The second call must be served from the cache, without parsing again
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testVerify_RejectsTokenSignedWithAnotherKey() {
+        String otherSecret = Base64.getEncoder()
+                .encodeToString("another-secret-that-is-long-enough-for-hs256".getBytes());
+        String token = newGenerator(otherSecret, 60_000).generateToken("test@example.com");
+
+        assertThrows(SignatureException.class, () -> jwtGenerator.verify(token));
+    }
+
+    @Test
+    public void testVerify_RejectsExpiredToken() {
+        String token = newGenerator(SECRET, -1_000).generateToken("test@example.com");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtGenerator.verify(token));
+    }
+}
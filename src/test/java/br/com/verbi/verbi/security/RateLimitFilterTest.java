@@ -0,0 +1,212 @@
+package br.com.verbi.verbi.security;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockPart;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.verbi.verbi.config.RateLimitProperties;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitFilterTest {
+
+    @Mock
+    private JWTGenerator jwtGenerator;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(
+                route("login", "/api/user/login", RateLimitProperties.Key.IP, RateLimitProperties.Key.EMAIL),
+                route("register", "/api/user/register", RateLimitProperties.Key.EMAIL),
+                route("mural-write", "/api/mural/**", RateLimitProperties.Key.USER)));
+
+        RateLimitFilter filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        ReflectionTestUtils.setField(filter, "jwtGenerator", jwtGenerator);
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        filter.init();
+
+        lenient().when(jwtGenerator.verify(eq("token-a"), any())).thenReturn(Jwts.claims().subject("a").build());
+        lenient().when(jwtGenerator.verify(eq("token-b"), any())).thenReturn(Jwts.claims().subject("b").build());
+        lenient().when(jwtGenerator.verify(eq("invalid"), any())).thenThrow(new JwtException("invalid"));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new EchoController())
+                .addFilters(filter)
+                .build();
+    }
+
+    // Uma requisição por minuto em cada chave, só para POST
+    private static RateLimitProperties.Route route(String name, String pattern, RateLimitProperties.Key... keys) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName(name);
+        route.setMethods(List.of("POST"));
+        route.setPattern(pattern);
+        route.setCapacity(1);
+        route.setPeriod(Duration.ofMinutes(1));
+        route.setKeys(List.of(keys));
+        return route;
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private static String login(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"secret\"}";
+    }
+
+    @Test
+    public void testOverLimit_TooManyRequestsWithRetryAfter() throws Exception {
+        mockMvc.perform(post("/api/user/login").contentType(MediaType.APPLICATION_JSON).content(login("a@test.com")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/user/login").contentType(MediaType.APPLICATION_JSON).content(login("a@test.com")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+    }
+
+    @Test
+    public void testUnmatchedRoutesAreNotLimited() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            // Método fora da rota
+            mockMvc.perform(get("/api/mural/feed").header("Authorization", "Bearer token-a"))
+                    .andExpect(status().isOk());
+            // Caminho fora de todas as rotas
+            mockMvc.perform(post("/api/other"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void testCachedBodyIsReadAgainByTheController() throws Exception {
+        String body = login("a@test.com");
+
+        mockMvc.perform(post("/api/user/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string(body));
+    }
+
+    @Test
+    public void testEmailKey_IgnoresCaseAndAddress() throws Exception {
+        mockMvc.perform(post("/api/user/login").with(from("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON).content(login("a@test.com")))
+                .andExpect(status().isOk());
+
+        // Mesmo email de outro endereço continua limitado
+        mockMvc.perform(post("/api/user/login").with(from("10.0.0.2"))
+                        .contentType(MediaType.APPLICATION_JSON).content(login(" A@Test.com ")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    public void testRejectedRequestGivesBackTokensOfOtherKeys() throws Exception {
+        mockMvc.perform(post("/api/user/login").with(from("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON).content(login("a@test.com")))
+                .andExpect(status().isOk());
+
+        // O IP 10.0.0.2 passa, mas o email é rejeitado: o token do IP é devolvido
+        mockMvc.perform(post("/api/user/login").with(from("10.0.0.2"))
+                        .contentType(MediaType.APPLICATION_JSON).content(login("a@test.com")))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(post("/api/user/login").with(from("10.0.0.2"))
+                        .contentType(MediaType.APPLICATION_JSON).content(login("b@test.com")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testEmailKey_ReadFromMultipartJsonPart() throws Exception {
+        mockMvc.perform(multipart("/api/user/register").part(userPart("a@test.com")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"email\":\"a@test.com\"}"));
+
+        mockMvc.perform(multipart("/api/user/register").part(userPart("a@test.com")))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(multipart("/api/user/register").part(userPart("b@test.com")))
+                .andExpect(status().isOk());
+    }
+
+    private static MockPart userPart(String email) {
+        MockPart part = new MockPart("userDto",
+                ("{\"email\":\"" + email + "\"}").getBytes(StandardCharsets.UTF_8));
+        part.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return part;
+    }
+
+    @Test
+    public void testUserKey_OneBucketPerTokenSubject() throws Exception {
+        mockMvc.perform(post("/api/mural/create").header("Authorization", "Bearer token-a"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/mural/create").header("Authorization", "Bearer token-b"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/mural/create").header("Authorization", "Bearer token-a"))
+                .andExpect(status().isTooManyRequests());
+
+        // Token inválido não tem chave de usuário: a rota só limita por usuário, então passa
+        mockMvc.perform(post("/api/mural/create").header("Authorization", "Bearer invalid"))
+                .andExpect(status().isOk());
+    }
+
+    @RestController
+    static class EchoController {
+
+        @PostMapping("/api/user/login")
+        public String login(@RequestBody String body) {
+            return body;
+        }
+
+        @PostMapping("/api/user/register")
+        public String register(@RequestPart("userDto") String userDto) {
+            return userDto;
+        }
+
+        @PostMapping({ "/api/mural/create", "/api/other" })
+        public String write() {
+            return "ok";
+        }
+
+        @GetMapping("/api/mural/feed")
+        public String feed() {
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.verbi.verbi.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.com.verbi.verbi.repository.TokenBlacklistRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class RevocationCheckerTest {
+
+    @Mock
+    private TokenBlacklistRepository tokenBlacklistRepository;
+
+    @Spy
+    private RevocationIndex revocationIndex = new RevocationIndex(1000, 0.01, new SimpleMeterRegistry());
+
+    @InjectMocks
+    private RevocationChecker revocationChecker;
+
+    @Test
+    public void testRevokedToken_AnsweredByIndex() {
+        // Token revogado já presente no índice local
+        TokenFingerprint fingerprint = TokenFingerprint.of("blacklisted_token");
+        revocationIndex.add(fingerprint, System.currentTimeMillis() + 60_000);
+
+        assertTrue(revocationChecker.isRevoked(fingerprint));
+
+        // O índice respondeu sozinho, sem consultar o banco
+        verify(tokenBlacklistRepository, never()).existsByFingerprint(any(byte[].class));
+    }
+
+    @Test
+    public void testTokenNotRevoked_SkipsDatabase() {
+        assertFalse(revocationChecker.isRevoked(TokenFingerprint.of("valid_token")));
+
+        verify(tokenBlacklistRepository, never()).existsByFingerprint(any(byte[].class));
+    }
+
+    @Test
+    public void testProbableHit_ConfirmedByDatabase() {
+        // Índice só sabe que o token provavelmente foi revogado
+        TokenFingerprint fingerprint = TokenFingerprint.of("blacklisted_token");
+        when(revocationIndex.lookup(fingerprint)).thenReturn(RevocationIndex.Lookup.UNKNOWN);
+        when(tokenBlacklistRepository.existsByFingerprint(fingerprint.toBytes())).thenReturn(true);
+
+        assertTrue(revocationChecker.isRevoked(fingerprint));
+        verify(revocationIndex).recordDatabaseResult(true);
+    }
+}
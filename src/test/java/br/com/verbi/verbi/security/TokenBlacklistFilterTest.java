@@ -15,7 +15,6 @@ import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import br.com.verbi.verbi.repository.TokenBlacklistRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -25,15 +24,14 @@ import jakarta.servlet.http.HttpServletResponse;
 public class TokenBlacklistFilterTest {
 
     @Mock
-    private TokenBlacklistRepository tokenBlacklistRepository;
+    private RevocationChecker revocationChecker;
 
     @InjectMocks
     private TokenBlacklistFilter tokenBlacklistFilter;
 
     @Test
     public void testTokenIsBlacklisted() throws Exception {
-        // Simulando o comportamento do repositório
-        when(tokenBlacklistRepository.existsByToken("blacklisted_token")).thenReturn(true);
+        when(revocationChecker.isRevoked(TokenFingerprint.of("blacklisted_token"))).thenReturn(true);
 
         // Criando requisição e resposta simuladas
         MockHttpServletRequest request = new MockHttpServletRequest();
@@ -51,5 +49,32 @@ public class TokenBlacklistFilterTest {
         // Verificando se o filtro não chamou o filterChain
         verify(filterChain, Mockito.times(0)).doFilter(request, response);
     }
-}
 
+    @Test
+    public void testTokenNotBlacklisted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid_token");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+
+        tokenBlacklistFilter.doFilterInternal(request, response, filterChain);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        verify(filterChain).doFilter(request, response);
+        verify(revocationChecker).isRevoked(TokenFingerprint.of("valid_token"));
+    }
+
+    @Test
+    public void testRequestWithoutToken_SkipsCheck() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+
+        tokenBlacklistFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        Mockito.verifyNoInteractions(revocationChecker);
+    }
+}
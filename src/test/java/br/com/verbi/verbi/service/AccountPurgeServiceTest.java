@@ -0,0 +1,205 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import br.com.verbi.verbi.entity.JobCheckpoint;
+import br.com.verbi.verbi.repository.ChatRepository;
+import br.com.verbi.verbi.repository.CommentRepository;
+import br.com.verbi.verbi.repository.FriendshipRepository;
+import br.com.verbi.verbi.repository.JobCheckpointRepository;
+import br.com.verbi.verbi.repository.MessageRepository;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.repository.RefreshTokenRepository;
+import br.com.verbi.verbi.repository.TimelineEntryRepository;
+import br.com.verbi.verbi.repository.TimelineStateRepository;
+import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.repository.UserRepository.PurgeCandidate;
+import br.com.verbi.verbi.security.UserPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountPurgeServiceTest {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private MuralRepository muralRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private ChatRepository chatRepository;
+
+    @Mock
+    private FriendshipRepository friendshipRepository;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Mock
+    private TimelineStateRepository timelineStateRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
+    @Mock
+    private UserAutocompleteService userAutocompleteService;
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    @Mock
+    private GlobalMuralSnapshot globalMuralSnapshot;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AccountPurgeService accountPurgeService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(accountPurgeService, "chunkSize", 2);
+        ReflectionTestUtils.setField(accountPurgeService, "threads", 2);
+        ReflectionTestUtils.setField(accountPurgeService, "meterRegistry", meterRegistry);
+        accountPurgeService.init();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        accountPurgeService.shutdown();
+    }
+
+    private static PurgeCandidate candidate(long n) {
+        UUID id = new UUID(0L, n);
+        return new PurgeCandidate() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return "user" + n + "@test.com";
+            }
+        };
+    }
+
+    @Test
+    public void testPurge_DeletesEveryChunkWithBulkStatements() {
+        PurgeCandidate a = candidate(1), b = candidate(2), c = candidate(3);
+        when(jobCheckpointRepository.findById(AccountPurgeService.JOB_NAME)).thenReturn(Optional.empty());
+        when(userRepository.findPurgeCandidates(cutoff, FIRST_ID, 2)).thenReturn(List.of(a, b));
+        when(userRepository.findPurgeCandidates(cutoff, b.getId(), 2)).thenReturn(List.of(c));
+        when(userRepository.deleteByIds(any())).thenAnswer(invocation -> invocation.<List<UUID>>getArgument(0).size());
+
+        long purged = accountPurgeService.purgeMarkedAccounts(cutoff);
+
+        assertEquals(3, purged);
+        verify(commentRepository).deleteByUserIds(List.of(a.getId(), b.getId()));
+        verify(muralRepository).deleteByUserIds(List.of(c.getId()));
+        verify(timelineEntryRepository).deleteByUserIds(List.of(c.getId()));
+        verify(friendshipRepository).deleteByUserIds(List.of(a.getId(), b.getId()));
+        verify(userRepository).deleteByIds(List.of(c.getId()));
+        verify(userPrincipalCache).invalidate("user2@test.com");
+        verify(userAutocompleteService).remove(c.getId());
+        verify(globalMuralSnapshot).removeAuthors(List.of(c.getId()));
+
+        // Pass completed: the next run starts from the beginning
+        verify(jobCheckpointRepository).deleteById(AccountPurgeService.JOB_NAME);
+        assertEquals(3.0, meterRegistry.counter("verbi.purge.accounts").count());
+    }
+
+    @Test
+    public void testPurge_ResumesFromCheckpoint() {
+        PurgeCandidate c = candidate(3);
+        UUID checkpoint = candidate(2).getId();
+        when(jobCheckpointRepository.findById(AccountPurgeService.JOB_NAME))
+                .thenReturn(Optional.of(new JobCheckpoint(AccountPurgeService.JOB_NAME, checkpoint.toString(),
+                        LocalDateTime.now())));
+        when(userRepository.findPurgeCandidates(cutoff, checkpoint, 2)).thenReturn(List.of(c));
+        when(userRepository.deleteByIds(any())).thenReturn(1);
+
+        assertEquals(1, accountPurgeService.purgeMarkedAccounts(cutoff));
+        verify(userRepository, never()).findPurgeCandidates(eq(cutoff), eq(FIRST_ID), anyInt());
+    }
+
+    @Test
+    public void testPurge_FailedChunkKeepsCheckpointBeforeIt() {
+        PurgeCandidate a = candidate(1), b = candidate(2), c = candidate(3);
+        when(jobCheckpointRepository.findById(AccountPurgeService.JOB_NAME)).thenReturn(Optional.empty());
+        when(userRepository.findPurgeCandidates(cutoff, FIRST_ID, 2)).thenReturn(List.of(a, b));
+        when(userRepository.findPurgeCandidates(cutoff, b.getId(), 2)).thenReturn(List.of(c));
+        when(userRepository.deleteByIds(List.of(a.getId(), b.getId()))).thenReturn(2);
+        when(userRepository.deleteByIds(List.of(c.getId()))).thenThrow(new IllegalStateException("lock timeout"));
+
+        assertEquals(2, accountPurgeService.purgeMarkedAccounts(cutoff));
+
+        ArgumentCaptor<JobCheckpoint> saved = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(jobCheckpointRepository).save(saved.capture());
+        assertEquals(b.getId().toString(), saved.getValue().getLastKey());
+        verify(jobCheckpointRepository, never()).deleteById(any());
+        verify(userAutocompleteService, never()).remove(c.getId());
+    }
+
+    @Test
+    public void testPurge_LowersPopularityOfRemainingFriends() {
+        PurgeCandidate a = candidate(1), b = candidate(2);
+        UUID friend = UUID.randomUUID();
+        when(jobCheckpointRepository.findById(AccountPurgeService.JOB_NAME)).thenReturn(Optional.empty());
+        when(userRepository.findPurgeCandidates(cutoff, FIRST_ID, 2)).thenReturn(List.of(a, b));
+        when(userRepository.findPurgeCandidates(cutoff, b.getId(), 2)).thenReturn(List.of());
+        // a e b eram amigos entre si, e os dois eram amigos de friend
+        when(friendshipRepository.findAcceptedFriendIdsOf(List.of(a.getId(), b.getId())))
+                .thenReturn(List.of(b.getId(), friend, a.getId(), friend));
+        when(userRepository.deleteByIds(any())).thenReturn(2);
+
+        accountPurgeService.purgeMarkedAccounts(cutoff);
+
+        verify(userAutocompleteService, times(2)).adjustPopularity(friend, -1);
+        verify(userAutocompleteService, never()).adjustPopularity(eq(a.getId()), anyInt());
+        verify(userAutocompleteService, never()).adjustPopularity(eq(b.getId()), anyInt());
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import br.com.verbi.verbi.util.FeedMerger;
+
+/**
+ * Compares push thresholds of the hybrid feed on a simulated social graph:
+ * rows written per mural (write amplification) against p99 time to build
+ * the first feed page. Timelines and author streams are kept in memory, so
+ * this only compares thresholds by the fan-out and merge work they imply.
+ * It does not run the SQL of the pull path and says nothing about database
+ * latency; those need a run against Postgres with production-like data.
+ * Results are published through the JUnit {@link TestReporter}.
+ *
+ * Excluded from the normal build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+public class FeedFanoutBenchmarkTest {
+
+    private static final int USERS = 20_000;
+    private static final int MURALS = 50_000;
+    private static final int READS = 5_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int TIMELINE_CAPACITY = 800;
+
+    // Newest first: murals are numbered in creation order
+    private static final Comparator<Integer> NEWEST_FIRST = Comparator.reverseOrder();
+
+    @Test
+    public void compareThresholds(TestReporter reporter) {
+        Random random = new Random(42);
+        int[][] friends = powerLawGraph(random);
+        int[] authors = new int[MURALS];
+        for (int i = 0; i < MURALS; i++) {
+            authors[i] = random.nextInt(USERS);
+        }
+
+        run(friends, authors, 1_000); // Warm-up, so the first threshold is not measured cold
+
+        double previousAmplification = Double.MAX_VALUE;
+        for (int threshold : new int[] { Integer.MAX_VALUE, 20_000, 5_000, 1_000, 100, 0 }) {
+            Result result = run(friends, authors, threshold);
+            reporter.publishEntry(Map.of(
+                    "threshold", threshold == Integer.MAX_VALUE ? "push all" : String.valueOf(threshold),
+                    "rows/mural", String.format("%.1f", result.amplification),
+                    "p50 (us)", String.format("%.1f", result.p50Micros),
+                    "p99 (us)", String.format("%.1f", result.p99Micros)));
+
+            // A lower threshold pulls more authors, so it never writes more
+            assertTrue(result.amplification <= previousAmplification);
+            previousAmplification = result.amplification;
+        }
+    }
+
+    private static Result run(int[][] friends, int[] authors, int threshold) {
+        List<List<Integer>> timelines = new ArrayList<>(USERS);
+        List<List<Integer>> pulledByAuthor = new ArrayList<>(USERS);
+        for (int u = 0; u < USERS; u++) {
+            timelines.add(new ArrayList<>());
+            pulledByAuthor.add(new ArrayList<>());
+        }
+
+        // Write path: the same decision as HomeTimelineService.fanOut
+        long rows = 0;
+        for (int mural = 0; mural < MURALS; mural++) {
+            int author = authors[mural];
+            if (friends[author].length >= threshold) {
+                pulledByAuthor.get(author).add(mural);
+                continue;
+            }
+            timelines.get(author).add(mural);
+            for (int friend : friends[author]) {
+                timelines.get(friend).add(mural);
+            }
+            rows += friends[author].length + 1;
+        }
+        for (List<Integer> timeline : timelines) {
+            timeline.subList(0, Math.max(0, timeline.size() - TIMELINE_CAPACITY)).clear();
+            Collections.reverse(timeline);
+        }
+        for (List<Integer> stream : pulledByAuthor) {
+            Collections.reverse(stream);
+        }
+
+        // Read path: timeline page merged with the newest murals of pulled friends
+        Random random = new Random(7);
+        long[] nanos = new long[READS];
+        for (int i = 0; i < READS; i++) {
+            int viewer = random.nextInt(USERS);
+            long start = System.nanoTime();
+            List<List<Integer>> sources = new ArrayList<>();
+            sources.add(head(timelines.get(viewer)));
+            sources.add(head(pulledByAuthor.get(viewer)));
+            for (int friend : friends[viewer]) {
+                List<Integer> pulled = pulledByAuthor.get(friend);
+                if (!pulled.isEmpty()) {
+                    sources.add(head(pulled));
+                }
+            }
+            FeedMerger.merge(sources, NEWEST_FIRST, Function.identity(), PAGE_SIZE + 1);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Result((double) rows / MURALS, nanos[READS / 2] / 1000.0, nanos[READS * 99 / 100] / 1000.0);
+    }
+
+    private static List<Integer> head(List<Integer> murals) {
+        return murals.subList(0, Math.min(murals.size(), PAGE_SIZE + 1));
+    }
+
+    // Friend counts follow a Zipf-like law: most users have a few dozen friends, a few have thousands
+    private static int[][] powerLawGraph(Random random) {
+        List<List<Integer>> adjacency = new ArrayList<>(USERS);
+        for (int u = 0; u < USERS; u++) {
+            adjacency.add(new ArrayList<>());
+        }
+        for (int u = 0; u < USERS; u++) {
+            int degree = (int) Math.min(USERS - 1, 10 / Math.pow(1 - random.nextDouble(), 1.2));
+            for (int e = adjacency.get(u).size(); e < degree; e++) {
+                int v = random.nextInt(USERS);
+                if (v != u) {
+                    adjacency.get(u).add(v);
+                    adjacency.get(v).add(u);
+                }
+            }
+        }
+        int[][] friends = new int[USERS][];
+        for (int u = 0; u < USERS; u++) {
+            friends[u] = adjacency.get(u).stream().distinct().mapToInt(Integer::intValue).toArray();
+        }
+        return friends;
+    }
+
+    private record Result(double amplification, double p50Micros, double p99Micros) {
+    }
+}
@@ -0,0 +1,187 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.verbi.verbi.dto.CursorPageDto;
+import br.com.verbi.verbi.dto.FeedCandidate;
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.enums.MuralVisibility;
+import br.com.verbi.verbi.exception.InvalidDataException;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.util.FeedCursor;
+
+@ExtendWith(MockitoExtension.class)
+public class FeedServiceTest {
+
+    @Mock
+    private MuralRepository muralRepository;
+
+    @Mock
+    private HomeTimelineService homeTimelineService;
+
+    @Mock
+    private GlobalMuralSnapshot globalMuralSnapshot;
+
+    @InjectMocks
+    private FeedService feedService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123456000);
+
+    private static MuralResponseDto mural(String body, LocalDateTime createdAt, MuralVisibility visibility) {
+        return new MuralResponseDto(UUID.randomUUID(), body, visibility, "author", createdAt, UUID.randomUUID());
+    }
+
+    private static List<String> bodies(CursorPageDto<MuralResponseDto> page) {
+        return page.getItems().stream().map(MuralResponseDto::getBody).toList();
+    }
+
+    @Test
+    public void testGetVisibleFeed_MergesPushedPulledAndGlobal() {
+        MuralResponseDto pushed = mural("pushed", now, MuralVisibility.GLOBAL);
+        MuralResponseDto pulled = mural("pulled", now.minusMinutes(1), MuralVisibility.FRIENDS_ONLY);
+        MuralResponseDto global = mural("global", now.minusMinutes(2), MuralVisibility.GLOBAL);
+        MuralResponseDto oldest = mural("oldest", now.minusMinutes(3), MuralVisibility.GLOBAL);
+
+        when(homeTimelineService.read(userId, null, 4)).thenReturn(List.of(pushed));
+        when(muralRepository.findUnpushedFor(userId, 4)).thenReturn(List.of(pulled));
+        // O mural do amigo também é GLOBAL: aparece uma vez só
+        when(globalMuralSnapshot.read(null, 4)).thenReturn(List.of(pushed, global, oldest));
+
+        CursorPageDto<MuralResponseDto> page = feedService.getVisibleFeed(userId, null, 3);
+
+        assertEquals(List.of("pushed", "pulled", "global"), bodies(page));
+        FeedCursor cursor = FeedCursor.decode(page.getNextCursor());
+        assertEquals(global.getId(), cursor.getId());
+        assertEquals(global.getCreatedAt(), cursor.getCreatedAt());
+    }
+
+    @Test
+    public void testGetVisibleFeed_NextPageReadsEverySourceAfterCursor() {
+        MuralResponseDto last = mural("last", now, MuralVisibility.GLOBAL);
+        String cursor = new FeedCursor(now.plusMinutes(1), UUID.randomUUID()).encode();
+        FeedCursor after = FeedCursor.decode(cursor);
+
+        when(homeTimelineService.read(eq(userId), argThat(c -> c != null && c.getId().equals(after.getId())), eq(21)))
+                .thenReturn(List.of());
+        when(muralRepository.findUnpushedForAfter(userId, after.getCreatedAt(), after.getId(), 21))
+                .thenReturn(List.of());
+        when(globalMuralSnapshot.read(argThat(c -> c != null && c.getId().equals(after.getId())), eq(21)))
+                .thenReturn(List.of(last));
+
+        CursorPageDto<MuralResponseDto> page = feedService.getVisibleFeed(userId, cursor, 20);
+
+        assertEquals(List.of("last"), bodies(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testGetHomeFeed_DoesNotReadGlobalMurals() {
+        MuralResponseDto pushed = mural("pushed", now, MuralVisibility.FRIENDS_ONLY);
+        when(homeTimelineService.read(userId, null, 2)).thenReturn(List.of(pushed));
+        when(muralRepository.findUnpushedFor(userId, 2)).thenReturn(List.of());
+
+        CursorPageDto<MuralResponseDto> page = feedService.getHomeFeed(userId, null, 1);
+
+        assertEquals(List.of("pushed"), bodies(page));
+        assertNull(page.getNextCursor());
+        verify(globalMuralSnapshot, never()).read(any(), anyInt());
+    }
+
+    @Test
+    public void testGetVisibleFeed_TiesBrokenById() {
+        MuralResponseDto a = mural("a", now, MuralVisibility.GLOBAL);
+        MuralResponseDto b = mural("b", now, MuralVisibility.GLOBAL);
+        a.setId(new UUID(0x0190000000007000L, 0x8000000000000001L));
+        b.setId(new UUID(0x0190000000007000L, 0x8000000000000002L));
+        when(homeTimelineService.read(userId, null, 3)).thenReturn(List.of(a));
+        when(muralRepository.findUnpushedFor(userId, 3)).thenReturn(List.of());
+        when(globalMuralSnapshot.read(null, 3)).thenReturn(List.of(b));
+
+        assertEquals(List.of("b", "a"), bodies(feedService.getVisibleFeed(userId, null, 2)));
+    }
+
+    @Test
+    public void testGetVisibleFeed_InvalidCursor() {
+        assertThrows(InvalidDataException.class, () -> feedService.getVisibleFeed(userId, "not-a-cursor", 10));
+    }
+
+    @Test
+    public void testRankVisibleFeed_CommentsLiftOlderMurals() {
+        MuralResponseDto fresh = mural("fresh", now, MuralVisibility.GLOBAL);
+        MuralResponseDto discussed = mural("discussed", now.minusHours(6), MuralVisibility.GLOBAL);
+        MuralResponseDto friend = mural("friend", now.minusHours(12), MuralVisibility.FRIENDS_ONLY);
+        MuralResponseDto stale = mural("stale", now.minusDays(2), MuralVisibility.GLOBAL);
+
+        FeedSignals feedSignals = new FeedSignals(Duration.ofHours(6), Duration.ofDays(14), Duration.ofDays(7), 1000);
+        feedSignals.clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        UUID other = UUID.randomUUID();
+        for (int i = 0; i < 20; i++) {
+            feedSignals.recordComment(discussed.getId(), other, discussed.getUserId(), now.minusMinutes(i));
+        }
+        for (int i = 0; i < 5; i++) {
+            feedSignals.recordComment(UUID.randomUUID(), userId, friend.getUserId(), now.minusDays(i));
+        }
+        ReflectionTestUtils.setField(feedService, "feedSignals", feedSignals);
+        ReflectionTestUtils.setField(feedService, "rankingCandidates", 100);
+        ReflectionTestUtils.setField(feedService, "recencyWeight", 1.0);
+        ReflectionTestUtils.setField(feedService, "affinityWeight", 0.5);
+        ReflectionTestUtils.setField(feedService, "activityWeight", 0.3);
+        ReflectionTestUtils.setField(feedService, "recencyHalfLife", Duration.ofHours(12));
+        feedService.init();
+
+        // Candidatos sem corpo: só os escolhidos são carregados
+        when(homeTimelineService.readCandidates(userId, 100)).thenReturn(List.of(candidate(friend)));
+        when(muralRepository.findUnpushedCandidatesFor(userId, 100)).thenReturn(List.of());
+        when(globalMuralSnapshot.newest(100)).thenReturn(List.of(fresh, discussed, stale));
+        when(muralRepository.findResponsesByIdIn(List.of(friend.getId()))).thenReturn(List.of(friend));
+
+        CursorPageDto<MuralResponseDto> page = feedService.rankVisibleFeed(userId, 3);
+
+        // Mais comentado, depois o do amigo próximo, depois o mais novo; o antigo fica de fora
+        assertEquals(List.of("discussed", "friend", "fresh"), bodies(page));
+        assertNull(page.getNextCursor());
+        // Os GLOBAL vêm só do snapshot, sem completar pelo banco
+        verify(globalMuralSnapshot, never()).read(any(), anyInt());
+        verify(muralRepository, never()).findGlobal(anyInt());
+    }
+
+    private static FeedCandidate candidate(MuralResponseDto mural) {
+        return new FeedCandidate() {
+            public UUID getId() {
+                return mural.getId();
+            }
+
+            public UUID getUserId() {
+                return mural.getUserId();
+            }
+
+            public LocalDateTime getCreatedAt() {
+                return mural.getCreatedAt();
+            }
+        };
+    }
+}
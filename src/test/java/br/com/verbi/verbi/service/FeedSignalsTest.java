@@ -0,0 +1,70 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FeedSignalsTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final UUID mural = UUID.randomUUID();
+    private final UUID viewer = UUID.randomUUID();
+    private final UUID author = UUID.randomUUID();
+
+    private FeedSignals feedSignals;
+
+    @BeforeEach
+    public void setUp() {
+        feedSignals = new FeedSignals(Duration.ofHours(6), Duration.ofDays(14), Duration.ofDays(7), 1000);
+        feedSignals.clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    @Test
+    public void testRecordComment_DecaysWithHalfLife() {
+        feedSignals.recordComment(mural, viewer, author, now.minusHours(12));
+        feedSignals.recordComment(mural, viewer, author, now.minusHours(6));
+
+        long nowMillis = feedSignals.nowMillis();
+        // (1 * 0.5 + 1) decaído mais 6 horas
+        assertEquals(0.75f, feedSignals.activity(mural, nowMillis), 1e-5f);
+        // Afinidade com meia-vida de 14 dias: quase não decai em 12 horas
+        assertEquals(1.963f, feedSignals.affinity(feedSignals.affinitiesOf(viewer), author, nowMillis), 1e-3f);
+    }
+
+    @Test
+    public void testRecordComment_OutOfOrderEventsAddUp() {
+        feedSignals.recordComment(mural, viewer, author, now.minusHours(6));
+        feedSignals.recordComment(mural, viewer, author, now.minusHours(12));
+
+        assertEquals(0.75f, feedSignals.activity(mural, feedSignals.nowMillis()), 1e-5f);
+    }
+
+    @Test
+    public void testRecordComment_OwnMuralAddsNoAffinity() {
+        feedSignals.recordComment(mural, author, author, now);
+
+        assertEquals(1f, feedSignals.activity(mural, feedSignals.nowMillis()), 1e-6f);
+        assertEquals(0, feedSignals.affinitiesOf(author).size());
+    }
+
+    @Test
+    public void testSweep_DropsDecayedSignals() {
+        feedSignals.recordComment(mural, viewer, author, now.minusDays(3));
+        UUID recent = UUID.randomUUID();
+        feedSignals.recordComment(recent, author, author, now);
+
+        feedSignals.sweep();
+
+        // A atividade de 3 dias atrás sumiu; a afinidade (meia-vida de 14 dias) fica
+        assertEquals(0f, feedSignals.activity(mural, feedSignals.nowMillis()));
+        assertEquals(2, feedSignals.size());
+    }
+}
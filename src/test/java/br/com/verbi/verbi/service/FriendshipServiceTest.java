@@ -22,6 +22,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import br.com.verbi.verbi.entity.Friendship;
 import br.com.verbi.verbi.entity.User;
 import br.com.verbi.verbi.enums.FriendshipStatus;
+import br.com.verbi.verbi.enums.OutboxEventType;
+import br.com.verbi.verbi.exception.AccessDeniedException;
+import br.com.verbi.verbi.exception.InvalidDataException;
 import br.com.verbi.verbi.repository.FriendshipRepository;
 
 @SpringBootTest
@@ -36,6 +39,12 @@ public class FriendshipServiceTest {
     @Mock
     private ChatService chatService; 
 
+    @Mock
+    private UserAutocompleteService userAutocompleteService;
+
+    @Mock
+    private OutboxService outboxService;
+
     @InjectMocks
     private FriendshipService friendshipService;
 
@@ -106,6 +115,9 @@ public class FriendshipServiceTest {
         assertEquals(FriendshipStatus.ACCEPTED, result.getStatus(), "Status should be ACCEPTED");
 
         verify(friendshipRepository, times(1)).save(friendship);
+        verify(userAutocompleteService).adjustPopularity(sender.getId(), 1);
+        verify(userAutocompleteService).adjustPopularity(receiver.getId(), 1);
+        verify(outboxService).record(OutboxEventType.FRIENDSHIP_ACCEPTED, friendship.getId());
     }
 
     @Test
@@ -126,12 +138,50 @@ public class FriendshipServiceTest {
         verify(friendshipRepository, times(1)).save(friendship);
     }
 
+    @Test
+    public void testDeclineFriendRequest_AcceptedIsRejected() {
+        // Recusar não pode desfazer uma amizade aceita por fora do fluxo de remoção
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        when(friendshipRepository.findById(friendship.getId())).thenReturn(Optional.of(friendship));
+
+        assertThrows(InvalidDataException.class, () -> friendshipService.declineFriendRequest(friendship.getId()));
+
+        assertEquals(FriendshipStatus.ACCEPTED, friendship.getStatus());
+        verify(friendshipRepository, never()).save(any(Friendship.class));
+    }
+
+    @Test
+    public void testRemoveFriend_RecordsEndedEvent() {
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        when(friendshipRepository.findById(friendship.getId())).thenReturn(Optional.of(friendship));
+        when(friendshipRepository.save(friendship)).thenReturn(friendship);
+
+        friendshipService.removeFriend(friendship.getId(), receiver.getId());
+
+        assertEquals(FriendshipStatus.DECLINED, friendship.getStatus());
+        // As timelines dos dois são limpas pelo outbox
+        verify(outboxService).record(OutboxEventType.FRIENDSHIP_ENDED, friendship.getId());
+        verify(userAutocompleteService).adjustPopularity(sender.getId(), -1);
+        verify(userAutocompleteService).adjustPopularity(receiver.getId(), -1);
+    }
+
+    @Test
+    public void testRemoveFriend_OnlyByEitherFriend() {
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        when(friendshipRepository.findById(friendship.getId())).thenReturn(Optional.of(friendship));
+
+        assertThrows(AccessDeniedException.class,
+                () -> friendshipService.removeFriend(friendship.getId(), UUID.randomUUID()));
+
+        verify(outboxService, never()).record(any(), any());
+    }
+
     @Test
     public void testGetFriends_Success() {
 
         friendship.setStatus(FriendshipStatus.ACCEPTED);
 
-        when(friendshipRepository.findBySenderOrReceiverAndStatus(sender, sender, FriendshipStatus.ACCEPTED))
+        when(friendshipRepository.findAcceptedOf(sender.getId()))
                 .thenReturn(List.of(friendship));
 
         List<Friendship> friends = friendshipService.getFriends(sender);
@@ -0,0 +1,190 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.entity.GlobalMuralChangeMessage;
+import br.com.verbi.verbi.enums.MuralVisibility;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.util.FeedCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class GlobalMuralSnapshotTest {
+
+    @Mock
+    private MuralRepository muralRepository;
+
+    @Mock
+    private GlobalMuralBroadcaster broadcaster;
+
+    private GlobalMuralSnapshot snapshot;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private final UUID authorId = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        snapshot = node();
+    }
+
+    private GlobalMuralSnapshot node() {
+        GlobalMuralSnapshot node = new GlobalMuralSnapshot(3);
+        ReflectionTestUtils.setField(node, "muralRepository", muralRepository);
+        ReflectionTestUtils.setField(node, "broadcaster", broadcaster);
+        ReflectionTestUtils.setField(node, "meterRegistry", meterRegistry);
+        node.init();
+        return node;
+    }
+
+    private MuralResponseDto mural(String body, int minutesAgo) {
+        return new MuralResponseDto(UUID.randomUUID(), body, MuralVisibility.GLOBAL, "author",
+                now.minusMinutes(minutesAgo), authorId);
+    }
+
+    private static List<String> bodies(List<MuralResponseDto> murals) {
+        return murals.stream().map(MuralResponseDto::getBody).toList();
+    }
+
+    @Test
+    public void testRead_ServedFromMemoryOnceLoaded() {
+        when(muralRepository.findGlobal(4)).thenReturn(List.of(mural("a", 1), mural("b", 2)));
+        snapshot.reload();
+
+        assertEquals(List.of("a", "b"), bodies(snapshot.read(null, 20)));
+        // Havia menos murais que a capacidade: nada além deles no banco
+        verify(muralRepository, never()).findGlobalAfter(any(), any(), anyInt());
+        assertEquals(1.0, meterRegistry.counter("verbi.feed.global-snapshot.reads", "source", "memory").count());
+    }
+
+    @Test
+    public void testRead_PastTheEndContinuesFromTheDatabase() {
+        MuralResponseDto a = mural("a", 1), b = mural("b", 2), c = mural("c", 3);
+        when(muralRepository.findGlobal(4)).thenReturn(List.of(a, b, c, mural("d", 4)));
+        snapshot.reload();
+        when(muralRepository.findGlobalAfter(c.getCreatedAt(), c.getId(), 1)).thenReturn(List.of(mural("d", 4)));
+
+        assertEquals(List.of("b", "c", "d"), bodies(snapshot.read(new FeedCursor(a.getCreatedAt(), a.getId()), 3)));
+        assertEquals(1.0, meterRegistry.counter("verbi.feed.global-snapshot.reads", "source", "database").count());
+    }
+
+    @Test
+    public void testRead_BeforeLoadGoesToTheDatabase() {
+        when(muralRepository.findGlobal(5)).thenReturn(List.of(mural("a", 1)));
+
+        assertEquals(List.of("a"), bodies(snapshot.read(null, 5)));
+    }
+
+    @Test
+    public void testPut_InsertsInFeedOrderAndEvictsTheOldest() {
+        when(muralRepository.findGlobal(4)).thenReturn(List.of(mural("a", 1), mural("c", 3), mural("d", 4)));
+        snapshot.reload();
+
+        snapshot.put(mural("b", 2)); // Sem transação ativa: aplicado na hora
+
+        assertEquals(List.of("a", "b", "c"), bodies(snapshot.read(null, 3)));
+        assertEquals(3, snapshot.size());
+    }
+
+    @Test
+    public void testPut_PatchesAndRemovesMurals() {
+        MuralResponseDto a = mural("a", 1), b = mural("b", 2);
+        when(muralRepository.findGlobal(4)).thenReturn(List.of(a, b));
+        snapshot.reload();
+
+        snapshot.put(new MuralResponseDto(a.getId(), "a2", MuralVisibility.GLOBAL, "author", a.getCreatedAt(),
+                authorId));
+        assertEquals(List.of("a2", "b"), bodies(snapshot.read(null, 3)));
+
+        // Deixou de ser GLOBAL
+        snapshot.put(new MuralResponseDto(b.getId(), "b", MuralVisibility.FRIENDS_ONLY, "author", b.getCreatedAt(),
+                authorId));
+        snapshot.remove(a.getId());
+        assertEquals(0, snapshot.size());
+    }
+
+    @Test
+    public void testRemoveAuthors_DropsTheirMurals() {
+        MuralResponseDto other = new MuralResponseDto(UUID.randomUUID(), "other", MuralVisibility.GLOBAL, "other",
+                now, UUID.randomUUID());
+        when(muralRepository.findGlobal(4)).thenReturn(List.of(other, mural("a", 1)));
+        snapshot.reload();
+
+        snapshot.removeAuthors(List.of(authorId));
+
+        assertEquals(List.of("other"), bodies(snapshot.read(null, 3)));
+    }
+
+    @Test
+    public void testChanges_ReachOtherNodesThroughTheConverter() {
+        MuralResponseDto a = mural("a", 1), b = mural("b", 2);
+        when(muralRepository.findGlobal(4)).thenReturn(List.of(a, b));
+        snapshot.reload();
+        GlobalMuralSnapshot other = node();
+        other.reload();
+
+        // Deixou de ser GLOBAL num nó: sai do outro sem esperar o reload
+        snapshot.put(new MuralResponseDto(a.getId(), "a", MuralVisibility.FRIENDS_ONLY, "author", a.getCreatedAt(),
+                authorId));
+        snapshot.put(mural("c", 0));
+
+        ArgumentCaptor<GlobalMuralChangeMessage> sent = ArgumentCaptor.forClass(GlobalMuralChangeMessage.class);
+        verify(broadcaster, times(2)).publish(sent.capture());
+        for (GlobalMuralChangeMessage message : sent.getAllValues()) {
+            // O que vai pela rede: JSON
+            Message amqpMessage = AmqpGlobalMuralBroadcaster.CONVERTER.toMessage(message, new MessageProperties());
+            other.applyRemote((GlobalMuralChangeMessage) AmqpGlobalMuralBroadcaster.CONVERTER.fromMessage(amqpMessage));
+        }
+
+        assertEquals(List.of("c", "b"), bodies(other.read(null, 3)));
+        assertEquals(authorId, other.read(null, 1).get(0).getUserId());
+    }
+
+    @Test
+    public void testReload_ReplaysChangesMadeWhileReading() {
+        MuralResponseDto a = mural("a", 1), b = mural("b", 2);
+        // O mural é apagado enquanto a consulta roda: ela ainda o devolve
+        when(muralRepository.findGlobal(4)).thenAnswer(invocation -> {
+            snapshot.remove(a.getId());
+            return List.of(a, b);
+        });
+
+        snapshot.reload();
+
+        assertEquals(List.of("b"), bodies(snapshot.read(null, 3)));
+    }
+
+    @Test
+    public void testChangeThatChangesNothing_KeepsTheSameArray() {
+        when(muralRepository.findGlobal(4)).thenReturn(List.of(mural("a", 1)));
+        snapshot.reload();
+        Object before = ReflectionTestUtils.getField(snapshot, "snapshot");
+
+        snapshot.remove(UUID.randomUUID()); // Nunca foi GLOBAL
+        snapshot.removeAuthors(List.of(UUID.randomUUID()));
+
+        assertSame(before, ReflectionTestUtils.getField(snapshot, "snapshot"));
+    }
+}
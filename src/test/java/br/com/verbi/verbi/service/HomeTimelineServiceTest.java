@@ -0,0 +1,183 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import br.com.verbi.verbi.dto.MuralResponseDto;
+import br.com.verbi.verbi.entity.Friendship;
+import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.enums.FriendshipStatus;
+import br.com.verbi.verbi.enums.MuralVisibility;
+import br.com.verbi.verbi.repository.FriendshipRepository;
+import br.com.verbi.verbi.repository.MuralRepository;
+import br.com.verbi.verbi.repository.TimelineEntryRepository;
+import br.com.verbi.verbi.repository.TimelineStateRepository;
+import br.com.verbi.verbi.util.FeedCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class HomeTimelineServiceTest {
+
+    @Mock
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Mock
+    private TimelineStateRepository timelineStateRepository;
+
+    @Mock
+    private FriendshipRepository friendshipRepository;
+
+    @Mock
+    private MuralRepository muralRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private HomeTimelineService homeTimelineService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(homeTimelineService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(homeTimelineService, "fanoutPolicy", new FanoutPolicy(100));
+        ReflectionTestUtils.setField(homeTimelineService, "capacity", 800);
+        ReflectionTestUtils.setField(homeTimelineService, "rebuildBatchSize", 2);
+        homeTimelineService.init();
+    }
+
+    private static MuralResponseDto mural(String body) {
+        return new MuralResponseDto(UUID.randomUUID(), body, MuralVisibility.FRIENDS_ONLY, "author",
+                LocalDateTime.now(), UUID.randomUUID());
+    }
+
+    @Test
+    public void testRead_BuiltTimeline() {
+        MuralResponseDto mural = mural("a");
+        FeedCursor after = new FeedCursor(LocalDateTime.now(), UUID.randomUUID());
+        when(timelineStateRepository.existsById(userId)).thenReturn(true);
+        when(timelineEntryRepository.findPageAfter(userId, after.getCreatedAt(), after.getId(), 21))
+                .thenReturn(List.of(mural));
+
+        assertEquals(List.of(mural), homeTimelineService.read(userId, after, 21));
+        verify(timelineEntryRepository, never()).rebuild(any(), anyInt());
+    }
+
+    @Test
+    public void testRead_BuildsMissingTimelineFirst() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(timelineStateRepository.existsById(userId)).thenReturn(false);
+        when(timelineEntryRepository.findPage(userId, 21)).thenReturn(List.of(mural("a")));
+
+        assertEquals(1, homeTimelineService.read(userId, null, 21).size());
+        verify(timelineEntryRepository).rebuild(userId, 800);
+        verify(timelineStateRepository).markBuilt(userId);
+    }
+
+    @Test
+    public void testRebuildMissing_WorksInBatches() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID();
+        when(timelineStateRepository.findOwnersWithoutTimeline(2)).thenReturn(List.of(a, b), List.of(c));
+
+        assertEquals(3, homeTimelineService.rebuildMissing());
+        verify(timelineStateRepository).markBuilt(c);
+    }
+
+    @Test
+    public void testConnect_CopiesRecentMuralsBothWays() {
+        User sender = new User();
+        sender.setId(UUID.randomUUID());
+        User receiver = new User();
+        receiver.setId(UUID.randomUUID());
+        Friendship friendship = new Friendship();
+        friendship.setId(UUID.randomUUID());
+        friendship.setSender(sender);
+        friendship.setReceiver(receiver);
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        when(friendshipRepository.findById(friendship.getId())).thenReturn(Optional.of(friendship));
+
+        homeTimelineService.connect(friendship.getId());
+
+        verify(timelineEntryRepository).copyRecent(sender.getId(), receiver.getId(), 800);
+        verify(timelineEntryRepository).copyRecent(receiver.getId(), sender.getId(), 800);
+    }
+
+    @Test
+    public void testDisconnect_RemovesFormerFriendsMuralsBothWays() {
+        User sender = new User();
+        sender.setId(UUID.randomUUID());
+        User receiver = new User();
+        receiver.setId(UUID.randomUUID());
+        Friendship friendship = new Friendship();
+        friendship.setId(UUID.randomUUID());
+        friendship.setSender(sender);
+        friendship.setReceiver(receiver);
+        friendship.setStatus(FriendshipStatus.DECLINED);
+        when(friendshipRepository.findById(friendship.getId())).thenReturn(Optional.of(friendship));
+
+        homeTimelineService.disconnect(friendship.getId());
+
+        // Murais só para amigos do ex-amigo deixam o /home dos dois
+        verify(timelineEntryRepository).deleteAuthorFrom(sender.getId(), receiver.getId());
+        verify(timelineEntryRepository).deleteAuthorFrom(receiver.getId(), sender.getId());
+    }
+
+    @Test
+    public void testDisconnect_SkipsFriendshipAcceptedAgain() {
+        Friendship friendship = new Friendship();
+        friendship.setId(UUID.randomUUID());
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        when(friendshipRepository.findById(friendship.getId())).thenReturn(Optional.of(friendship));
+
+        homeTimelineService.disconnect(friendship.getId());
+
+        verify(timelineEntryRepository, never()).deleteAuthorFrom(any(), any());
+    }
+
+    @Test
+    public void testFanOut_PushesMuralOfAuthorBelowThreshold() {
+        UUID muralId = UUID.randomUUID(), authorId = UUID.randomUUID();
+        when(muralRepository.findAuthorId(muralId)).thenReturn(Optional.of(authorId));
+        when(friendshipRepository.countFriendsUpTo(authorId, 100)).thenReturn(11L);
+        when(timelineEntryRepository.fanOut(muralId)).thenReturn(12);
+
+        assertEquals(12, homeTimelineService.fanOut(muralId));
+        verify(muralRepository).markPushed(muralId);
+        assertEquals(12.0, meterRegistry.counter("verbi.timeline.fanout.rows").count());
+    }
+
+    @Test
+    public void testFanOut_LeavesHighDegreeAuthorToBePulled() {
+        UUID muralId = UUID.randomUUID(), authorId = UUID.randomUUID();
+        when(muralRepository.findAuthorId(muralId)).thenReturn(Optional.of(authorId));
+        when(friendshipRepository.countFriendsUpTo(authorId, 100)).thenReturn(100L);
+
+        assertEquals(0, homeTimelineService.fanOut(muralId));
+        verify(timelineEntryRepository, never()).fanOut(any());
+        verify(muralRepository, never()).markPushed(any());
+        assertEquals(1.0, meterRegistry.counter("verbi.timeline.fanout.skipped").count());
+    }
+}
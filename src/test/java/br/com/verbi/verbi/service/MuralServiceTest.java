@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +38,15 @@ public class MuralServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private HomeTimelineService homeTimelineService;
+
+    @Mock
+    private GlobalMuralSnapshot globalMuralSnapshot;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -62,6 +72,7 @@ public class MuralServiceTest {
         assertEquals(mural.getVisibility(), createdMural.getVisibility()); // Verifique se a visibilidade está
                                                                                // correta
         verify(muralRepository).save(any(Mural.class));
+        verify(globalMuralSnapshot).put(argThat(dto -> dto.getBody().equals(body)));
     }
 
     @Test
@@ -101,6 +112,7 @@ public class MuralServiceTest {
 
         assertEquals(updatedBody, updatedMural.getBody());
         verify(muralRepository).save(existingMural);
+        verify(globalMuralSnapshot).remove(muralId); // Sem visibilidade GLOBAL, sai do snapshot
     }
 
     @Test
@@ -140,6 +152,8 @@ public class MuralServiceTest {
 
         // Verifica se o método delete foi chamado corretamente
         verify(muralRepository).delete(existingMural);
+        verify(homeTimelineService).remove(muralId);
+        verify(globalMuralSnapshot).remove(muralId);
     }
 
     @Test
@@ -0,0 +1,159 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import br.com.verbi.verbi.entity.OutboxEvent;
+import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.enums.OutboxEventStatus;
+import br.com.verbi.verbi.enums.OutboxEventType;
+import br.com.verbi.verbi.repository.OutboxEventRepository;
+import br.com.verbi.verbi.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private HomeTimelineService homeTimelineService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OutboxDispatcher outboxDispatcher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private User user;
+    private OutboxEvent event;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(outboxDispatcher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(outboxDispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(outboxDispatcher, "claimTimeout", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(outboxDispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outboxDispatcher, "backoff", Duration.ofSeconds(30));
+        outboxDispatcher.init();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("test@example.com");
+        user.setEmailConfirmationToken("token123");
+
+        event = new OutboxEvent(OutboxEventType.USER_REGISTERED, user.getId(), LocalDateTime.now());
+        when(outboxEventRepository.lockNextBatch(any(), anyInt())).thenReturn(List.of(event));
+        when(outboxEventRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testDispatch_SendsConfirmationEmailAndDeletesEvent() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        outboxDispatcher.dispatch();
+
+        verify(emailService).sendConfirmationEmail(user);
+        verify(outboxEventRepository).delete(event);
+        assertEquals(1, event.getAttempts());
+        assertEquals(1.0, meterRegistry.counter("verbi.outbox.dispatched",
+                "type", "USER_REGISTERED", "outcome", "success").count());
+    }
+
+    @Test
+    public void testDispatch_FansOutCreatedMural() {
+        UUID muralId = UUID.randomUUID();
+        event.setType(OutboxEventType.MURAL_CREATED);
+        event.setAggregateId(muralId);
+
+        outboxDispatcher.dispatch();
+
+        verify(homeTimelineService).fanOut(muralId);
+        verify(outboxEventRepository).delete(event);
+    }
+
+    @Test
+    public void testDispatch_DisconnectsEndedFriendship() {
+        UUID friendshipId = UUID.randomUUID();
+        event.setType(OutboxEventType.FRIENDSHIP_ENDED);
+        event.setAggregateId(friendshipId);
+
+        outboxDispatcher.dispatch();
+
+        verify(homeTimelineService).disconnect(friendshipId);
+        verify(outboxEventRepository).delete(event);
+    }
+
+    @Test
+    public void testDispatch_SkipsUserAlreadyConfirmed() {
+        user.setEmailConfirmationToken(null);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        outboxDispatcher.dispatch();
+
+        verify(emailService, never()).sendConfirmationEmail(any());
+        verify(outboxEventRepository).delete(event);
+    }
+
+    @Test
+    public void testDispatch_MailFailureIsRetriedWithBackoff() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        doThrow(new MailSendException("SMTP down")).when(emailService).sendConfirmationEmail(user);
+
+        outboxDispatcher.dispatch();
+
+        // Continua pendente, para uma nova tentativa depois do backoff
+        assertEquals(OutboxEventStatus.PENDING, event.getStatus());
+        assertEquals("SMTP down", event.getLastError());
+        assertTrue(event.getAvailableAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        verify(outboxEventRepository).save(event);
+        verify(outboxEventRepository, never()).delete(any());
+    }
+
+    @Test
+    public void testDispatch_GivesUpAfterMaxAttempts() {
+        event.setAttempts(2);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        doThrow(new MailSendException("SMTP down")).when(emailService).sendConfirmationEmail(user);
+
+        outboxDispatcher.dispatch();
+
+        assertEquals(3, event.getAttempts());
+        assertEquals(OutboxEventStatus.FAILED, event.getStatus());
+        assertEquals(1.0, meterRegistry.counter("verbi.outbox.dispatched",
+                "type", "USER_REGISTERED", "outcome", "failed").count());
+    }
+}
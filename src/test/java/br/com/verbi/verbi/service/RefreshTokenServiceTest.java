@@ -0,0 +1,130 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.verbi.verbi.dto.AuthResponseDto;
+import br.com.verbi.verbi.entity.RefreshToken;
+import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.exception.TokenInvalidException;
+import br.com.verbi.verbi.repository.RefreshTokenRepository;
+import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.TokenFingerprint;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JWTGenerator jwtGenerator;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshTokenTtl", Duration.ofDays(30));
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("test@example.com");
+    }
+
+    private RefreshToken storedToken(String rawToken, boolean revoked) {
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setId(UUID.randomUUID());
+        refreshToken.setTokenHash(TokenFingerprint.of(rawToken).toBytes());
+        refreshToken.setFamilyId(UUID.randomUUID());
+        refreshToken.setUser(user);
+        refreshToken.setExpiresAt(LocalDateTime.now().plusDays(1));
+        refreshToken.setRevoked(revoked);
+        return refreshToken;
+    }
+
+    @Test
+    public void testIssueTokens_StoresOnlyTheHash() {
+        when(jwtGenerator.generateToken(user.getEmail())).thenReturn("accessToken");
+
+        AuthResponseDto tokens = refreshTokenService.issueTokens(user);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+
+        assertEquals("accessToken", tokens.getAccessToken());
+        assertEquals(TokenFingerprint.of(tokens.getRefreshToken()),
+                TokenFingerprint.fromBytes(captor.getValue().getTokenHash()));
+    }
+
+    @Test
+    public void testRotate_IssuesNewTokenInSameFamily() {
+        RefreshToken current = storedToken("refreshToken", false);
+        when(refreshTokenRepository.findByTokenHash(any(byte[].class))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRotated(current.getId())).thenReturn(1);
+        when(jwtGenerator.generateToken(user.getEmail())).thenReturn("newAccessToken");
+
+        AuthResponseDto tokens = refreshTokenService.rotate("refreshToken");
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+
+        assertEquals("newAccessToken", tokens.getAccessToken());
+        assertNotEquals("refreshToken", tokens.getRefreshToken());
+        assertEquals(current.getFamilyId(), captor.getValue().getFamilyId());
+    }
+
+    @Test
+    public void testRotate_ReuseRevokesFamily() {
+        // Token já rotacionado sendo apresentado de novo
+        RefreshToken current = storedToken("refreshToken", true);
+        when(refreshTokenRepository.findByTokenHash(any(byte[].class))).thenReturn(Optional.of(current));
+
+        assertThrows(TokenInvalidException.class, () -> refreshTokenService.rotate("refreshToken"));
+
+        verify(refreshTokenRepository).revokeFamily(current.getFamilyId());
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    public void testRevokeFamily_OwnToken() {
+        RefreshToken current = storedToken("refreshToken", false);
+        when(refreshTokenRepository.findByTokenHash(any(byte[].class))).thenReturn(Optional.of(current));
+
+        refreshTokenService.revokeFamily("refreshToken", user.getId());
+
+        verify(refreshTokenRepository).revokeFamily(current.getFamilyId());
+    }
+
+    @Test
+    public void testRevokeFamily_IgnoresTokenOfAnotherUser() {
+        // Um usuário não pode encerrar a sessão de outro com um token alheio
+        RefreshToken current = storedToken("refreshToken", false);
+        when(refreshTokenRepository.findByTokenHash(any(byte[].class))).thenReturn(Optional.of(current));
+
+        refreshTokenService.revokeFamily("refreshToken", UUID.randomUUID());
+
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.verbi.verbi.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledJobRunnerTest {
+
+    @Mock
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private ScheduledJobRunner jobRunner;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(jobRunner, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(jobRunner, "maxJitter", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(jobRunner, "lockAtLeastFor", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(jobRunner, "nodeId", "node-a");
+        jobRunner.init();
+    }
+
+    @Test
+    public void testExecute_RunsJobWhenLeaseIsTaken() {
+        when(jobLeaseRepository.tryAcquire("cleanup", "node-a", 1800.0)).thenReturn(1);
+
+        jobRunner.execute("cleanup", Duration.ofMinutes(30), () -> 42);
+
+        assertEquals(42.0, meterRegistry.counter("verbi.job.rows", "job", "cleanup").count());
+        assertEquals(1, meterRegistry.timer("verbi.job.duration", "job", "cleanup", "outcome", "success").count());
+        // Mantém o lease pelo tempo mínimo, para os nós atrasados pelo jitter não repetirem o job
+        verify(jobLeaseRepository).release("cleanup", "node-a", 120.0);
+    }
+
+    @Test
+    public void testExecute_SkipsWhenAnotherNodeHoldsTheLease() {
+        when(jobLeaseRepository.tryAcquire(anyString(), anyString(), anyDouble())).thenReturn(0);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        jobRunner.execute("cleanup", Duration.ofMinutes(30), () -> {
+            ran.set(true);
+            return 0;
+        });
+
+        assertFalse(ran.get());
+        assertEquals(1.0, meterRegistry.counter("verbi.job.skipped", "job", "cleanup").count());
+        verify(jobLeaseRepository, never()).release(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    public void testExecute_ReleasesLeaseWhenJobFails() {
+        when(jobLeaseRepository.tryAcquire(anyString(), anyString(), anyDouble())).thenReturn(1);
+
+        jobRunner.execute("purge", Duration.ofHours(6), () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertEquals(1, meterRegistry.timer("verbi.job.duration", "job", "purge", "outcome", "failure").count());
+        verify(jobLeaseRepository).release(eq("purge"), eq("node-a"), anyDouble());
+    }
+
+    @Test
+    public void testInit_RejectsLeaseShorterThanJitter() {
+        ReflectionTestUtils.setField(jobRunner, "lockAtLeastFor", Duration.ofSeconds(10));
+
+        assertThrows(IllegalStateException.class, () -> jobRunner.init());
+    }
+}
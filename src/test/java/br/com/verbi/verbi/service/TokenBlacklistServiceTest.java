@@ -0,0 +1,173 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.verbi.verbi.entity.TokenBlacklist;
+import br.com.verbi.verbi.repository.TokenBlacklistRepository;
+import br.com.verbi.verbi.security.InProcessRevocationBroadcaster;
+import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.RevocationIndex;
+import br.com.verbi.verbi.security.TokenFingerprint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenBlacklistServiceTest {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("a-test-secret-that-is-long-enough-for-hs256".getBytes());
+
+    @Mock
+    private TokenBlacklistRepository tokenBlacklistRepository;
+
+    private RevocationIndex revocationIndex;
+
+    private InProcessRevocationBroadcaster broadcaster;
+
+    private JWTGenerator jwtGenerator;
+
+    private TokenBlacklistService tokenBlacklistService;
+
+    @BeforeEach
+    public void setUp() {
+        revocationIndex = new RevocationIndex(1000, 0.01, new SimpleMeterRegistry());
+        jwtGenerator = newGenerator(Duration.ofHours(2).toMillis());
+        broadcaster = new InProcessRevocationBroadcaster(revocationIndex);
+        tokenBlacklistService = new TokenBlacklistService(tokenBlacklistRepository, revocationIndex, broadcaster,
+                jwtGenerator, 2);
+    }
+
+    private JWTGenerator newGenerator(long expiration) {
+        JWTGenerator generator = new JWTGenerator();
+        ReflectionTestUtils.setField(generator, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(generator, "jwtExpirationDate", expiration);
+        ReflectionTestUtils.setField(generator, "claimsCacheMaxSize", 100);
+        generator.init();
+        return generator;
+    }
+
+    @Test
+    public void testBlacklistToken_UsesTokenExpiration() {
+        String token = jwtGenerator.generateToken("test@example.com");
+
+        tokenBlacklistService.blacklistToken(token);
+
+        ArgumentCaptor<TokenBlacklist> captor = ArgumentCaptor.forClass(TokenBlacklist.class);
+        verify(tokenBlacklistRepository).save(captor.capture());
+
+        // A expiração gravada é a do próprio token, não um valor fixo
+        LocalDateTime expected = LocalDateTime.ofInstant(
+                jwtGenerator.verify(token).getExpiration().toInstant(), ZoneId.systemDefault());
+        assertEquals(expected, captor.getValue().getExpirationDate());
+        assertEquals(RevocationIndex.Lookup.REVOKED, revocationIndex.lookup(TokenFingerprint.of(token)));
+    }
+
+    @Test
+    public void testBlacklistToken_PropagatesToOtherNodes() {
+        // Índice de um segundo nó, inscrito no mesmo broker
+        RevocationIndex otherNode = new RevocationIndex(1000, 0.01, new SimpleMeterRegistry());
+        broadcaster.subscribe(otherNode);
+
+        String token = jwtGenerator.generateToken("test@example.com");
+        tokenBlacklistService.blacklistToken(token);
+
+        // O outro nó rejeita o token sem consultar o banco
+        assertEquals(RevocationIndex.Lookup.REVOKED, otherNode.lookup(TokenFingerprint.of(token)));
+    }
+
+    @Test
+    public void testBlacklistToken_IgnoresExpiredToken() {
+        String token = newGenerator(-1000).generateToken("test@example.com");
+
+        tokenBlacklistService.blacklistToken(token);
+
+        verify(tokenBlacklistRepository, never()).save(any(TokenBlacklist.class));
+    }
+
+    @Test
+    public void testCleanUpExpiredTokens_DeletesInBatches() {
+        // Dois lotes cheios e um parcial: o varredor para quando o lote não enche
+        when(tokenBlacklistRepository.deleteExpiredBatch(any(LocalDateTime.class), anyInt()))
+                .thenReturn(2, 2, 1);
+
+        int removed = tokenBlacklistService.cleanUpExpiredTokens();
+
+        assertEquals(5, removed);
+        verify(tokenBlacklistRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), anyInt());
+        verify(tokenBlacklistRepository, never()).findAll();
+        assertEquals(0, revocationIndex.size());
+    }
+
+    private TokenBlacklist legacyRow(String token) {
+        TokenBlacklist legacy = new TokenBlacklist();
+        legacy.setToken(token);
+        legacy.setExpirationDate(LocalDateTime.now().plusHours(1));
+        return legacy;
+    }
+
+    @Test
+    public void testBackfillFingerprints_ConvertsLegacyRows() {
+        String token = jwtGenerator.generateToken("test@example.com");
+        TokenBlacklist legacy = legacyRow(token);
+        when(tokenBlacklistRepository.findByFingerprintIsNullAndTokenIsNotNull(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(legacy)));
+
+        assertEquals(1, tokenBlacklistService.backfillFingerprints());
+
+        // O token completo é substituído pelo seu SHA-256
+        verify(tokenBlacklistRepository).save(legacy);
+        assertArrayEquals(TokenFingerprint.of(token).toBytes(), legacy.getFingerprint());
+        assertNull(legacy.getToken());
+    }
+
+    @Test
+    public void testBackfillFingerprints_DeletesDuplicateLegacyRow() {
+        String token = jwtGenerator.generateToken("test@example.com");
+        TokenBlacklist legacy = legacyRow(token);
+        when(tokenBlacklistRepository.findByFingerprintIsNullAndTokenIsNotNull(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(legacy)));
+        when(tokenBlacklistRepository.existsByFingerprint(TokenFingerprint.of(token).toBytes())).thenReturn(true);
+
+        tokenBlacklistService.backfillFingerprints();
+
+        verify(tokenBlacklistRepository).delete(legacy);
+        verify(tokenBlacklistRepository, never()).save(any());
+    }
+
+    @Test
+    public void testLoadRevocationIndex_IndexesLegacyRowsByToken() {
+        // Linha antiga ainda sem fingerprint (backfill não gravou), mas ainda válida
+        String token = jwtGenerator.generateToken("test@example.com");
+        when(tokenBlacklistRepository.findByFingerprintIsNullAndTokenIsNotNull(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(tokenBlacklistRepository.findByExpirationDateAfter(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(legacyRow(token))));
+
+        tokenBlacklistService.loadRevocationIndex();
+
+        assertEquals(RevocationIndex.Lookup.REVOKED, revocationIndex.lookup(TokenFingerprint.of(token)));
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.com.verbi.verbi.dto.UserProfileDto;
+import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.exception.InvalidDataException;
+import br.com.verbi.verbi.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class UserProfileServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserProfileService userProfileService;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        userProfileService = new UserProfileService(100, Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(userProfileService, "userRepository", userRepository);
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setName("Ana");
+        user.setEmail("ana@test.com");
+    }
+
+    @Test
+    public void testFindById_ReadsThroughOnce() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        userProfileService.findById(user.getId());
+        UserProfileDto profile = userProfileService.findById(user.getId()).orElseThrow();
+
+        assertEquals("Ana", profile.getName());
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    public void testFindByEmail_SharesEntryWithId() {
+        when(userRepository.findByEmail("ana@test.com")).thenReturn(Optional.of(user));
+
+        userProfileService.findByEmail("ana@test.com");
+        userProfileService.findByEmail("ana@test.com");
+        userProfileService.findById(user.getId());
+
+        verify(userRepository, times(1)).findByEmail("ana@test.com");
+        verify(userRepository, times(0)).findById(user.getId());
+    }
+
+    @Test
+    public void testFindAllById_LoadsOnlyMissingProfilesInOneQuery() {
+        User other = new User();
+        other.setId(UUID.randomUUID());
+        other.setName("Bruno");
+        UUID unknown = UUID.randomUUID();
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        userProfileService.findById(user.getId()); // Já em cache
+        when(userRepository.findProfilesByIdIn(List.of(other.getId(), unknown)))
+                .thenReturn(List.of(UserProfileDto.fromEntity(other)));
+
+        List<UserProfileDto> profiles = userProfileService.findAllById(
+                List.of(other.getId(), user.getId(), other.getId(), unknown));
+
+        // Sem duplicados, na ordem pedida, ids desconhecidos omitidos
+        assertEquals(List.of("Bruno", "Ana"), profiles.stream().map(UserProfileDto::getName).toList());
+
+        // O segundo pedido sai todo do cache
+        userProfileService.findAllById(List.of(user.getId(), other.getId()));
+        verify(userRepository, times(1)).findProfilesByIdIn(List.of(other.getId(), unknown));
+    }
+
+    @Test
+    public void testFindAllById_RejectsTooManyIds() {
+        List<UUID> ids = IntStream.rangeClosed(0, UserProfileService.MAX_BATCH_SIZE)
+                .mapToObj(i -> UUID.randomUUID())
+                .toList();
+
+        assertThrows(InvalidDataException.class, () -> userProfileService.findAllById(ids));
+        verify(userRepository, never()).findProfilesByIdIn(ids);
+    }
+
+    @Test
+    public void testInvalidate_ReloadsNewVersion() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        String oldETag = userProfileService.findById(user.getId()).orElseThrow().getETag();
+
+        user.setName("Ana Maria");
+        user.setProfileVersion(1);
+        userProfileService.invalidate(user.getId());
+        UserProfileDto profile = userProfileService.findById(user.getId()).orElseThrow();
+
+        assertEquals("Ana Maria", profile.getName());
+        assertNotEquals(oldETag, profile.getETag());
+    }
+
+    @Test
+    public void testInvalidateDuringLoad_DoesNotCacheStaleProfile() {
+        // A leitura começa, o perfil muda e é invalidado antes de ela terminar
+        when(userRepository.findById(user.getId())).thenAnswer(invocation -> {
+            userProfileService.invalidate(user.getId());
+            return Optional.of(user);
+        }).thenReturn(Optional.of(user));
+
+        userProfileService.findById(user.getId());
+        userProfileService.findById(user.getId());
+
+        // O resultado antigo não ficou no cache: a segunda leitura vai ao banco
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+}
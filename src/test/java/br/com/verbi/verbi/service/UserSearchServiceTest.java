@@ -0,0 +1,100 @@
+package br.com.verbi.verbi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.com.verbi.verbi.dto.CursorPageDto;
+import br.com.verbi.verbi.dto.UserSummaryDto;
+import br.com.verbi.verbi.exception.InvalidDataException;
+import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.repository.UserRepository.SearchRow;
+
+@ExtendWith(MockitoExtension.class)
+public class UserSearchServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserSearchService userSearchService;
+
+    private static SearchRow row(String name, float distance) {
+        UUID id = UUID.randomUUID();
+        return new SearchRow() {
+            public UUID getId() {
+                return id;
+            }
+
+            public String getName() {
+                return name;
+            }
+
+            public String getPicture() {
+                return null;
+            }
+
+            public Float getDistance() {
+                return distance;
+            }
+        };
+    }
+
+    @Test
+    public void testSearch_FoldsAccentsAndReturnsCursor() {
+        SearchRow first = row("João Silva", 0.2f);
+        SearchRow second = row("Joana Souza", 0.6f);
+        when(userRepository.searchByName("joao", "%joao%", 2)).thenReturn(List.of(first, second));
+
+        CursorPageDto<UserSummaryDto> page = userSearchService.searchByName("JOÃO", null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("João Silva", page.getItems().get(0).getName());
+        assertNotNull(page.getNextCursor());
+
+        // O cursor leva ao ponto exato (distância, id) do último resultado
+        userSearchService.searchByName("JOÃO", page.getNextCursor(), 1);
+        verify(userRepository).searchByNameAfter("joao", "%joao%", 0.2f, first.getId(), 2);
+    }
+
+    @Test
+    public void testSearch_LastPageHasNoCursor() {
+        when(userRepository.searchByName(anyString(), anyString(), anyInt())).thenReturn(List.of(row("Ana", 0f)));
+
+        assertNull(userSearchService.searchByName("ana", null, 20).getNextCursor());
+    }
+
+    @Test
+    public void testSearch_ShortQueryMatchesPrefix() {
+        userSearchService.searchByName("Jo", null, 20);
+
+        verify(userRepository).searchByName("jo", "jo%", 21);
+    }
+
+    @Test
+    public void testSearch_BlankQueryReturnsNothing() {
+        assertTrue(userSearchService.searchByName("   ", null, 20).getItems().isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testSearch_InvalidCursor() {
+        assertThrows(InvalidDataException.class, () -> userSearchService.searchByName("joao", "not-a-cursor", 20));
+    }
+}
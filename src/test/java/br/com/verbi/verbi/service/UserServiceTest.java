@@ -2,18 +2,27 @@ package br.com.verbi.verbi.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 
 import br.com.verbi.verbi.dto.UserDto;
 import br.com.verbi.verbi.entity.User;
+import br.com.verbi.verbi.enums.OutboxEventType;
 import br.com.verbi.verbi.exception.TokenExpiredException;
 import br.com.verbi.verbi.exception.TokenInvalidException;
 import br.com.verbi.verbi.exception.UserNotFoundException;
+import br.com.verbi.verbi.repository.RefreshTokenRepository;
 import br.com.verbi.verbi.repository.UserRepository;
+import br.com.verbi.verbi.security.UserPrincipal;
+import br.com.verbi.verbi.security.UserPrincipalCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -41,10 +50,39 @@ class UserServiceTest {
     @Mock
     private AuthorizationService authorizationService;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
+    @Mock
+    private UserAutocompleteService userAutocompleteService;
+
+    @Mock
+    private AccountPurgeService accountPurgeService;
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private GlobalMuralSnapshot globalMuralSnapshot;
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-
+        // Executa o callback direto, como se a transação tivesse sido aberta
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -57,6 +95,7 @@ class UserServiceTest {
         userDto.setPicture(null);
 
         User user = new User();
+        user.setId(UUID.randomUUID());
         user.setName("test");
         user.setEmail("test@example.com");
         user.setPassword("encodedPassword");
@@ -72,6 +111,52 @@ class UserServiceTest {
         assertEquals("encodedPassword", registeredUser.getPassword());
 
         verify(userRepository, times(1)).save(any(User.class));
+        // O email de confirmação sai pelo outbox, não durante o cadastro
+        verify(outboxService).record(OutboxEventType.USER_REGISTERED, user.getId());
+    }
+
+    @Test
+    void testRegisterUserWithEmail_HashesAndStoresPictureOutsideTransaction() throws Exception {
+        UserDto userDto = new UserDto();
+        userDto.setName("test");
+        userDto.setEmail("test@example.com");
+        userDto.setPassword("password");
+        MultipartFile picture = mock(MultipartFile.class);
+
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        when(fileService.saveFile(picture, "imageProfile")).thenReturn("upload/imageProfile/pic.png");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User registeredUser = userService.registerUserWithEmail(userDto, picture);
+
+        // Hash e arquivo antes da transação; dentro dela só save e outbox; autocomplete depois do commit
+        InOrder inOrder = inOrder(passwordEncoder, fileService, transactionTemplate, userRepository,
+                outboxService, userAutocompleteService);
+        inOrder.verify(passwordEncoder).encode("password");
+        inOrder.verify(fileService).saveFile(picture, "imageProfile");
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(userRepository).save(registeredUser);
+        inOrder.verify(outboxService).record(OutboxEventType.USER_REGISTERED, registeredUser.getId());
+        inOrder.verify(userAutocompleteService).put(registeredUser);
+    }
+
+    @Test
+    void testRegisterUserWithEmail_FailedCommitDeletesPicture() throws Exception {
+        UserDto userDto = new UserDto();
+        userDto.setName("test");
+        userDto.setEmail("test@example.com");
+        userDto.setPassword("password");
+        MultipartFile picture = mock(MultipartFile.class);
+
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        when(fileService.saveFile(picture, "imageProfile")).thenReturn("upload/imageProfile/pic.png");
+        when(userRepository.save(any(User.class))).thenThrow(new IllegalStateException("commit failed"));
+
+        assertThrows(IllegalStateException.class, () -> userService.registerUserWithEmail(userDto, picture));
+
+        // Nenhum usuário aponta para o arquivo: ele não pode ficar órfão
+        verify(fileService).deleteFile("upload/imageProfile/pic.png");
+        verify(userAutocompleteService, never()).put(any());
     }
 
     @Test
@@ -90,6 +175,7 @@ class UserServiceTest {
         assertEquals("Email already in use", exception.getMessage());
 
         verify(userRepository, never()).save(any(User.class));
+        verify(outboxService, never()).record(any(), any());
     }
 
     @Test
@@ -122,6 +208,26 @@ class UserServiceTest {
         verify(userRepository).findByEmail(email);
     }
 
+    @Test
+    public void testAuthenticateUser_RehashesWhenCostChanged() {
+        String email = "test@example.com";
+        String password = "password123";
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("oldCostHash");
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(password, "oldCostHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldCostHash")).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("newCostHash");
+
+        assertTrue(userService.authenticateUser(email, password));
+
+        // O hash é regravado com o custo atual
+        assertEquals("newCostHash", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
     @Test
     public void testAuthenticateUser_Unauthorized() {
         String email = "test@example.com";
@@ -185,6 +291,55 @@ class UserServiceTest {
         verify(userRepository).save(user);
     }
 
+    @Test
+    public void testFindPrincipalByEmail_CachesPrincipal() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail("test@example.com");
+        user.setName("Test User");
+
+        when(userPrincipalCache.get("test@example.com")).thenReturn(null);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        Optional<UserPrincipal> principal = userService.findPrincipalByEmail("test@example.com");
+
+        assertTrue(principal.isPresent());
+        assertEquals(user.getId(), principal.get().getId());
+        assertEquals("Test User", principal.get().getDisplayName());
+        verify(userPrincipalCache).put(principal.get());
+    }
+
+    @Test
+    public void testFindPrincipalByEmail_CacheHitSkipsRepository() {
+        UserPrincipal cached = new UserPrincipal(UUID.randomUUID(), "test@example.com", "Test User", false);
+        when(userPrincipalCache.get("test@example.com")).thenReturn(cached);
+
+        Optional<UserPrincipal> principal = userService.findPrincipalByEmail("test@example.com");
+
+        assertEquals(cached, principal.get());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    public void testUpdateUser_InvalidatesPrincipalCache() {
+        UUID userId = UUID.randomUUID();
+        UserDto userDto = new UserDto();
+        userDto.setName("New Name");
+        userDto.setEmail("new@example.com");
+
+        User user = new User();
+        user.setId(userId);
+        user.setEmail("old@example.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.updateUser(userId, userDto);
+
+        verify(userPrincipalCache).invalidate("old@example.com");
+        verify(userPrincipalCache).invalidate("new@example.com");
+    }
+
     @Test
     public void testUpdateUser_NotFound() {
         UUID userId = UUID.randomUUID();
@@ -242,6 +397,42 @@ class UserServiceTest {
         assertEquals(passwordEncoder.encode(newPassword), user.getPassword());
         assertNull(user.getResetPasswordToken());
         assertNull(user.getResetPasswordExpires());
+        // Refresh tokens emitidos antes da troca de senha deixam de valer
+        verify(refreshTokenRepository).revokeByUserId(user.getId());
+    }
+
+    @Test
+    public void testUpdatePassword_RevokesRefreshTokens() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setPassword("oldHash");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("oldPassword", "oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("newPassword")).thenReturn("newHash");
+
+        userService.updatePassword(userId, "oldPassword", "newPassword");
+
+        assertEquals("newHash", user.getPassword());
+        verify(userRepository).save(user);
+        verify(refreshTokenRepository).revokeByUserId(userId);
+    }
+
+    @Test
+    public void testUpdatePassword_WrongPasswordKeepsRefreshTokens() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setPassword("oldHash");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrongPassword", "oldHash")).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.updatePassword(userId, "wrongPassword", "newPassword"));
+
+        verify(refreshTokenRepository, never()).revokeByUserId(any());
     }
 
     @Test
@@ -338,23 +529,29 @@ class UserServiceTest {
 
     @Test
     public void testDeleteMarkedAccounts() {
-        // Suponha que tenhamos usuários marcados para exclusão
-        List<User> usersToDelete = new ArrayList<>();
-        User user1 = new User();
-        user1.setId(UUID.randomUUID());
-        user1.setDeleteMarkedDate(LocalDateTime.now().minusDays(31)); // Mais de 30 dias
-        usersToDelete.add(user1);
+        userService.deleteMarkedAccounts();
 
-        when(userRepository.findByDeleteMarkedDateBeforeAndDeletionDateIsNull(any(LocalDateTime.class)))
-                .thenReturn(usersToDelete);
+        // A exclusão é delegada ao job em lotes, com corte de 30 dias
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(accountPurgeService).purgeMarkedAccounts(cutoff.capture());
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusDays(29)));
+        assertTrue(cutoff.getValue().isAfter(LocalDateTime.now().minusDays(31)));
+    }
+
+    @Test
+    public void testDeleteUser_RemovesMuralsFromGlobalSnapshot() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        user.setEmail("test@example.com");
 
-        // Mock para o repositório para garantir que o usuário pode ser encontrado
-        when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
-        userService.deleteMarkedAccounts();
+        userService.deleteUser(userId);
 
-        // Verifique se o usuário foi excluído
-        verify(userRepository).delete(user1);
+        verify(refreshTokenRepository).deleteByUserId(userId);
+        verify(userRepository).delete(user);
+        // Os murais do usuário não podem continuar no feed global em memória
+        verify(globalMuralSnapshot).removeAuthors(List.of(userId));
     }
-
 }
@@ -0,0 +1,30 @@
+package br.com.verbi.verbi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+public class FeedMergerTest {
+
+    private static final Comparator<Integer> NEWEST_FIRST = Comparator.reverseOrder();
+
+    @Test
+    public void testMerge_InterleavesSortedSources() {
+        List<Integer> merged = FeedMerger.merge(List.of(List.of(9, 5, 1), List.of(8, 7), List.of(6, 2)),
+                NEWEST_FIRST, Function.identity(), 10);
+
+        assertEquals(List.of(9, 8, 7, 6, 5, 2, 1), merged);
+    }
+
+    @Test
+    public void testMerge_DropsDuplicatesAndStopsAtLimit() {
+        List<Integer> merged = FeedMerger.merge(List.of(List.of(9, 7, 5), List.of(9, 8, 7), List.of()),
+                NEWEST_FIRST, Function.identity(), 4);
+
+        assertEquals(List.of(9, 8, 7, 5), merged);
+    }
+}
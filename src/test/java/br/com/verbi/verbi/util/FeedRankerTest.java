@@ -0,0 +1,76 @@
+package br.com.verbi.verbi.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class FeedRankerTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private final FeedRanker ranker = new FeedRanker(1.0, 0.5, 0.3, HOUR);
+
+    @Test
+    public void testScore_RecencyHalvesEveryHalfLife() {
+        long now = 100 * HOUR;
+        float[] scores = new float[3];
+
+        ranker.score(now, new long[] { now, now - HOUR, now - 2 * HOUR }, new float[3], new float[3], 3, scores);
+
+        assertArrayEquals(new float[] { 1.0f, 0.5f, 0.25f }, scores, 1e-6f);
+    }
+
+    @Test
+    public void testScore_AffinityAndActivityLiftOlderMurals() {
+        long now = 100 * HOUR;
+        float[] scores = new float[2];
+
+        // O mural antigo tem comentários e é de um autor próximo do leitor
+        ranker.score(now, new long[] { now, now - 3 * HOUR }, new float[] { 0, 4 }, new float[] { 0, 6 }, 2, scores);
+
+        assertTrue(scores[1] > scores[0]);
+    }
+
+    @Test
+    public void testSelectTop_BestFirstTiesToLowerIndex() {
+        float[] scores = { 0.5f, 2f, 1f, 2f, 0.1f };
+        int[] top = new int[3];
+
+        assertEquals(3, FeedRanker.selectTop(scores, scores.length, 3, top));
+        assertArrayEquals(new int[] { 1, 3, 2 }, top);
+    }
+
+    @Test
+    public void testSelectTop_FewerCandidatesThanK() {
+        int[] top = new int[2];
+
+        assertEquals(2, FeedRanker.selectTop(new float[] { 1f, 3f, 9f }, 2, 10, top));
+        assertArrayEquals(new int[] { 1, 0 }, top);
+        assertEquals(0, FeedRanker.selectTop(new float[0], 0, 10, top));
+    }
+
+    @Test
+    public void testSelectTop_MatchesFullSort() {
+        Random random = new Random(42);
+        int n = 10_000, k = 50;
+        float[] scores = new float[n];
+        for (int i = 0; i < n; i++) {
+            scores[i] = random.nextInt(1000); // Muitos empates
+        }
+        int[] top = new int[k];
+
+        FeedRanker.selectTop(scores, n, k, top);
+
+        int[] expected = IntStream.range(0, n).boxed()
+                .sorted(Comparator.<Integer>comparingDouble(i -> -scores[i]).thenComparing(i -> i))
+                .limit(k).mapToInt(Integer::intValue).toArray();
+        assertEquals(Arrays.toString(expected), Arrays.toString(top));
+    }
+}
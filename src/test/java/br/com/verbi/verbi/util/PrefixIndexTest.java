@@ -0,0 +1,90 @@
+package br.com.verbi.verbi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+public class PrefixIndexTest {
+
+    private final PrefixIndex<String> index = new PrefixIndex<>(3);
+
+    private UUID put(String name, long score) {
+        UUID id = UUID.randomUUID();
+        index.put(id, name, score, name);
+        return id;
+    }
+
+    @Test
+    public void testSearch_OrdersByScoreAndIgnoresAccents() {
+        put("Ana Silva", 5);
+        put("Anabela", 9);
+        put("João Ângelo", 1);
+        put("Bruno", 100);
+
+        assertEquals(List.of("Anabela", "Ana Silva", "João Ângelo"), index.search("an", 10));
+        assertEquals(List.of("Ana Silva"), index.search("SILV", 10));
+        assertEquals(List.of("João Ângelo"), index.search("joao", 10));
+        assertTrue(index.search("x", 10).isEmpty());
+    }
+
+    @Test
+    public void testSearch_KeepsOnlyTopKPerNode() {
+        put("Maria A", 1);
+        put("Maria B", 2);
+        put("Maria C", 3);
+        put("Maria D", 4);
+
+        assertEquals(List.of("Maria D", "Maria C", "Maria B"), index.search("mar", 10));
+    }
+
+    @Test
+    public void testRemoveAndRename_UpdateTheTopEntries() {
+        put("Maria A", 1);
+        put("Maria B", 2);
+        UUID c = put("Maria C", 3);
+        UUID d = put("Maria D", 4);
+
+        index.remove(d);
+        // "Maria A" had been pushed out of the top and comes back
+        assertEquals(List.of("Maria C", "Maria B", "Maria A"), index.search("maria", 10));
+
+        index.put(c, "Carla", "Carla");
+        assertEquals(List.of("Maria B", "Maria A"), index.search("maria", 10));
+        assertEquals(List.of("Carla"), index.search("car", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testAdjustScore_ReordersSuggestions() {
+        UUID low = put("Pedro", 0);
+        put("Paulo", 1);
+
+        index.adjustScore(low, 2);
+
+        assertEquals(List.of("Pedro", "Paulo"), index.search("p", 10));
+    }
+
+    @Test
+    public void testSetScore_CanLowerPopularity() {
+        UUID high = put("Pedro", 5);
+        put("Paulo", 1);
+
+        // Amizades desfeitas: a contagem recalculada desce
+        index.setScore(high, 0);
+
+        assertEquals(List.of("Paulo", "Pedro"), index.search("p", 10));
+    }
+
+    @Test
+    public void testSearch_PrefixLongerThanTrieDepth() {
+        put("Maximiliano Fernandes", 1);
+        put("Maximiliana Costa", 2);
+
+        assertEquals(List.of("Maximiliano Fernandes"), index.search("maximiliano f", 10));
+        assertEquals(List.of("Maximiliana Costa", "Maximiliano Fernandes"), index.search("maximilian", 10));
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.verbi.verbi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testAllowsBurstThenRejects() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(3), 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("ip|1.2.3.4"));
+        assertEquals(0, limiter.tryAcquire("ip|1.2.3.4"));
+        assertEquals(0, limiter.tryAcquire("ip|1.2.3.4"));
+
+        // Burst esgotado: o próximo token chega em 1 segundo
+        assertEquals(Duration.ofSeconds(1).toNanos(), limiter.tryAcquire("ip|1.2.3.4"));
+
+        // Outras chaves têm o próprio balde
+        assertEquals(0, limiter.tryAcquire("ip|5.6.7.8"));
+    }
+
+    @Test
+    public void testRefillsOverTime() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(2), 100, clock::get);
+
+        limiter.tryAcquire("key");
+        limiter.tryAcquire("key");
+        assertTrue(limiter.tryAcquire("key") > 0);
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(0, limiter.tryAcquire("key"));
+    }
+
+    @Test
+    public void testReleaseGivesTheTokenBack() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(2), 100, clock::get);
+
+        limiter.tryAcquire("key");
+        limiter.tryAcquire("key");
+        assertTrue(limiter.tryAcquire("key") > 0);
+
+        // O token devolvido pode ser usado de novo sem esperar
+        limiter.release("key");
+        assertEquals(0, limiter.tryAcquire("key"));
+        assertTrue(limiter.tryAcquire("key") > 0);
+    }
+
+    @Test
+    public void testEvictsIdleKeysPastCap() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofSeconds(1), 2, clock::get);
+
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        // Depois do período os baldes estão cheios e não precisam ser guardados
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        limiter.tryAcquire("c");
+
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.verbi.verbi.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import br.com.verbi.verbi.exception.InvalidJwtTokenException;
+import br.com.verbi.verbi.security.JWTGenerator;
+import br.com.verbi.verbi.security.RevocationChecker;
+import br.com.verbi.verbi.security.TokenFingerprint;
+import br.com.verbi.verbi.security.UserPrincipal;
+import br.com.verbi.verbi.service.UserService;
+import io.jsonwebtoken.Claims;
+
+@ExtendWith(MockitoExtension.class)
+public class MyChannelInterceptorTest {
+
+    @Mock
+    private JWTGenerator jwtGenerator;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private RevocationChecker revocationChecker;
+
+    @InjectMocks
+    private MyChannelInterceptor interceptor;
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    private Message<byte[]> frame(StompHeaderAccessor accessor) {
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    public void testConnect_AuthenticatesSession() {
+        UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "test@example.com", "Test User", false);
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("test@example.com");
+        when(jwtGenerator.verify(eq("validToken"), any(TokenFingerprint.class))).thenReturn(claims);
+        when(userService.findPrincipalByEmail("test@example.com")).thenReturn(Optional.of(principal));
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer validToken");
+        Message<?> message = interceptor.preSend(frame(accessor), channel);
+
+        // O principal fica associado à sessão
+        StompHeaderAccessor result = StompHeaderAccessor.wrap(message);
+        assertSame(principal, ((UsernamePasswordAuthenticationToken) result.getUser()).getPrincipal());
+    }
+
+    @Test
+    public void testConnect_WithRevokedToken_IsRejected() {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("test@example.com");
+        when(jwtGenerator.verify(eq("revokedToken"), any(TokenFingerprint.class))).thenReturn(claims);
+        when(revocationChecker.isRevoked(TokenFingerprint.of("revokedToken"))).thenReturn(true);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer revokedToken");
+
+        // Token revogado no logout não abre sessão WebSocket
+        assertThrows(InvalidJwtTokenException.class, () -> interceptor.preSend(frame(accessor), channel));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void testConnect_WithoutToken_IsRejected() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+
+        assertThrows(InvalidJwtTokenException.class, () -> interceptor.preSend(frame(accessor), channel));
+    }
+
+    @Test
+    public void testSend_UsesSessionPrincipalWithoutParsingToken() {
+        UserPrincipal principal = new UserPrincipal(UUID.randomUUID(), "test@example.com", "Test User", false);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+
+        interceptor.preSend(frame(accessor), channel);
+
+        verifyNoInteractions(jwtGenerator, userService, revocationChecker);
+    }
+
+    @Test
+    public void testSend_WithoutAuthenticatedSession_IsRejected() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+
+        assertThrows(InvalidJwtTokenException.class, () -> interceptor.preSend(frame(accessor), channel));
+    }
+}